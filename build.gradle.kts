@@ -353,6 +353,34 @@ cct.jacoco(runGametest)
 
 tasks.check { dependsOn(runGametest) }
 
+// Benchmarks
+
+val benchmark by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().runtimeClasspath
+}
+
+configurations {
+    named(benchmark.compileClasspathConfigurationName) { shouldResolveConsistentlyWith(compileClasspath.get()) }
+    named(benchmark.runtimeClasspathConfigurationName) { shouldResolveConsistentlyWith(runtimeClasspath.get()) }
+}
+
+dependencies {
+    add(benchmark.implementationConfigurationName, sourceSets.main.get().output)
+    add(benchmark.implementationConfigurationName, testFixtures(project))
+    add(benchmark.implementationConfigurationName, libs.jmh.core)
+    add(benchmark.annotationProcessorConfigurationName, libs.jmh.generator)
+}
+
+val jmh by tasks.registering(JavaExec::class) {
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    description = "Runs the JMH benchmarks. Use -PjmhArgs=\"...\" to pass options (such as a filter) to JMH."
+
+    classpath = benchmark.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args = (findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
 // Upload tasks
 
 val checkChangelog by tasks.registering(CheckChangelog::class) {
@@ -21,6 +21,7 @@
 -- @tparam[2] {
 --   url = string, body? = string, headers? = { [string] = string },
 --   binary? = boolean, method? = string, redirect? = boolean,
+--   stream? = boolean,
 -- } request Options for the request.
 --
 -- This table form is an expanded version of the previous syntax. All arguments
@@ -32,6 +33,10 @@
 --
 --  - `method`: Which HTTP method to use, for instance `"PATCH"` or `"DELETE"`.
 --  - `redirect`: Whether to follow HTTP redirects. Defaults to true.
+--  - `stream`: Whether to stream the response body. The response is returned
+--    as soon as its headers are received, and the body can then be read as it
+--    arrives. Streamed responses are always read in binary mode. Reading will
+--    wait for more data if none is available yet. Defaults to false.
 --
 -- @see http.get  For a synchronous way to make GET requests.
 -- @see http.post For a synchronous way to make POST requests.
@@ -155,6 +160,17 @@ function checkURL(url) end
 -- @tparam[opt] { [string] = string } headers Additional headers to send as part
 -- of the initial websocket connection.
 --
+-- @tparam[2] {
+--   url = string, headers? = { [string] = string }, batch? = boolean,
+-- } request Options for the websocket.
+--
+-- This table form accepts the arguments from above as fields, as well as:
+--
+--  - `batch`: Whether to batch incoming messages. Rather than queuing a
+--    @{websocket_message} event for each message, messages are held by the
+--    websocket until read with @{http.Websocket.receive} or
+--    @{http.Websocket.receiveAll}. Defaults to false.
+--
 -- @treturn Websocket The websocket connection.
 -- @treturn[2] false If the websocket connection failed.
 -- @treturn string An error message describing why the connection failed.
@@ -172,6 +188,10 @@ function websocket(url, headers) end
 -- `ws://` or `wss://` protocol.
 -- @tparam[opt] { [string] = string } headers Additional headers to send as part
 -- of the initial websocket connection.
+-- @tparam[2] {
+--   url = string, headers? = { [string] = string }, batch? = boolean,
+-- } request Options for the websocket. See @{http.websocket} for details on
+-- how these options behave.
 -- @since 1.80pr1.3
 -- @changed 1.95.3 Added User-Agent to default headers.
 function websocketAsync(url, headers) end
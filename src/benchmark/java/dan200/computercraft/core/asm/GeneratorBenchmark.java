@@ -0,0 +1,115 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.asm;
+
+import dan200.computercraft.api.lua.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calling methods generated by {@link Generator}, as done for every peripheral and API call.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class GeneratorBenchmark
+{
+    private static final ILuaContext CONTEXT = task -> {
+        throw new IllegalStateException( "Cannot run main thread tasks" );
+    };
+
+    private final Target target = new Target();
+    private final IArguments noArgs = new ObjectArguments();
+    private final IArguments intArgs = new ObjectArguments( 1.0 );
+    private final IArguments stringArgs = new ObjectArguments( "hello", "world" );
+
+    private LuaMethod noArgsMethod;
+    private LuaMethod intMethod;
+    private LuaMethod stringMethod;
+    private LuaMethod argumentsMethod;
+
+    @Setup
+    public void setup()
+    {
+        List<NamedMethod<LuaMethod>> methods = LuaMethod.GENERATOR.getMethods( Target.class );
+        noArgsMethod = find( methods, "noArgs" );
+        intMethod = find( methods, "intArg" );
+        stringMethod = find( methods, "stringArgs" );
+        argumentsMethod = find( methods, "arguments" );
+    }
+
+    @Benchmark
+    public List<NamedMethod<LuaMethod>> getMethods()
+    {
+        return LuaMethod.GENERATOR.getMethods( Target.class );
+    }
+
+    @Benchmark
+    public MethodResult callNoArgs() throws LuaException
+    {
+        return noArgsMethod.apply( target, CONTEXT, noArgs );
+    }
+
+    @Benchmark
+    public MethodResult callInt() throws LuaException
+    {
+        return intMethod.apply( target, CONTEXT, intArgs );
+    }
+
+    @Benchmark
+    public MethodResult callStrings() throws LuaException
+    {
+        return stringMethod.apply( target, CONTEXT, stringArgs );
+    }
+
+    @Benchmark
+    public MethodResult callArguments() throws LuaException
+    {
+        return argumentsMethod.apply( target, CONTEXT, stringArgs );
+    }
+
+    private static LuaMethod find( List<NamedMethod<LuaMethod>> methods, String name )
+    {
+        for( NamedMethod<LuaMethod> method : methods )
+        {
+            if( method.getName().equals( name ) ) return method.getMethod();
+        }
+
+        throw new IllegalStateException( "No such method " + name );
+    }
+
+    public static class Target
+    {
+        @LuaFunction
+        public final boolean noArgs()
+        {
+            return true;
+        }
+
+        @LuaFunction
+        public final int intArg( int x )
+        {
+            return x + 1;
+        }
+
+        @LuaFunction
+        public final String stringArgs( String x, String y )
+        {
+            return x;
+        }
+
+        @LuaFunction
+        public final int arguments( IArguments arguments )
+        {
+            return arguments.count();
+        }
+    }
+}
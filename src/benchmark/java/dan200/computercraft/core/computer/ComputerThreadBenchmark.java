@@ -0,0 +1,122 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.core.ComputerContext;
+import dan200.computercraft.core.computer.mainthread.MainThread;
+import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.test.core.computer.BasicEnvironment;
+import dan200.computercraft.test.core.filesystem.MemoryMount;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how many events {@link ComputerThread} can get through when running many busy computers.
+ * <p>
+ * Each computer runs a tight loop which queues an event and then waits for it, so every iteration goes back through
+ * the scheduler.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class ComputerThreadBenchmark
+{
+    private static final int EVENTS = 1000;
+
+    private static final String PROGRAM = "while true do bench.tick() os.queueEvent('bench') os.pullEvent('bench') end";
+
+    @Param( { "1", "16", "128" } )
+    public int computers;
+
+    @Param( { "1", "4" } )
+    public int threads;
+
+    private final AtomicLong events = new AtomicLong();
+    private final List<Computer> running = new ArrayList<>();
+    private ComputerContext context;
+    private ScheduledExecutorService ticker;
+
+    @Setup
+    public void setup() throws InterruptedException
+    {
+        ComputerCraft.maxMainComputerTime = ComputerCraft.maxMainGlobalTime = Integer.MAX_VALUE;
+
+        MemoryMount mount = new MemoryMount().addFile( "startup.lua", PROGRAM );
+        BasicEnvironment environment = new BasicEnvironment( mount );
+        MainThread mainThread = new MainThread();
+        context = new ComputerContext( environment, threads, mainThread );
+
+        for( int i = 0; i < computers; i++ )
+        {
+            Computer computer = new Computer( context, environment, new Terminal( 51, 19, true ), i );
+            computer.addApi( new BenchApi( events ) );
+            computer.turnOn();
+            running.add( computer );
+        }
+
+        // Tick computers as the server would. This is needed to start them, but is otherwise incidental.
+        ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate( () -> {
+            for( Computer computer : running ) computer.tick();
+            mainThread.tick();
+        }, 0, 50, TimeUnit.MILLISECONDS );
+
+        // Wait for every computer to boot.
+        while( events.get() < computers ) Thread.sleep( 10 );
+    }
+
+    @TearDown
+    public void teardown() throws InterruptedException
+    {
+        ticker.shutdownNow();
+        for( Computer computer : running ) computer.unload();
+        running.clear();
+        context.ensureClosed( 5, TimeUnit.SECONDS );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( EVENTS )
+    public void events()
+    {
+        long target = events.get() + EVENTS;
+        while( events.get() < target ) LockSupport.parkNanos( 10_000 );
+    }
+
+    public static class BenchApi implements ILuaAPI
+    {
+        private final AtomicLong events;
+
+        BenchApi( AtomicLong events )
+        {
+            this.events = events;
+        }
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "bench" };
+        }
+
+        @LuaFunction
+        public final void tick()
+        {
+            events.incrementAndGet();
+        }
+    }
+}
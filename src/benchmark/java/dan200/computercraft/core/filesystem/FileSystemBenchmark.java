@@ -0,0 +1,93 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Measures common file system operations against a computer's on-disk mount.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class FileSystemBenchmark
+{
+    private static final int FILES = 100;
+
+    @Param( { "1024", "65536" } )
+    public int fileSize;
+
+    private Path root;
+    private FileSystem fileSystem;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() throws IOException, FileSystemException
+    {
+        root = Files.createTempDirectory( "cc-benchmark" );
+        Path data = Files.createDirectories( root.resolve( "data" ) );
+
+        Random random = new Random( 0 );
+        byte[] contents = new byte[fileSize];
+        for( int i = 0; i < FILES; i++ )
+        {
+            random.nextBytes( contents );
+            Files.write( data.resolve( "file" + i + ".txt" ), contents );
+        }
+
+        fileSystem = new FileSystem( "hdd", new FileMount( root.toFile(), Long.MAX_VALUE ) );
+        buffer = ByteBuffer.allocate( 8192 );
+    }
+
+    @TearDown
+    public void teardown() throws IOException
+    {
+        fileSystem.close();
+        try( Stream<Path> files = Files.walk( root ) )
+        {
+            for( Path path : (Iterable<Path>) files.sorted( Comparator.reverseOrder() )::iterator ) Files.delete( path );
+        }
+    }
+
+    @Benchmark
+    public String[] list() throws FileSystemException
+    {
+        return fileSystem.list( "data" );
+    }
+
+    @Benchmark
+    public boolean exists() throws FileSystemException
+    {
+        return fileSystem.exists( "data/file50.txt" );
+    }
+
+    @Benchmark
+    public long openAndRead() throws FileSystemException, IOException
+    {
+        long total = 0;
+        try( FileSystemWrapper<ReadableByteChannel> file = fileSystem.openForRead( "data/file50.txt", Function.identity() ) )
+        {
+            ReadableByteChannel channel = file.get();
+            int read;
+            while( (read = channel.read( buffer.clear() )) > 0 ) total += read;
+        }
+        return total;
+    }
+}
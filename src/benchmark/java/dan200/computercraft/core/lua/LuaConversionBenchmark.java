@@ -0,0 +1,97 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.core.computer.ComputerThread;
+import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.metrics.Profiler;
+import dan200.computercraft.test.core.computer.BasicEnvironment;
+import org.openjdk.jmh.annotations.*;
+import org.squiddev.cobalt.Varargs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting values between Java and Lua, as done for every event and method call.
+ *
+ * @see CobaltLuaMachine#toValues(Object[])
+ * @see CobaltLuaMachine#toObjects(Varargs)
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class LuaConversionBenchmark
+{
+    /**
+     * The shape of the value to convert: a handful of primitives (like most events), or a large nested table (like
+     * the result of {@code turtle.inspect} or an inventory listing).
+     */
+    @Param( { "primitive", "table" } )
+    public String shape;
+
+    private CobaltLuaMachine machine;
+    private Object[] javaValues;
+    private Varargs luaValues;
+
+    @Setup
+    public void setup()
+    {
+        BasicEnvironment environment = new BasicEnvironment();
+        machine = new CobaltLuaMachine( new MachineEnvironment(
+            task -> {
+                throw new IllegalStateException( "Cannot run main thread tasks" );
+            },
+            environment, new Profiler(), new TimeoutState( new ComputerThread( 1 ) ), environment.getHostString()
+        ) );
+
+        javaValues = switch( shape )
+        {
+            case "primitive" -> new Object[] { "modem_message", "left", 123, 456, "Hello, world!", 12.5 };
+            case "table" -> new Object[] { createTable() };
+            default -> throw new IllegalArgumentException( shape );
+        };
+        luaValues = machine.toValues( javaValues );
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        machine.close();
+    }
+
+    @Benchmark
+    public Varargs toValues()
+    {
+        return machine.toValues( javaValues );
+    }
+
+    @Benchmark
+    public Object[] toObjects()
+    {
+        return CobaltLuaMachine.toObjects( luaValues );
+    }
+
+    private static Object createTable()
+    {
+        List<Object> items = new ArrayList<>();
+        for( int i = 0; i < 64; i++ )
+        {
+            Map<String, Object> item = new HashMap<>();
+            item.put( "name", "minecraft:item_" + i );
+            item.put( "count", i );
+            item.put( "tags", Map.of( "minecraft:logs", true, "forge:ingots", true ) );
+            items.add( item );
+        }
+        return items;
+    }
+}
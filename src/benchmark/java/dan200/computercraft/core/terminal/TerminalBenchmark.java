@@ -0,0 +1,88 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.terminal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the common terminal operations used by programs which redraw the whole screen.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TerminalBenchmark
+{
+    /**
+     * The terminal size: a computer, or the largest monitor.
+     */
+    @Param( { "51x19", "162x80" } )
+    public String size;
+
+    private Terminal terminal;
+    private ByteBuffer text;
+    private ByteBuffer textColour;
+    private ByteBuffer backgroundColour;
+    private String line;
+
+    @Setup
+    public void setup()
+    {
+        String[] parts = size.split( "x" );
+        int width = Integer.parseInt( parts[0] ), height = Integer.parseInt( parts[1] );
+        terminal = new Terminal( width, height, true );
+
+        Random random = new Random( 0 );
+        byte[] textBytes = new byte[width];
+        for( int i = 0; i < width; i++ ) textBytes[i] = (byte) (32 + random.nextInt( 95 ));
+
+        byte[] colourBytes = new byte[width * 3];
+        random.nextBytes( colourBytes );
+
+        text = ByteBuffer.wrap( textBytes );
+        textColour = ByteBuffer.wrap( colourBytes );
+        backgroundColour = ByteBuffer.wrap( colourBytes.clone() );
+        line = new String( textBytes, 0, width );
+    }
+
+    @Benchmark
+    public void blitScreen()
+    {
+        for( int y = 0; y < terminal.getHeight(); y++ )
+        {
+            terminal.setCursorPos( 0, y );
+            terminal.blit( text, textColour, backgroundColour );
+        }
+    }
+
+    @Benchmark
+    public void writeScreen()
+    {
+        for( int y = 0; y < terminal.getHeight(); y++ )
+        {
+            terminal.setCursorPos( 0, y );
+            terminal.write( line );
+        }
+    }
+
+    @Benchmark
+    public void scroll()
+    {
+        terminal.scroll( 1 );
+    }
+
+    @Benchmark
+    public void clear()
+    {
+        terminal.clear();
+    }
+}
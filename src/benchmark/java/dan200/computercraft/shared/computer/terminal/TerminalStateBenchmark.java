@@ -0,0 +1,77 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.terminal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding terminals, as sent to clients whenever a computer or monitor changes.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TerminalStateBenchmark
+{
+    @Param( { "false", "true" } )
+    public boolean compress;
+
+    private NetworkedTerminal terminal;
+    private NetworkedTerminal client;
+    private ByteBuf encoded;
+    private ByteBuf output;
+
+    @Setup
+    public void setup()
+    {
+        terminal = new NetworkedTerminal( 51, 19, true );
+        Random random = new Random( 0 );
+        for( int y = 0; y < terminal.getHeight(); y++ )
+        {
+            for( int x = 0; x < terminal.getWidth(); x++ )
+            {
+                terminal.getLine( y ).setChar( x, (char) (32 + random.nextInt( 95 )) );
+                terminal.getTextColourLine( y ).set( x, random.nextInt( 0x1000000 ) );
+                terminal.getBackgroundColourLine( y ).set( x, random.nextInt( 0x1000000 ) );
+            }
+        }
+
+        client = new NetworkedTerminal( 51, 19, true );
+        encoded = Unpooled.buffer();
+        new TerminalState( terminal, compress ).write( new FriendlyByteBuf( encoded ) );
+        output = Unpooled.buffer();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        encoded.release();
+        output.release();
+    }
+
+    @Benchmark
+    public ByteBuf encode()
+    {
+        output.clear();
+        new TerminalState( terminal, compress ).write( new FriendlyByteBuf( output ) );
+        return output;
+    }
+
+    @Benchmark
+    public NetworkedTerminal decode()
+    {
+        new TerminalState( new FriendlyByteBuf( encoded.duplicate() ) ).apply( client );
+        return client;
+    }
+}
@@ -7,6 +7,7 @@
 
 import dan200.computercraft.core.apis.http.options.Action;
 import dan200.computercraft.core.apis.http.options.AddressRule;
+import dan200.computercraft.core.lua.CoroutineExecutor;
 import dan200.computercraft.shared.Config;
 import dan200.computercraft.shared.Registry;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
@@ -30,10 +31,17 @@
     public static String defaultComputerSettings = "";
     public static boolean logComputerErrors = true;
     public static boolean commandRequireCreative = true;
+    public static int terminalKeyframeInterval = 100;
+    public static boolean deduplicateFiles = false;
 
     public static int computerThreads = 1;
+    public static int minComputerThreads = 1;
+    public static int computerThreadKeepAlive = 60;
     public static long maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( 10 );
     public static long maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( 5 );
+    public static CoroutineExecutor coroutineExecutor = CoroutineExecutor.THREAD;
+    public static int maxCoroutineThreads = 4096;
+    public static int computerParkTime = 0;
 
     public static boolean httpEnabled = true;
     public static boolean httpWebsocketEnabled = true;
@@ -56,6 +64,7 @@
     public static MonitorRenderer monitorRenderer = MonitorRenderer.BEST;
     public static int monitorDistance = 65;
     public static long monitorBandwidth = 1_000_000;
+    public static int speakerClientBuffer = 500;
 
     public static boolean turtlesNeedFuel = true;
     public static int turtleFuelLimit = 20000;
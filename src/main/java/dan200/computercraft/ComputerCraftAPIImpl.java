@@ -100,7 +100,8 @@ public IWritableMount createSaveDirMount( @Nonnull Level world, @Nonnull String
     {
         try
         {
-            return new FileMount( new File( ServerContext.get( world.getServer() ).storageDir().toFile(), subPath ), capacity );
+            ServerContext context = ServerContext.get( world.getServer() );
+            return new FileMount( new File( context.storageDir().toFile(), subPath ), capacity, context.fileUsage(), context.blobStore() );
         }
         catch( Exception e )
         {
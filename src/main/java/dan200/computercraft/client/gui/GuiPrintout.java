@@ -8,14 +8,14 @@
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.Tesselator;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.ColourBuffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import dan200.computercraft.shared.common.ContainerHeldItem;
 import dan200.computercraft.shared.media.items.ItemPrintout;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Inventory;
-import org.apache.commons.lang3.ArrayUtils;
 import org.lwjgl.glfw.GLFW;
 
 import javax.annotation.Nonnull;
@@ -27,8 +27,8 @@ public class GuiPrintout extends AbstractContainerScreen<ContainerHeldItem>
 {
     private final boolean book;
     private final int pages;
-    private final Object[] text;
-    private final Object[] colours;
+    private final TextBuffer[] text;
+    private final ColourBuffer[] colours;
     private int page;
 
     public GuiPrintout( ContainerHeldItem container, Inventory player, Component title )
@@ -38,12 +38,12 @@ public GuiPrintout( ContainerHeldItem container, Inventory player, Component tit
         imageHeight = Y_SIZE;
 
         String[] text = ItemPrintout.getText( container.getStack() );
-        this.text = new Object[text.length];
-        for( int i = 0; i < this.text.length; i++ ) this.text[i] = new Buffer<Character>( ArrayUtils.toObject( text[i].toCharArray() ) );
+        this.text = new TextBuffer[text.length];
+        for( int i = 0; i < this.text.length; i++ ) this.text[i] = new TextBuffer( text[i] );
 
         int[][] colours = ItemPrintout.getColours( container.getStack() );
-        this.colours = new Object[colours.length];
-        for( int i = 0; i < this.colours.length; i++ ) this.colours[i] = new Buffer<Integer>( ArrayUtils.toObject( colours[i] ) );
+        this.colours = new ColourBuffer[colours.length];
+        for( int i = 0; i < this.colours.length; i++ ) this.colours[i] = new ColourBuffer( colours[i] );
 
         page = 0;
         pages = Math.max( this.text.length / ItemPrintout.LINES_PER_PAGE, 1 );
@@ -100,7 +100,7 @@ protected void renderBg( @Nonnull PoseStack transform, float partialTicks, int m
 
         MultiBufferSource.BufferSource renderer = MultiBufferSource.immediate( Tesselator.getInstance().getBuilder() );
         drawBorder( transform, renderer, leftPos, topPos, getBlitOffset(), page, pages, book, FULL_BRIGHT_LIGHTMAP );
-        drawText( transform, renderer, leftPos + X_TEXT_MARGIN, topPos + Y_TEXT_MARGIN, ItemPrintout.LINES_PER_PAGE * page, FULL_BRIGHT_LIGHTMAP, (Buffer<Character>[]) text, (Buffer<Integer>[]) colours );
+        drawText( transform, renderer, leftPos + X_TEXT_MARGIN, topPos + Y_TEXT_MARGIN, ItemPrintout.LINES_PER_PAGE * page, FULL_BRIGHT_LIGHTMAP, text, colours );
         renderer.endBatch();
     }
 
@@ -10,8 +10,9 @@
 import com.mojang.blaze3d.vertex.VertexFormat;
 import dan200.computercraft.client.FrameInfo;
 import dan200.computercraft.client.render.text.FixedWidthFontRenderer;
+import dan200.computercraft.core.terminal.ColourBuffer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import dan200.computercraft.shared.util.ColourUtils;
 import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraft.resources.ResourceLocation;
@@ -84,11 +85,11 @@ public static void setTerminalData( ByteBuffer buffer, Terminal terminal )
         int pos = 0;
         for( int y = 0; y < height; y++ )
         {
-            Buffer<Character> text = terminal.getLine( y );
-            Buffer<Integer> textColour = terminal.getTextColourLine( y ), background = terminal.getBackgroundColourLine( y );
+            TextBuffer text = terminal.getLine( y );
+            ColourBuffer textColour = terminal.getTextColourLine( y ), background = terminal.getBackgroundColourLine( y );
             for( int x = 0; x < width; x++ )
             {
-                buffer.put( pos, (byte) (text.get( x ) & 0xFF) );
+                buffer.put( pos, (byte) text.charAt( x ) );
                 byte[] color = ColourUtils.intToBytes( textColour.get( x ) );
                 buffer.put( pos + 1, color[0] );
                 buffer.put( pos + 2, color[1] );
@@ -9,9 +9,9 @@
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.math.Matrix4f;
 import dan200.computercraft.client.render.text.FixedWidthFontRenderer;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.ColourBuffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import net.minecraft.client.renderer.MultiBufferSource;
-import org.apache.commons.lang3.ArrayUtils;
 
 import static dan200.computercraft.client.render.text.FixedWidthFontRenderer.FONT_HEIGHT;
 import static dan200.computercraft.shared.media.items.ItemPrintout.LINES_PER_PAGE;
@@ -55,7 +55,7 @@
 
     private PrintoutRenderer() {}
 
-    public static void drawText( PoseStack transform, MultiBufferSource bufferSource, int x, int y, int start, int light, Buffer<Character>[] text, Buffer<Integer>[] colours )
+    public static void drawText( PoseStack transform, MultiBufferSource bufferSource, int x, int y, int start, int light, TextBuffer[] text, ColourBuffer[] colours )
     {
         var buffer = bufferSource.getBuffer( RenderTypes.PRINTOUT_TEXT );
         var emitter = FixedWidthFontRenderer.toVertexConsumer( transform, buffer );
@@ -75,7 +75,7 @@ public static void drawText( PoseStack transform, MultiBufferSource bufferSource
         {
             FixedWidthFontRenderer.drawString( emitter,
                 x, y + line * FONT_HEIGHT,
-                new Buffer<Character>( ArrayUtils.toObject( text[start + line].toCharArray() ) ), new Buffer<Integer>( ArrayUtils.toObject( colours[start + line] ) ), light
+                new TextBuffer( text[start + line] ), new ColourBuffer( colours[start + line] ), light
             );
         }
     }
@@ -10,8 +10,9 @@
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.blaze3d.vertex.VertexFormat;
 import dan200.computercraft.client.render.RenderTypes;
+import dan200.computercraft.core.terminal.ColourBuffer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import dan200.computercraft.shared.util.ColourUtils;
 import org.lwjgl.system.MemoryUtil;
 
@@ -68,7 +69,7 @@ private static void drawQuad( QuadEmitter emitter, float x, float y, float width
     }
 
     private static void drawBackground(
-        @Nonnull QuadEmitter emitter, float x, float y, @Nonnull Buffer<Integer> backgroundColour,
+        @Nonnull QuadEmitter emitter, float x, float y, @Nonnull ColourBuffer backgroundColour,
         float leftMarginSize, float rightMarginSize, float height
     )
     {
@@ -105,14 +106,13 @@ private static void drawBackground(
         }
     }
 
-    public static void drawString( @Nonnull QuadEmitter emitter, float x, float y, @Nonnull Buffer<Character> text, @Nonnull Buffer<Integer> textColour )
+    public static void drawString( @Nonnull QuadEmitter emitter, float x, float y, @Nonnull TextBuffer text, @Nonnull ColourBuffer textColour )
     {
         for( int i = 0; i < text.length(); i++ )
         {
             byte[] colour = ColourUtils.intToBytes( textColour.get( i ) );
 
-            int index = text.get( i );
-            if( index > 255 ) index = '?';
+            int index = text.charAt( i );
             drawChar( emitter, x + i * FONT_WIDTH, y, index, colour );
         }
 
@@ -10,8 +10,9 @@
 import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector3f;
 import dan200.computercraft.client.FrameInfo;
+import dan200.computercraft.core.terminal.ColourBuffer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.ColourUtils;
 import net.minecraft.resources.ResourceLocation;
@@ -80,7 +81,7 @@ private static void drawQuad( QuadEmitter emitter, float x, float y, float width
     }
 
     private static void drawBackground(
-        @Nonnull QuadEmitter emitter, float x, float y, @Nonnull Buffer<Integer> backgroundColour,
+        @Nonnull QuadEmitter emitter, float x, float y, @Nonnull ColourBuffer backgroundColour,
         float leftMarginSize, float rightMarginSize, float height, int light
     )
     {
@@ -117,14 +118,13 @@ private static void drawBackground(
         }
     }
 
-    public static void drawString( @Nonnull QuadEmitter emitter, float x, float y, @Nonnull Buffer<Character> text, @Nonnull Buffer<Integer> textColour, int light )
+    public static void drawString( @Nonnull QuadEmitter emitter, float x, float y, @Nonnull TextBuffer text, @Nonnull ColourBuffer textColour, int light )
     {
         for( int i = 0; i < text.length(); i++ )
         {
             byte[] colour = ColourUtils.intToBytes( textColour.get( i ) );
 
-            int index = text.get( i );
-            if( index > 255 ) index = '?';
+            int index = text.charAt( i );
             drawChar( emitter, x + i * FONT_WIDTH, y, index, colour, light );
         }
 
@@ -23,7 +23,6 @@
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 
 import static dan200.computercraft.core.apis.TableHelper.*;
 
@@ -81,7 +80,7 @@ public final Object[] request( IArguments args ) throws LuaException
     {
         String address, postString, requestMethod;
         Map<?, ?> headerTable;
-        boolean binary, redirect;
+        boolean binary, stream, redirect;
 
         if( args.get( 0 ) instanceof Map )
         {
@@ -90,6 +89,7 @@ public final Object[] request( IArguments args ) throws LuaException
             postString = optStringField( options, "body", null );
             headerTable = optTableField( options, "headers", Collections.emptyMap() );
             binary = optBooleanField( options, "binary", false );
+            stream = optBooleanField( options, "stream", false );
             requestMethod = optStringField( options, "method", null );
             redirect = optBooleanField( options, "redirect", true );
 
@@ -101,6 +101,7 @@ public final Object[] request( IArguments args ) throws LuaException
             postString = args.optString( 1, null );
             headerTable = args.optTable( 2, Collections.emptyMap() );
             binary = args.optBoolean( 3, false );
+            stream = false;
             requestMethod = null;
             redirect = true;
         }
@@ -124,7 +125,7 @@ public final Object[] request( IArguments args ) throws LuaException
         try
         {
             URI uri = HttpRequest.checkUri( address );
-            HttpRequest request = new HttpRequest( requests, apiEnvironment, address, postString, headers, binary, redirect );
+            HttpRequest request = new HttpRequest( requests, apiEnvironment, address, postString, headers, binary, stream, redirect );
 
             // Make the request
             if( !request.queue( r -> r.request( uri, httpMethod ) ) )
@@ -160,19 +161,36 @@ public final Object[] checkURL( String address ) throws LuaException
     }
 
     @LuaFunction
-    public final Object[] websocket( String address, Optional<Map<?, ?>> headerTbl ) throws LuaException
+    public final Object[] websocket( IArguments args ) throws LuaException
     {
         if( !ComputerCraft.httpWebsocketEnabled )
         {
             throw new LuaException( "Websocket connections are disabled" );
         }
 
-        HttpHeaders headers = getHeaders( headerTbl.orElse( Collections.emptyMap() ) );
+        String address;
+        Map<?, ?> headerTable;
+        boolean batch;
+        if( args.get( 0 ) instanceof Map )
+        {
+            Map<?, ?> options = args.getTable( 0 );
+            address = getStringField( options, "url" );
+            headerTable = optTableField( options, "headers", Collections.emptyMap() );
+            batch = optBooleanField( options, "batch", false );
+        }
+        else
+        {
+            address = args.getString( 0 );
+            headerTable = args.optTable( 1, Collections.emptyMap() );
+            batch = false;
+        }
+
+        HttpHeaders headers = getHeaders( headerTable );
 
         try
         {
             URI uri = Websocket.checkUri( address );
-            if( !new Websocket( websockets, apiEnvironment, uri, address, headers ).queue( Websocket::connect ) )
+            if( !new Websocket( websockets, apiEnvironment, uri, address, headers, batch ).queue( Websocket::connect ) )
             {
                 throw new LuaException( "Too many websockets already open" );
             }
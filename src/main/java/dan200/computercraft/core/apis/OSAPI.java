@@ -33,20 +33,25 @@ public class OSAPI implements ILuaAPI
     private final IAPIEnvironment apiEnvironment;
 
     private final Int2ObjectMap<Alarm> alarms = new Int2ObjectOpenHashMap<>();
+    private final PriorityQueue<Alarm> alarmQueue = new PriorityQueue<>();
     private int clock;
     private double time;
     private int day;
 
     private int nextAlarmToken = 0;
 
-    private record Alarm(double time, int day) implements Comparable<Alarm>
+    private record Alarm(int token, double time, int day) implements Comparable<Alarm>
     {
+        double deadline()
+        {
+            return day * 24.0 + time;
+        }
+
         @Override
         public int compareTo( @Nonnull Alarm o )
         {
-            double t = day * 24.0 + time;
-            double ot = day * 24.0 + time;
-            return Double.compare( t, ot );
+            int compare = Double.compare( deadline(), o.deadline() );
+            return compare != 0 ? compare : Integer.compare( token, o.token );
         }
     }
 
@@ -71,6 +76,7 @@ public void startup()
         synchronized( alarms )
         {
             alarms.clear();
+            alarmQueue.clear();
         }
     }
 
@@ -89,18 +95,14 @@ public void update()
 
             if( time > previousTime || day > previousDay )
             {
+                // Alarms are ordered by when they fire, so we only need to look at the head of the queue.
                 double now = this.day * 24.0 + this.time;
-                Iterator<Int2ObjectMap.Entry<Alarm>> it = alarms.int2ObjectEntrySet().iterator();
-                while( it.hasNext() )
+                Alarm alarm;
+                while( (alarm = alarmQueue.peek()) != null && now >= alarm.deadline() )
                 {
-                    Int2ObjectMap.Entry<Alarm> entry = it.next();
-                    Alarm alarm = entry.getValue();
-                    double t = alarm.day * 24.0 + alarm.time;
-                    if( now >= t )
-                    {
-                        apiEnvironment.queueEvent( "alarm", entry.getIntKey() );
-                        it.remove();
-                    }
+                    alarmQueue.poll();
+                    alarms.remove( alarm.token() );
+                    apiEnvironment.queueEvent( "alarm", alarm.token() );
                 }
             }
 
@@ -115,6 +117,7 @@ public void shutdown()
         synchronized( alarms )
         {
             alarms.clear();
+            alarmQueue.clear();
         }
     }
 
@@ -214,8 +217,10 @@ public final int setAlarm( double time ) throws LuaException
         synchronized( alarms )
         {
             int day = time > this.time ? this.day : this.day + 1;
-            alarms.put( nextAlarmToken, new Alarm( time, day ) );
-            return nextAlarmToken++;
+            Alarm alarm = new Alarm( nextAlarmToken++, time, day );
+            alarms.put( alarm.token(), alarm );
+            alarmQueue.add( alarm );
+            return alarm.token();
         }
     }
 
@@ -232,7 +237,8 @@ public final void cancelAlarm( int token )
     {
         synchronized( alarms )
         {
-            alarms.remove( token );
+            Alarm alarm = alarms.remove( token );
+            if( alarm != null ) alarmQueue.remove( alarm );
         }
     }
 
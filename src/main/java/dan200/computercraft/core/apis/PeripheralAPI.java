@@ -5,6 +5,9 @@
  */
 package dan200.computercraft.core.apis;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.api.filesystem.IWritableMount;
 import dan200.computercraft.api.lua.*;
@@ -100,12 +103,7 @@ public void detach()
 
         public MethodResult call( ILuaContext context, String methodName, IArguments arguments ) throws LuaException
         {
-            PeripheralMethod method;
-            synchronized( this )
-            {
-                method = methodMap.get( methodName );
-            }
-
+            PeripheralMethod method = methodMap.get( methodName );
             if( method == null ) throw new LuaException( "No such method " + methodName );
 
             environment.observe( Metrics.PERIPHERAL_OPS );
@@ -369,23 +367,49 @@ public final MethodResult call( ILuaContext context, IArguments args ) throws Lu
         }
     }
 
+    /**
+     * A cache of method tables, shared between all peripherals with the same class and dynamic methods. Lots of
+     * peripherals (such as chests on a wired network) share the same methods, so this saves us from building the table
+     * each time one is attached to a computer.
+     */
+    private static final LoadingCache<MethodKey, Map<String, PeripheralMethod>> methodCache = CacheBuilder
+        .newBuilder()
+        .maximumSize( 1024 )
+        .build( CacheLoader.from( PeripheralAPI::buildMethods ) );
+
+    /**
+     * Get the methods provided by a peripheral.
+     *
+     * @param peripheral The peripheral to get the methods of.
+     * @return A map of method names to methods. This is shared with other peripherals, and so may not be modified.
+     */
     public static Map<String, PeripheralMethod> getMethods( IPeripheral peripheral )
     {
         String[] dynamicMethods = peripheral instanceof IDynamicPeripheral
             ? Objects.requireNonNull( ((IDynamicPeripheral) peripheral).getMethodNames(), "Peripheral methods cannot be null" )
             : LuaMethod.EMPTY_METHODS;
 
-        List<NamedMethod<PeripheralMethod>> methods = PeripheralMethod.GENERATOR.getMethods( peripheral.getClass() );
+        return methodCache.getUnchecked( new MethodKey( peripheral.getClass(), Arrays.asList( dynamicMethods.clone() ) ) );
+    }
+
+    private static Map<String, PeripheralMethod> buildMethods( MethodKey key )
+    {
+        List<String> dynamicMethods = key.dynamicMethods();
+        List<NamedMethod<PeripheralMethod>> methods = PeripheralMethod.GENERATOR.getMethods( key.klass() );
 
-        Map<String, PeripheralMethod> methodMap = new HashMap<>( methods.size() + dynamicMethods.length );
-        for( int i = 0; i < dynamicMethods.length; i++ )
+        Map<String, PeripheralMethod> methodMap = new HashMap<>( methods.size() + dynamicMethods.size() );
+        for( int i = 0; i < dynamicMethods.size(); i++ )
         {
-            methodMap.put( dynamicMethods[i], PeripheralMethod.DYNAMIC.get( i ) );
+            methodMap.put( dynamicMethods.get( i ), PeripheralMethod.DYNAMIC.get( i ) );
         }
         for( NamedMethod<PeripheralMethod> method : methods )
         {
             methodMap.put( method.getName(), method.getMethod() );
         }
-        return methodMap;
+        return Collections.unmodifiableMap( methodMap );
+    }
+
+    private record MethodKey(Class<?> klass, List<String> dynamicMethods)
+    {
     }
 }
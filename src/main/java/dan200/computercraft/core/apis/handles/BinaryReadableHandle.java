@@ -27,6 +27,7 @@
 public class BinaryReadableHandle extends HandleGeneric
 {
     private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
     private final ReadableByteChannel reader;
     final SeekableByteChannel seekable;
@@ -87,6 +88,14 @@ public final Object[] read( Optional<Integer> countArg ) throws LuaException
                     buffer.flip();
                     return new Object[] { buffer };
                 }
+                else if( seekable != null )
+                {
+                    // We know how much of the file remains, so can read it all in one go.
+                    long remaining = seekable.size() - seekable.position();
+                    if( remaining <= 0 ) return null;
+
+                    return new Object[] { readExactly( (int) Math.min( count, remaining ) ) };
+                }
                 else
                 {
                     // Read the initial set of characters, failing if none are read.
@@ -154,8 +163,15 @@ public final Object[] readAll() throws LuaException
         checkOpen();
         try
         {
+            if( seekable != null )
+            {
+                long remaining = seekable.size() - seekable.position();
+                if( remaining <= 0 ) return null;
+                if( remaining <= MAX_ARRAY_SIZE ) return new Object[] { readExactly( (int) remaining ) };
+            }
+
             int expected = 32;
-            if( seekable != null ) expected = Math.max( expected, (int) (seekable.size() - seekable.position()) );
+            if( seekable != null ) expected = Math.max( expected, (int) Math.min( seekable.size() - seekable.position(), MAX_ARRAY_SIZE ) );
             ByteArrayOutputStream stream = new ByteArrayOutputStream( expected );
 
             ByteBuffer buf = ByteBuffer.allocate( 8192 );
@@ -177,6 +193,34 @@ public final Object[] readAll() throws LuaException
         }
     }
 
+    /**
+     * Read up to {@code count} bytes, avoiding any intermediate buffers.
+     * <p>
+     * If this file is backed by a {@link ByteBufferChannel} (such as a memory-mapped file), we return a view of the
+     * underlying buffer, which is then copied exactly once when converted to a Lua string. Otherwise, we read directly
+     * into an array.
+     *
+     * @param count The number of bytes to read.
+     * @return The read bytes. This may be shorter than {@code count} if we reached the end of the file.
+     * @throws IOException If the file could not be read.
+     */
+    private ByteBuffer readExactly( int count ) throws IOException
+    {
+        if( reader instanceof ByteBufferChannel channel )
+        {
+            ByteBuffer slice = channel.readSlice( count );
+            return slice == null ? ByteBuffer.allocate( 0 ) : slice;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate( count );
+        while( buffer.hasRemaining() )
+        {
+            if( reader.read( buffer ) < 0 ) break;
+        }
+
+        return buffer.flip();
+    }
+
     /**
      * Read a line from the file.
      *
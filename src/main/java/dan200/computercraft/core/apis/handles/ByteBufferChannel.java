@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.core.apis.handles;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonWritableChannelException;
@@ -27,7 +28,7 @@ public ByteBufferChannel( ByteBuffer backing )
     }
 
     @Override
-    public int read( ByteBuffer destination ) throws ClosedChannelException
+    public int read( ByteBuffer destination ) throws IOException
     {
         if( closed ) throw new ClosedChannelException();
         Objects.requireNonNull( destination, "destination" );
@@ -40,11 +41,41 @@ public int read( ByteBuffer destination ) throws ClosedChannelException
         ByteBuffer slice = backing.slice();
         slice.position( position );
         slice.limit( position + remaining );
-        destination.put( slice );
+        try
+        {
+            destination.put( slice );
+        }
+        catch( InternalError e )
+        {
+            // If the backing buffer is a memory-mapped file which has been truncated, reading past the end throws an
+            // InternalError. Treat this like any other IO failure.
+            throw new IOException( "File was modified while reading", e );
+        }
         position += remaining;
         return remaining;
     }
 
+    /**
+     * Read up to {@code count} bytes as a view of the backing buffer, rather than copying them into another buffer.
+     * <p>
+     * If the backing buffer is a memory-mapped file, the returned buffer is only valid while that file is unchanged.
+     *
+     * @param count The maximum number of bytes to read.
+     * @return The read bytes, or {@code null} if we are at the end of the channel.
+     * @throws ClosedChannelException If the channel is closed.
+     */
+    ByteBuffer readSlice( int count ) throws ClosedChannelException
+    {
+        if( closed ) throw new ClosedChannelException();
+        if( count < 0 ) throw new IllegalArgumentException( "count < 0" );
+        if( position >= backing.limit() ) return null;
+
+        int remaining = Math.min( backing.limit() - position, count );
+        ByteBuffer slice = backing.slice( position, remaining );
+        position += remaining;
+        return slice;
+    }
+
     @Override
     public int write( ByteBuffer src ) throws ClosedChannelException
     {
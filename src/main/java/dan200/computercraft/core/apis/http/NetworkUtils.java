@@ -5,6 +5,8 @@
  */
 package dan200.computercraft.core.apis.http;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.core.apis.http.options.Action;
 import dan200.computercraft.core.apis.http.options.AddressRule;
@@ -24,12 +26,18 @@
 import io.netty.handler.traffic.GlobalTrafficShapingHandler;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.TrustManagerFactory;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.net.UnknownHostException;
 import java.security.KeyStore;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -59,6 +67,33 @@
         EXECUTOR.setKeepAliveTime( 60, TimeUnit.SECONDS );
     }
 
+    /**
+     * How long to cache a successful DNS lookup for. This, and {@link #NEGATIVE_ADDRESS_TTL}, match the JVM's default
+     * DNS cache policy.
+     */
+    private static final long ADDRESS_TTL = TimeUnit.SECONDS.toNanos( 30 );
+
+    /**
+     * How long to cache a failed DNS lookup for.
+     */
+    private static final long NEGATIVE_ADDRESS_TTL = TimeUnit.SECONDS.toNanos( 10 );
+
+    /**
+     * Resolved addresses for each host. The JVM has its own DNS cache, but concurrent lookups of the same host will
+     * each block a network thread. Guava's cache ensures only one thread performs the lookup, with any others
+     * waiting on its result.
+     */
+    private static final Cache<String, ResolvedHost> addressCache = CacheBuilder.newBuilder()
+        .maximumSize( 1024 )
+        .expireAfterWrite( ADDRESS_TTL, TimeUnit.NANOSECONDS )
+        .build();
+
+    /**
+     * The {@link Options} for each host and address, computed from {@link ComputerCraft#httpRules}. This is replaced
+     * whenever the rules change.
+     */
+    private static volatile RuleCache ruleCache;
+
     private NetworkUtils()
     {
     }
@@ -117,6 +152,7 @@ public static SslContext getSslContext() throws HTTPRequestException
     public static void reloadConfig()
     {
         SHAPING_HANDLER.configure( ComputerCraft.httpUploadBandwidth, ComputerCraft.httpDownloadBandwidth );
+        ruleCache = null;
     }
 
     public static void reset()
@@ -153,9 +189,29 @@ public static InetSocketAddress getAddress( URI uri, boolean ssl ) throws HTTPRe
     public static InetSocketAddress getAddress( String host, int port, boolean ssl ) throws HTTPRequestException
     {
         if( port < 0 ) port = ssl ? 443 : 80;
-        InetSocketAddress socketAddress = new InetSocketAddress( host, port );
-        if( socketAddress.isUnresolved() ) throw new HTTPRequestException( "Unknown host" );
-        return socketAddress;
+        InetAddress address = resolve( host );
+        if( address == null ) throw new HTTPRequestException( "Unknown host" );
+        return new InetSocketAddress( address, port );
+    }
+
+    @Nullable
+    private static InetAddress resolve( String host )
+    {
+        String key = host.toLowerCase( Locale.ROOT );
+        try
+        {
+            ResolvedHost resolved = addressCache.get( key, () -> ResolvedHost.lookup( host ) );
+            if( resolved.address() != null || System.nanoTime() < resolved.expires() ) return resolved.address();
+
+            // Failed lookups expire sooner than successful ones, so retry if needed.
+            addressCache.asMap().remove( key, resolved );
+            return addressCache.get( key, () -> ResolvedHost.lookup( host ) ).address();
+        }
+        catch( ExecutionException e )
+        {
+            ComputerCraft.log.error( "Error resolving {}", host, e.getCause() );
+            return null;
+        }
     }
 
     /**
@@ -168,7 +224,26 @@ public static InetSocketAddress getAddress( String host, int port, boolean ssl )
      */
     public static Options getOptions( String host, InetSocketAddress address ) throws HTTPRequestException
     {
-        Options options = AddressRule.apply( ComputerCraft.httpRules, host, address );
+        // The rules may be changed without reloadConfig being called (for instance, in tests), so also check if
+        // they've been replaced.
+        //
+        // Rather than clearing the cache when the rules change, we replace it. A lookup which started with the old
+        // rules may finish after the rules have changed. As each cache is only ever filled using its own rules, such
+        // a result ends up in the old cache, rather than being returned for later requests.
+        RuleCache cache = ruleCache;
+        List<AddressRule> rules = ComputerCraft.httpRules;
+        if( cache == null || cache.rules() != rules ) ruleCache = cache = new RuleCache( rules );
+
+        Options options;
+        try
+        {
+            options = cache.options().get( new OptionsKey( host, address ), () -> AddressRule.apply( rules, host, address ) );
+        }
+        catch( ExecutionException e )
+        {
+            throw new IllegalStateException( "Error computing HTTP options", e.getCause() );
+        }
+
         if( options.action == Action.DENY ) throw new HTTPRequestException( "Domain not permitted" );
         return options;
     }
@@ -210,4 +285,31 @@ else if( cause instanceof SSLHandshakeException || (cause instanceof DecoderExce
             return "Could not connect";
         }
     }
+
+    private record ResolvedHost(@Nullable InetAddress address, long expires)
+    {
+        static ResolvedHost lookup( String host )
+        {
+            try
+            {
+                return new ResolvedHost( InetAddress.getByName( host ), 0 );
+            }
+            catch( UnknownHostException e )
+            {
+                return new ResolvedHost( null, System.nanoTime() + NEGATIVE_ADDRESS_TTL );
+            }
+        }
+    }
+
+    private record OptionsKey(String host, InetSocketAddress address)
+    {
+    }
+
+    private record RuleCache(List<AddressRule> rules, Cache<OptionsKey, Options> options)
+    {
+        RuleCache( List<AddressRule> rules )
+        {
+            this( rules, CacheBuilder.newBuilder().maximumSize( 1024 ).build() );
+        }
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.util.Deque;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of idle HTTP connections, allowing requests to the same server to reuse an existing connection, rather than
+ * opening (and performing a TLS handshake on) a new one each time.
+ * <p>
+ * Connections are keyed by the server's address, whether they use SSL, and the request timeout, as these determine
+ * how the connection's pipeline is set up. Once a response has been read, and if both sides allow keep-alive, the
+ * connection is returned to the pool. Idle connections are closed after a timeout, or as soon as the server closes
+ * them.
+ *
+ * @see HttpRequest
+ * @see HttpRequestHandler
+ */
+final class HttpConnectionPool
+{
+    /**
+     * The maximum number of idle connections to keep for a single server.
+     */
+    private static final int MAX_IDLE_PER_HOST = 4;
+
+    /**
+     * The maximum number of idle connections to keep across all servers.
+     */
+    private static final int MAX_IDLE = 256;
+
+    /**
+     * The maximum time a connection may be idle before being closed, in milliseconds. This is reduced if the server
+     * sends a shorter {@code Keep-Alive} timeout.
+     */
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis( 30 );
+
+    private static final String IDLE_HANDLER = "idle";
+
+    private static final AttributeKey<Key> KEY = AttributeKey.valueOf( "computercraft:pool_key" );
+    private static final AttributeKey<Object> IDLE_TOKEN = AttributeKey.valueOf( "computercraft:pool_idle" );
+
+    private static final Map<Key, Deque<Channel>> idle = new ConcurrentHashMap<>();
+    private static final AtomicInteger idleCount = new AtomicInteger();
+
+    private HttpConnectionPool()
+    {
+    }
+
+    /**
+     * Track a newly created connection, allowing it to be returned to the pool once finished.
+     *
+     * @param key     The key this connection should be pooled under.
+     * @param channel The newly created channel.
+     */
+    static void track( Key key, Channel channel )
+    {
+        channel.attr( KEY ).set( key );
+        channel.closeFuture().addListener( f -> remove( key, channel ) );
+    }
+
+    /**
+     * Take an idle connection from the pool.
+     *
+     * @param key The connection's key.
+     * @return The idle connection, or {@code null} if none is available.
+     */
+    @Nullable
+    static Channel acquire( Key key )
+    {
+        Deque<Channel> channels = idle.get( key );
+        if( channels == null ) return null;
+
+        Channel channel;
+        while( (channel = channels.pollFirst()) != null )
+        {
+            idleCount.decrementAndGet();
+            if( !channel.isActive() ) continue;
+
+            // The channel may be closed on its event loop at any point, after which its pipeline is torn down. In that
+            // case, skip to the next connection. Any close after this point is handled by HttpRequestHandler.
+            try
+            {
+                channel.pipeline().remove( IDLE_HANDLER );
+            }
+            catch( NoSuchElementException e )
+            {
+                continue;
+            }
+
+            return channel;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return a connection to the pool. All request-specific handlers should have been removed from the connection's
+     * pipeline.
+     *
+     * @param channel The channel to return.
+     * @param headers The headers of the last response, used to determine how long the connection may stay open.
+     */
+    static void release( Channel channel, HttpHeaders headers )
+    {
+        Key key = channel.attr( KEY ).get();
+        long timeout = getIdleTimeout( headers );
+        if( key == null || timeout <= 0 || !channel.isActive() || idleCount.get() >= MAX_IDLE )
+        {
+            channel.close();
+            return;
+        }
+
+        Deque<Channel> channels = idle.computeIfAbsent( key, k -> new ConcurrentLinkedDeque<>() );
+        if( channels.size() >= MAX_IDLE_PER_HOST )
+        {
+            channel.close();
+            return;
+        }
+
+        // Each time the channel becomes idle we create a new token, so an eviction scheduled for a previous idle
+        // period does not close it early.
+        Object token = new Object();
+        channel.attr( IDLE_TOKEN ).set( token );
+        channel.pipeline().addLast( IDLE_HANDLER, new IdleHandler() );
+
+        channels.addFirst( channel );
+        idleCount.incrementAndGet();
+
+        channel.eventLoop().schedule( () -> {
+            if( channel.attr( IDLE_TOKEN ).get() == token && remove( key, channel ) ) channel.close();
+        }, timeout, TimeUnit.MILLISECONDS );
+    }
+
+    private static boolean remove( Key key, Channel channel )
+    {
+        Deque<Channel> channels = idle.get( key );
+        if( channels == null || !channels.remove( channel ) ) return false;
+
+        idleCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Determine how long a connection may remain idle, based on the server's {@code Keep-Alive} header.
+     *
+     * @param headers The response headers.
+     * @return The idle timeout, in milliseconds.
+     */
+    private static long getIdleTimeout( HttpHeaders headers )
+    {
+        String keepAlive = headers.get( HttpHeaderNames.KEEP_ALIVE );
+        if( keepAlive == null ) return IDLE_TIMEOUT;
+
+        for( String part : keepAlive.split( "," ) )
+        {
+            part = part.trim();
+            if( !part.regionMatches( true, 0, "timeout=", 0, 8 ) ) continue;
+
+            try
+            {
+                // Close the connection a little before the server would, so we don't race against it.
+                long seconds = Long.parseLong( part.substring( 8 ).trim() );
+                return Math.min( IDLE_TIMEOUT, TimeUnit.SECONDS.toMillis( seconds - 1 ) );
+            }
+            catch( NumberFormatException ignored )
+            {
+            }
+        }
+
+        return IDLE_TIMEOUT;
+    }
+
+    /**
+     * The key that connections are pooled under.
+     *
+     * @param address The address of the server.
+     * @param host    The host name of the server, used to verify its certificate.
+     * @param ssl     Whether this connection uses SSL.
+     * @param timeout The read and connect timeout.
+     */
+    record Key(InetSocketAddress address, String host, boolean ssl, int timeout)
+    {
+    }
+
+    /**
+     * Sits on the end of an idle connection's pipeline. We don't expect to receive anything on an idle connection,
+     * so close it if we do.
+     */
+    private static final class IdleHandler extends ChannelInboundHandlerAdapter
+    {
+        @Override
+        public void channelRead( ChannelHandlerContext ctx, Object msg )
+        {
+            ReferenceCountUtil.release( msg );
+            ctx.close();
+        }
+
+        @Override
+        public void exceptionCaught( ChannelHandlerContext ctx, Throwable cause )
+        {
+            ctx.close();
+        }
+    }
+}
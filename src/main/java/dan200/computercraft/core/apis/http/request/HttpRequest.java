@@ -16,7 +16,9 @@
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
@@ -25,6 +27,7 @@
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 
+import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -45,6 +48,8 @@ public class HttpRequest extends Resource<HttpRequest>
 
     private static final int MAX_REDIRECTS = 16;
 
+    private static final String TIMEOUT_HANDLER = "timeout";
+
     private Future<?> executorFuture;
     private ChannelFuture connectFuture;
     private HttpRequestHandler currentRequest;
@@ -55,10 +60,17 @@ public class HttpRequest extends Resource<HttpRequest>
     private final ByteBuf postBuffer;
     private final HttpHeaders headers;
     private final boolean binary;
+    private final boolean stream;
 
     final AtomicInteger redirects;
 
-    public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, String postText, HttpHeaders headers, boolean binary, boolean followRedirects )
+    /**
+     * Whether this request may use a pooled connection. This is disabled when retrying a request, so we don't end up
+     * on another stale connection.
+     */
+    private volatile boolean reuseConnection = true;
+
+    public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, String postText, HttpHeaders headers, boolean binary, boolean stream, boolean followRedirects )
     {
         super( limiter );
         this.environment = environment;
@@ -68,6 +80,7 @@ public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environm
             : Unpooled.buffer( 0 );
         this.headers = headers;
         this.binary = binary;
+        this.stream = stream;
         redirects = new AtomicInteger( followRedirects ? MAX_REDIRECTS : 0 );
 
         if( postText != null )
@@ -89,6 +102,11 @@ public IAPIEnvironment environment()
         return environment;
     }
 
+    String address()
+    {
+        return address;
+    }
+
     public static URI checkUri( String address ) throws HTTPRequestException
     {
         URI url;
@@ -119,13 +137,18 @@ public static void checkUri( URI url ) throws HTTPRequestException
     }
 
     public void request( URI uri, HttpMethod method )
+    {
+        request( uri, method, false );
+    }
+
+    private void request( URI uri, HttpMethod method, boolean retry )
     {
         if( isClosed() ) return;
-        executorFuture = NetworkUtils.EXECUTOR.submit( () -> doRequest( uri, method ) );
+        executorFuture = NetworkUtils.EXECUTOR.submit( () -> doRequest( uri, method, retry ) );
         checkClosed();
     }
 
-    private void doRequest( URI uri, HttpMethod method )
+    private void doRequest( URI uri, HttpMethod method, boolean retry )
     {
         // If we're cancelled, abort.
         if( isClosed() ) return;
@@ -147,11 +170,29 @@ private void doRequest( URI uri, HttpMethod method )
                 return;
             }
 
-            // Add request size to the tracker before opening the connection
-            environment.observe( Metrics.HTTP_REQUESTS );
-            environment.observe( Metrics.HTTP_UPLOAD, requestBody );
+            // Add request size to the tracker before opening the connection. Retries have already been counted.
+            if( !retry )
+            {
+                environment.observe( Metrics.HTTP_REQUESTS );
+                environment.observe( Metrics.HTTP_UPLOAD, requestBody );
+            }
+
+            HttpConnectionPool.Key key = new HttpConnectionPool.Key( socketAddress, uri.getHost(), ssl, options.timeout );
+            Channel pooled = reuseConnection ? HttpConnectionPool.acquire( key ) : null;
+            if( pooled != null )
+            {
+                environment.observe( Metrics.HTTP_CONNECTIONS_REUSED );
+
+                // The handler sends the request as soon as it is added to an already active channel.
+                HttpRequestHandler handler = currentRequest = new HttpRequestHandler( this, uri, method, options, true );
+                connectFuture = pooled.newSucceededFuture();
+                addRequestHandlers( pooled.pipeline(), options, handler );
 
-            HttpRequestHandler handler = currentRequest = new HttpRequestHandler( this, uri, method, options );
+                checkClosed();
+                return;
+            }
+
+            HttpRequestHandler handler = currentRequest = new HttpRequestHandler( this, uri, method, options, false );
             connectFuture = new Bootstrap()
                 .group( NetworkUtils.LOOP_GROUP )
                 .channelFactory( NioSocketChannel::new )
@@ -160,6 +201,7 @@ private void doRequest( URI uri, HttpMethod method )
                     @Override
                     protected void initChannel( SocketChannel ch )
                     {
+                        HttpConnectionPool.track( key, ch );
 
                         if( options.timeout > 0 )
                         {
@@ -173,16 +215,11 @@ protected void initChannel( SocketChannel ch )
                             p.addLast( sslContext.newHandler( ch.alloc(), uri.getHost(), socketAddress.getPort() ) );
                         }
 
-                        if( options.timeout > 0 )
-                        {
-                            p.addLast( new ReadTimeoutHandler( options.timeout, TimeUnit.MILLISECONDS ) );
-                        }
-
                         p.addLast(
                             new HttpClientCodec(),
-                            new HttpContentDecompressor(),
-                            handler
+                            new HttpContentDecompressor()
                         );
+                        addRequestHandlers( p, options, handler );
                     }
                 } )
                 .remoteAddress( socketAddress )
@@ -205,6 +242,63 @@ protected void initChannel( SocketChannel ch )
         }
     }
 
+    /**
+     * Add the handlers for a single request to the end of a connection's pipeline. These are removed again by
+     * {@link #releaseConnection(Channel, HttpHeaders)} once the response has been read.
+     *
+     * @param pipeline The connection's pipeline.
+     * @param options  The options for this request.
+     * @param handler  The handler for this request.
+     */
+    private static void addRequestHandlers( ChannelPipeline pipeline, Options options, HttpRequestHandler handler )
+    {
+        if( options.timeout > 0 )
+        {
+            pipeline.addLast( TIMEOUT_HANDLER, new ReadTimeoutHandler( options.timeout, TimeUnit.MILLISECONDS )
+            {
+                @Override
+                protected void readTimedOut( ChannelHandlerContext ctx ) throws Exception
+                {
+                    // Streamed responses stop reading while the computer catches up. This isn't the server's fault,
+                    // so don't time out.
+                    if( ctx.channel().config().isAutoRead() ) super.readTimedOut( ctx );
+                }
+            } );
+        }
+        pipeline.addLast( handler );
+    }
+
+    /**
+     * Return a connection to the pool once a response has been read, rather than closing it when this request is
+     * disposed.
+     *
+     * @param channel The connection to release.
+     * @param headers The response's headers.
+     */
+    void releaseConnection( Channel channel, HttpHeaders headers )
+    {
+        connectFuture = null;
+
+        ChannelPipeline pipeline = channel.pipeline();
+        if( pipeline.get( TIMEOUT_HANDLER ) != null ) pipeline.remove( TIMEOUT_HANDLER );
+        pipeline.remove( HttpRequestHandler.class );
+
+        HttpConnectionPool.release( channel, headers );
+    }
+
+    /**
+     * Retry this request on a new connection. This is used when a pooled connection was closed by the server before
+     * we received a response.
+     *
+     * @param uri    The URI to request.
+     * @param method The method to use.
+     */
+    void retry( URI uri, HttpMethod method )
+    {
+        reuseConnection = false;
+        request( uri, method, true );
+    }
+
     void failure( String message )
     {
         if( tryClose() ) environment.queueEvent( FAILURE_EVENT, address, message );
@@ -220,6 +314,51 @@ void success( HttpResponseHandle object )
         if( tryClose() ) environment.queueEvent( SUCCESS_EVENT, address, object );
     }
 
+    /**
+     * Queue the success event for a streamed response. Unlike {@link #success(HttpResponseHandle)}, this does not
+     * close the request, as the response body is still being received.
+     *
+     * @param object The response handle.
+     */
+    void streamSuccess( HttpResponseHandle object )
+    {
+        if( !isClosed() ) environment.queueEvent( SUCCESS_EVENT, address, object );
+    }
+
+    /**
+     * Queue the failure event for a streamed response.
+     *
+     * @param message The error message.
+     * @param object  The response handle.
+     * @see #streamSuccess(HttpResponseHandle)
+     */
+    void streamFailure( String message, HttpResponseHandle object )
+    {
+        if( !isClosed() ) environment.queueEvent( FAILURE_EVENT, address, message, object );
+    }
+
+    /**
+     * Create a reference to the body of a streamed response, which closes this request when the body is garbage
+     * collected. Otherwise, a response which is discarded without being closed would keep its connection (and a slot
+     * in the computer's request limit) until the computer shuts down, as reading is paused once its buffer is full.
+     *
+     * @param stream The response body.
+     * @return The weak reference.
+     */
+    WeakReference<HttpResponseStream> createStreamReference( HttpResponseStream stream )
+    {
+        return createOwnerReference( stream );
+    }
+
+    /**
+     * Close a streamed request once the response body has been received (or the connection failed), without queuing
+     * any further events.
+     */
+    void finish()
+    {
+        tryClose();
+    }
+
     @Override
     protected void dispose()
     {
@@ -255,4 +394,9 @@ public boolean isBinary()
     {
         return binary;
     }
+
+    public boolean isStreaming()
+    {
+        return stream;
+    }
 }
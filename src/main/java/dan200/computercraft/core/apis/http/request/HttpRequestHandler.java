@@ -21,6 +21,8 @@
 import io.netty.handler.codec.http.*;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
@@ -46,24 +48,69 @@ public final class HttpRequestHandler extends SimpleChannelInboundHandler<HttpOb
     private final HttpMethod method;
     private final Options options;
 
+    /**
+     * Whether this request is being sent on a pooled connection, rather than a new one.
+     */
+    private final boolean reused;
+    private boolean sent = false;
+    private boolean keepAlive = false;
+    private boolean responseKeepAlive = false;
+
     private Charset responseCharset;
     private final HttpHeaders responseHeaders = new DefaultHttpHeaders();
     private HttpResponseStatus responseStatus;
     private CompositeByteBuf responseBody;
 
-    HttpRequestHandler( HttpRequest request, URI uri, HttpMethod method, Options options )
+    /**
+     * The body of a streamed response. This is only weakly referenced, so that the request is closed if the computer
+     * discards the response without closing it.
+     */
+    private WeakReference<HttpResponseStream> stream;
+    private long streamedBytes;
+
+    HttpRequestHandler( HttpRequest request, URI uri, HttpMethod method, Options options, boolean reused )
     {
         this.request = request;
 
         this.uri = uri;
         this.method = method;
         this.options = options;
+        this.reused = reused;
+    }
+
+    @Override
+    public void handlerAdded( ChannelHandlerContext ctx ) throws Exception
+    {
+        // Pooled connections are already active, so we send the request as soon as we're added to the pipeline.
+        if( ctx.channel().isActive() )
+        {
+            sendRequest( ctx );
+        }
+        else if( reused && !closed )
+        {
+            // The server closed the pooled connection after we acquired it, so channelInactive may have already fired
+            // and will not be called again.
+            if( !tryRetry() )
+            {
+                closed = true;
+                fail( "Could not connect" );
+            }
+        }
+
+        super.handlerAdded( ctx );
     }
 
     @Override
     public void channelActive( ChannelHandlerContext ctx ) throws Exception
     {
-        if( request.checkClosed() ) return;
+        sendRequest( ctx );
+        super.channelActive( ctx );
+    }
+
+    private void sendRequest( ChannelHandlerContext ctx )
+    {
+        if( sent || request.checkClosed() ) return;
+        sent = true;
 
         ByteBuf body = request.body();
         body.resetReaderIndex().retain();
@@ -81,20 +128,42 @@ public void channelActive( ChannelHandlerContext ctx ) throws Exception
             request.headers().set( HttpHeaderNames.ACCEPT_CHARSET, "UTF-8" );
         }
         request.headers().set( HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort() );
-        request.headers().set( HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE );
 
-        ctx.channel().writeAndFlush( request );
+        // Keep the connection open so it can be reused, unless the user has asked otherwise.
+        keepAlive = HttpUtil.isKeepAlive( request );
 
-        super.channelActive( ctx );
+        ctx.channel().writeAndFlush( request );
     }
 
     @Override
     public void channelInactive( ChannelHandlerContext ctx ) throws Exception
     {
-        if( !closed ) request.failure( "Could not connect" );
+        if( !closed && !tryRetry() ) fail( "Could not connect" );
         super.channelInactive( ctx );
     }
 
+    /**
+     * Retry this request if it was sent on a pooled connection which the server closed before responding. This may
+     * happen if the server's idle timeout expires just as we send the request.
+     * <p>
+     * We only do this for idempotent methods, as we cannot tell if the server processed the request.
+     *
+     * @return Whether the request was retried.
+     */
+    private boolean tryRetry()
+    {
+        if( !reused || responseStatus != null || request.checkClosed() ) return false;
+        if( method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS
+            && method != HttpMethod.PUT && method != HttpMethod.DELETE && method != HttpMethod.TRACE )
+        {
+            return false;
+        }
+
+        closed = true;
+        request.retry( uri, method );
+        return true;
+    }
+
     @Override
     public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
     {
@@ -134,10 +203,18 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
             responseCharset = HttpUtil.getCharset( response, StandardCharsets.UTF_8 );
             responseStatus = response.status();
             responseHeaders.add( response.headers() );
+            responseKeepAlive = HttpUtil.isKeepAlive( response );
+
+            if( request.isStreaming() ) startStream( ctx );
         }
 
         if( message instanceof HttpContent content )
         {
+            if( stream != null )
+            {
+                readStream( ctx, content );
+                return;
+            }
 
             if( responseBody == null )
             {
@@ -153,7 +230,7 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
                     closed = true;
                     ctx.close();
 
-                    request.failure( "Response is too large" );
+                    fail( "Response is too large" );
                     return;
                 }
 
@@ -170,7 +247,8 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
                     responseHeaders.set( HttpHeaderNames.CONTENT_LENGTH, responseBody.readableBytes() );
                 }
 
-                ctx.close();
+                closed = true;
+                releaseConnection( ctx );
                 sendResponse();
             }
         }
@@ -179,8 +257,113 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
     @Override
     public void exceptionCaught( ChannelHandlerContext ctx, Throwable cause )
     {
+        // A pooled connection may be reset by the server if it has been idle for too long.
+        if( !closed && cause instanceof IOException && tryRetry() )
+        {
+            ctx.close();
+            return;
+        }
+
         if( ComputerCraft.logComputerErrors ) ComputerCraft.log.error( "Error handling HTTP response", cause );
-        request.failure( NetworkUtils.toFriendlyError( cause ) );
+        fail( NetworkUtils.toFriendlyError( cause ) );
+    }
+
+    /**
+     * Fail this request. If we're streaming the response, the error is reported when reading from the stream, as the
+     * success event has already been queued.
+     *
+     * @param message The error message.
+     */
+    private void fail( String message )
+    {
+        if( this.stream == null )
+        {
+            request.failure( message );
+            return;
+        }
+
+        HttpResponseStream stream = this.stream.get();
+        if( stream != null ) stream.fail( message );
+        request.finish();
+    }
+
+    /**
+     * Return the connection to the pool once the response has been read, or close it if it cannot be reused.
+     *
+     * @param ctx The channel handler context.
+     */
+    private void releaseConnection( ChannelHandlerContext ctx )
+    {
+        if( keepAlive && responseKeepAlive )
+        {
+            request.releaseConnection( ctx.channel(), responseHeaders );
+        }
+        else
+        {
+            ctx.close();
+        }
+    }
+
+    /**
+     * Queue the response event for a streamed request as soon as we've received the headers, rather than waiting for
+     * the body.
+     *
+     * @param ctx The channel handler context.
+     */
+    private void startStream( ChannelHandlerContext ctx )
+    {
+        HttpResponseStream stream = new HttpResponseStream( request, ctx.channel() );
+        this.stream = request.createStreamReference( stream );
+
+        HttpResponseStatus status = responseStatus;
+        HttpResponseHandle handle = new HttpResponseHandle( stream, status.code(), status.reasonPhrase(), getHeaders() );
+
+        if( status.code() >= 200 && status.code() < 400 )
+        {
+            request.streamSuccess( handle );
+        }
+        else
+        {
+            request.streamFailure( status.reasonPhrase(), handle );
+        }
+    }
+
+    private void readStream( ChannelHandlerContext ctx, HttpContent content )
+    {
+        HttpResponseStream stream = this.stream.get();
+        if( stream == null )
+        {
+            // The response has been garbage collected, so there's no point reading the rest of it.
+            closed = true;
+            ctx.close();
+            request.finish();
+            return;
+        }
+
+        ByteBuf partial = content.content();
+        streamedBytes += partial.readableBytes();
+
+        // If we've read more than we're allowed to handle, abort as soon as possible.
+        if( options.maxDownload != 0 && streamedBytes > options.maxDownload )
+        {
+            closed = true;
+            ctx.close();
+
+            fail( "Response is too large" );
+            return;
+        }
+
+        stream.offer( partial );
+
+        if( content instanceof LastHttpContent )
+        {
+            closed = true;
+            stream.finish();
+            request.environment().observe( Metrics.HTTP_DOWNLOAD, getHeaderSize( responseHeaders ) + streamedBytes );
+
+            releaseConnection( ctx );
+            request.finish();
+        }
     }
 
     private void sendResponse()
@@ -191,12 +374,7 @@ private void sendResponse()
 
         // Decode the headers
         HttpResponseStatus status = responseStatus;
-        Map<String, String> headers = new HashMap<>();
-        for( Map.Entry<String, String> header : responseHeaders )
-        {
-            String existing = headers.get( header.getKey() );
-            headers.put( header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue() );
-        }
+        Map<String, String> headers = getHeaders();
 
         // Fire off a stats event
         request.environment().observe( Metrics.HTTP_DOWNLOAD, getHeaderSize( responseHeaders ) + bytes.length );
@@ -218,6 +396,17 @@ private void sendResponse()
         }
     }
 
+    private Map<String, String> getHeaders()
+    {
+        Map<String, String> headers = new HashMap<>();
+        for( Map.Entry<String, String> header : responseHeaders )
+        {
+            String existing = headers.get( header.getKey() );
+            headers.put( header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue() );
+        }
+        return headers;
+    }
+
     /**
      * Determine the redirect from this response.
      *
@@ -247,6 +436,8 @@ private URI getRedirect( HttpResponseStatus status, HttpHeaders headers )
     public void close()
     {
         closed = true;
+        HttpResponseStream stream = this.stream == null ? null : this.stream.get();
+        if( stream != null ) stream.fail( "Connection closed" );
         if( responseBody != null )
         {
             responseBody.release();
@@ -20,7 +20,7 @@
 /**
  * A http response. This provides the same methods as a {@link EncodedReadableHandle file} (or
  * {@link BinaryReadableHandle binary file} if the request used binary mode), though provides several request specific
- * methods.
+ * methods. Streamed requests instead provide the methods of {@link HttpResponseStream}.
  *
  * @cc.module http.Response
  * @see HTTPAPI#request(IArguments)  On how to make a http request.
@@ -33,6 +33,16 @@ public class HttpResponseHandle implements ObjectSource
     private final Map<String, String> responseHeaders;
 
     public HttpResponseHandle( @Nonnull HandleGeneric reader, int responseCode, String responseStatus, @Nonnull Map<String, String> responseHeaders )
+    {
+        this( (Object) reader, responseCode, responseStatus, responseHeaders );
+    }
+
+    public HttpResponseHandle( @Nonnull HttpResponseStream stream, int responseCode, String responseStatus, @Nonnull Map<String, String> responseHeaders )
+    {
+        this( (Object) stream, responseCode, responseStatus, responseHeaders );
+    }
+
+    private HttpResponseHandle( @Nonnull Object reader, int responseCode, String responseStatus, @Nonnull Map<String, String> responseHeaders )
     {
         this.reader = reader;
         this.responseCode = responseCode;
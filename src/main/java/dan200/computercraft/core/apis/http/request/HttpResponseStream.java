@@ -0,0 +1,341 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.api.lua.ILuaCallback;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.MethodResult;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The body of a streamed http response. Rather than waiting for the whole response to be received, this allows
+ * reading the body as it arrives. The response is always read as binary data, in the same way as a
+ * {@link dan200.computercraft.core.apis.handles.BinaryReadableHandle binary file}.
+ * <p>
+ * If no data is available, the read methods will wait for more data to arrive, yielding in the same way as
+ * {@code os.pullEvent}. Only a small amount of the response is buffered at once: when the buffer is full, we stop
+ * reading from the server until the computer has consumed some of it.
+ *
+ * @cc.module http.Response
+ * @see dan200.computercraft.core.apis.HTTPAPI#request On how to make a streamed request.
+ */
+public class HttpResponseStream
+{
+    /**
+     * The event queued when more data is available.
+     */
+    static final String STREAM_EVENT = "http_stream";
+
+    /**
+     * The amount of data we buffer before we stop reading from the connection. This may be exceeded if a read needs
+     * more data (for instance, a very long line or {@link #readAll()}).
+     */
+    private static final int WINDOW = 64 * 1024;
+
+    private final HttpRequest request;
+
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private int offset = 0;
+    private int buffered = 0;
+
+    private @Nullable Channel channel;
+    private boolean paused = false;
+    private boolean waiting = false;
+    private boolean finished = false;
+    private boolean closed = false;
+    private @Nullable String error;
+
+    HttpResponseStream( HttpRequest request, Channel channel )
+    {
+        this.request = request;
+        this.channel = channel;
+    }
+
+    /**
+     * Read a number of bytes from the response, waiting for them to arrive if needed.
+     *
+     * @param countArg The number of bytes to read. When absent, a single byte will be read <em>as a number</em>.
+     * @return The read bytes.
+     * @throws LuaException When trying to read a negative number of bytes.
+     * @throws LuaException If the response has been closed, or the connection failed.
+     * @cc.treturn [1] nil If we are at the end of the response.
+     * @cc.treturn [2] number The value of the byte read. This is returned when the {@code count} is absent.
+     * @cc.treturn [3] string The bytes read as a string. This is returned when the {@code count} is given.
+     */
+    @LuaFunction
+    public final MethodResult read( Optional<Integer> countArg ) throws LuaException
+    {
+        int count = countArg.orElse( 1 );
+        if( count < 0 ) throw new LuaException( "Cannot read a negative number of bytes" );
+
+        return await( () -> {
+            if( buffered < Math.max( count, 1 ) && !finished ) return null;
+            if( buffered == 0 ) return atEnd();
+
+            byte[] bytes = take( Math.min( count, buffered ) );
+            return countArg.isPresent() ? new Object[] { bytes } : new Object[] { bytes[0] & 0xFF };
+        } );
+    }
+
+    /**
+     * Read the remainder of the response, waiting for it to arrive.
+     *
+     * @return The rest of the response.
+     * @throws LuaException If the response has been closed, or the connection failed.
+     * @cc.treturn string|nil The remaining contents of the response, or {@code nil} if we are at the end.
+     */
+    @LuaFunction
+    public final MethodResult readAll() throws LuaException
+    {
+        return await( () -> {
+            if( !finished ) return null;
+            return buffered == 0 ? atEnd() : new Object[] { take( buffered ) };
+        } );
+    }
+
+    /**
+     * Read a line from the response, waiting for it to arrive if needed.
+     *
+     * @param withTrailingArg Whether to include the newline characters with the returned string. Defaults to {@code false}.
+     * @return The read line.
+     * @throws LuaException If the response has been closed, or the connection failed.
+     * @cc.treturn string|nil The read line or {@code nil} if at the end of the response.
+     */
+    @LuaFunction
+    public final MethodResult readLine( Optional<Boolean> withTrailingArg ) throws LuaException
+    {
+        boolean withTrailing = withTrailingArg.orElse( false );
+        return await( () -> {
+            int newline = indexOf( (byte) '\n' );
+            if( newline < 0 && !finished ) return null;
+            if( buffered == 0 ) return atEnd();
+
+            byte[] line = take( newline < 0 ? buffered : newline + 1 );
+            if( withTrailing || newline < 0 ) return new Object[] { line };
+
+            // Strip the trailing \n, as well as any \r before it.
+            int length = line.length - 1;
+            if( length > 0 && line[length - 1] == '\r' ) length--;
+            return new Object[] { Arrays.copyOf( line, length ) };
+        } );
+    }
+
+    /**
+     * Close this response, aborting the request if it has not yet been received.
+     */
+    @LuaFunction( "close" )
+    public final void doClose()
+    {
+        synchronized( this )
+        {
+            closed = true;
+            chunks.clear();
+            buffered = 0;
+        }
+
+        request.close();
+    }
+
+    /**
+     * Add part of the response body to this stream. This should be called from the channel's event loop.
+     *
+     * @param buffer The data to add.
+     */
+    void offer( ByteBuf buffer )
+    {
+        if( !buffer.isReadable() ) return;
+
+        boolean notify;
+        synchronized( this )
+        {
+            if( closed ) return;
+
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.getBytes( buffer.readerIndex(), bytes );
+            chunks.addLast( bytes );
+            buffered += bytes.length;
+
+            notify = waiting;
+            waiting = false;
+
+            // If the computer isn't waiting for this data, stop reading until it catches up.
+            if( !notify && buffered >= WINDOW && !paused && channel != null )
+            {
+                paused = true;
+                channel.config().setAutoRead( false );
+            }
+        }
+
+        if( notify ) queueEvent();
+    }
+
+    /**
+     * Mark this stream as finished, once the whole response has been received.
+     */
+    void finish()
+    {
+        complete( null );
+    }
+
+    /**
+     * Mark this stream as failed. Any buffered data may still be read, after which the read methods will error.
+     *
+     * @param message The error message.
+     */
+    void fail( String message )
+    {
+        complete( message );
+    }
+
+    private void complete( @Nullable String message )
+    {
+        boolean notify;
+        synchronized( this )
+        {
+            if( finished ) return;
+            finished = true;
+            error = message;
+
+            // Make sure we never leave a connection paused, as it may be returned to the pool.
+            if( paused && channel != null ) channel.config().setAutoRead( true );
+            paused = false;
+            channel = null;
+
+            notify = waiting;
+            waiting = false;
+        }
+
+        if( notify ) queueEvent();
+    }
+
+    private void queueEvent()
+    {
+        request.environment().queueEvent( STREAM_EVENT, request.address() );
+    }
+
+    private MethodResult await( Reader reader ) throws LuaException
+    {
+        synchronized( this )
+        {
+            if( closed ) throw new LuaException( "attempt to use a closed file" );
+
+            Object[] result = reader.read();
+            if( result != null ) return MethodResult.of( result );
+
+            // We need more data, so mark ourselves as waiting and start reading again if needed.
+            waiting = true;
+            if( paused && channel != null )
+            {
+                paused = false;
+                channel.config().setAutoRead( true );
+            }
+        }
+
+        return MethodResult.pullEvent( STREAM_EVENT, new AwaitCallback( reader ) );
+    }
+
+    private Object[] atEnd() throws LuaException
+    {
+        if( error != null ) throw new LuaException( error );
+        return new Object[0];
+    }
+
+    /**
+     * Remove some bytes from the buffer. This should be called while holding the lock.
+     *
+     * @param count The number of bytes to take. This must be at most {@link #buffered}.
+     * @return The removed bytes.
+     */
+    private byte[] take( int count )
+    {
+        byte[] result = new byte[count];
+        int position = 0;
+        while( position < count )
+        {
+            byte[] chunk = chunks.getFirst();
+            int length = Math.min( chunk.length - offset, count - position );
+            System.arraycopy( chunk, offset, result, position, length );
+            position += length;
+            offset += length;
+
+            if( offset == chunk.length )
+            {
+                chunks.removeFirst();
+                offset = 0;
+            }
+        }
+
+        buffered -= count;
+        if( paused && buffered < WINDOW / 2 && channel != null )
+        {
+            paused = false;
+            channel.config().setAutoRead( true );
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the first occurrence of a byte in the buffer. This should be called while holding the lock.
+     *
+     * @param value The byte to find.
+     * @return The index of this byte, or {@code -1} if not present.
+     */
+    private int indexOf( byte value )
+    {
+        int index = 0, start = offset;
+        for( byte[] chunk : chunks )
+        {
+            for( int i = start; i < chunk.length; i++ )
+            {
+                if( chunk[i] == value ) return index + i - start;
+            }
+
+            index += chunk.length - start;
+            start = 0;
+        }
+
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface Reader
+    {
+        /**
+         * Attempt to read from the buffer. This is called while holding the lock.
+         *
+         * @return The result of reading, or {@code null} if we need to wait for more data.
+         * @throws LuaException If the stream failed.
+         */
+        @Nullable
+        Object[] read() throws LuaException;
+    }
+
+    private final class AwaitCallback implements ILuaCallback
+    {
+        private final Reader reader;
+
+        AwaitCallback( Reader reader )
+        {
+            this.reader = reader;
+        }
+
+        @Nonnull
+        @Override
+        public MethodResult resume( Object[] args ) throws LuaException
+        {
+            return await( reader );
+        }
+    }
+}
@@ -29,6 +29,7 @@
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
 import io.netty.handler.ssl.SslContext;
 
+import javax.annotation.Nullable;
 import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
 import java.net.URI;
@@ -50,6 +51,7 @@ public class Websocket extends Resource<Websocket>
     static final String FAILURE_EVENT = "websocket_failure";
     static final String CLOSE_EVENT = "websocket_closed";
     static final String MESSAGE_EVENT = "websocket_message";
+    static final String BATCH_EVENT = "websocket_batch";
 
     private Future<?> executorFuture;
     private ChannelFuture connectFuture;
@@ -59,14 +61,17 @@ public class Websocket extends Resource<Websocket>
     private final URI uri;
     private final String address;
     private final HttpHeaders headers;
+    private final boolean batch;
+    private volatile WebsocketMessageQueue messages;
 
-    public Websocket( ResourceGroup<Websocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers )
+    public Websocket( ResourceGroup<Websocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers, boolean batch )
     {
         super( limiter );
         this.environment = environment;
         this.uri = uri;
         this.address = address;
         this.headers = headers;
+        this.batch = batch;
     }
 
     public static URI checkUri( String address ) throws HTTPRequestException
@@ -188,7 +193,8 @@ void success( Channel channel, Options options )
     {
         if( isClosed() ) return;
 
-        WebsocketHandle handle = new WebsocketHandle( this, options, channel );
+        WebsocketMessageQueue messages = this.messages = batch ? new WebsocketMessageQueue( this, channel ) : null;
+        WebsocketHandle handle = new WebsocketHandle( this, options, channel, messages );
         environment().queueEvent( SUCCESS_EVENT, address, handle );
         websocketHandle = createOwnerReference( handle );
 
@@ -233,4 +239,15 @@ public String address()
     {
         return address;
     }
+
+    /**
+     * Get the queue of incoming messages, if this websocket was opened in batch mode.
+     *
+     * @return The message queue, or {@code null} if messages should be queued as events.
+     */
+    @Nullable
+    WebsocketMessageQueue messages()
+    {
+        return messages;
+    }
 }
@@ -10,18 +10,25 @@
 import dan200.computercraft.core.apis.http.options.Options;
 import dan200.computercraft.core.metrics.Metrics;
 import dan200.computercraft.shared.util.StringUtil;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static dan200.computercraft.api.lua.LuaValues.checkFinite;
 import static dan200.computercraft.core.apis.IAPIEnvironment.TIMER_EVENT;
+import static dan200.computercraft.core.apis.http.websocket.Websocket.BATCH_EVENT;
 import static dan200.computercraft.core.apis.http.websocket.Websocket.CLOSE_EVENT;
 import static dan200.computercraft.core.apis.http.websocket.Websocket.MESSAGE_EVENT;
 
@@ -35,15 +42,18 @@ public class WebsocketHandle implements Closeable
 {
     private final Websocket websocket;
     private final Options options;
+    private final @Nullable WebsocketMessageQueue messages;
     private boolean closed = false;
 
     private Channel channel;
+    private final AtomicBoolean flushPending = new AtomicBoolean( false );
 
-    public WebsocketHandle( Websocket websocket, Options options, Channel channel )
+    public WebsocketHandle( Websocket websocket, Options options, Channel channel, @Nullable WebsocketMessageQueue messages )
     {
         this.websocket = websocket;
         this.options = options;
         this.channel = channel;
+        this.messages = messages;
     }
 
     /**
@@ -62,11 +72,43 @@ public WebsocketHandle( Websocket websocket, Options options, Channel channel )
     public final MethodResult receive( Optional<Double> timeout ) throws LuaException
     {
         checkOpen();
-        int timeoutId = timeout.isPresent()
+        if( messages != null )
+        {
+            Object[] message = messages.pollOrWait();
+            if( message != null ) return MethodResult.of( message );
+        }
+
+        return new ReceiveCallback( startTimer( timeout ), false ).pull;
+    }
+
+    /**
+     * Wait for messages from the server, returning every message which has been received so far. This is only
+     * available on websockets opened in batch mode.
+     *
+     * @param timeout The number of seconds to wait if no message is received.
+     * @return The result of receiving.
+     * @throws LuaException If the websocket has been closed, or was not opened in batch mode.
+     * @cc.treturn [1] { string... } The received messages.
+     * @cc.treturn { boolean... } Whether each message was binary.
+     * @cc.treturn [2] nil If the websocket was closed while waiting, or if we timed out.
+     */
+    @LuaFunction
+    public final MethodResult receiveAll( Optional<Double> timeout ) throws LuaException
+    {
+        checkOpen();
+        if( messages == null ) throw new LuaException( "Websocket was not opened in batch mode" );
+
+        Object[] result = messages.drainOrWait();
+        if( result != null ) return MethodResult.of( result );
+
+        return new ReceiveCallback( startTimer( timeout ), true ).pull;
+    }
+
+    private int startTimer( Optional<Double> timeout ) throws LuaException
+    {
+        return timeout.isPresent()
             ? websocket.environment().startTimer( Math.round( checkFinite( 0, timeout.get() ) / 0.05 ) )
             : -1;
-
-        return new ReceiveCallback( timeoutId ).pull;
     }
 
     /**
@@ -94,12 +136,64 @@ public final void send( Object message, Optional<Boolean> binary ) throws LuaExc
         Channel channel = this.channel;
         if( channel != null )
         {
-            channel.writeAndFlush( binary.orElse( false )
-                ? new BinaryWebSocketFrame( Unpooled.wrappedBuffer( LuaValues.encode( text ) ) )
+            write( channel, binary.orElse( false )
+                ? new BinaryWebSocketFrame( encode( channel.alloc(), text ) )
                 : new TextWebSocketFrame( text ) );
         }
     }
 
+    /**
+     * Write a frame to this websocket, and flush it on its event loop. Programs often send many messages at once, so
+     * rather than flushing after every message, we write them all and then flush once.
+     * <p>
+     * Both the write and scheduling the flush must happen on the event loop. {@link Channel#write(Object)} from
+     * another thread is queued as a separate task, so could otherwise run after the flush it was meant to be part of.
+     *
+     * @param channel The channel to write to.
+     * @param frame   The frame to write.
+     */
+    private void write( Channel channel, WebSocketFrame frame )
+    {
+        EventLoop loop = channel.eventLoop();
+        try
+        {
+            loop.execute( () -> {
+                channel.write( frame );
+                if( flushPending.compareAndSet( false, true ) )
+                {
+                    loop.execute( () -> {
+                        flushPending.set( false );
+                        channel.flush();
+                    } );
+                }
+            } );
+        }
+        catch( RejectedExecutionException e )
+        {
+            // The event loop has shut down, so the frame will never be written.
+            frame.release();
+        }
+    }
+
+    /**
+     * Encode a Lua string into a pooled buffer. This is equivalent to {@link LuaValues#encode(String)}, but avoids
+     * allocating an intermediate array.
+     *
+     * @param allocator The allocator to create the buffer with.
+     * @param text      The string to encode.
+     * @return The encoded string.
+     */
+    private static ByteBuf encode( ByteBufAllocator allocator, String text )
+    {
+        ByteBuf buffer = allocator.buffer( text.length() );
+        for( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+            buffer.writeByte( c < 256 ? c : 63 );
+        }
+        return buffer;
+    }
+
     /**
      * Close this websocket. This will terminate the connection, meaning messages can no longer be sent or received
      * along it.
@@ -133,20 +227,27 @@ private final class ReceiveCallback implements ILuaCallback
     {
         final MethodResult pull = MethodResult.pullEvent( null, this );
         private final int timeoutId;
+        private final boolean all;
 
-        ReceiveCallback( int timeoutId )
+        ReceiveCallback( int timeoutId, boolean all )
         {
             this.timeoutId = timeoutId;
+            this.all = all;
         }
 
         @Nonnull
         @Override
         public MethodResult resume( Object[] event )
         {
-            if( event.length >= 3 && Objects.equal( event[0], MESSAGE_EVENT ) && Objects.equal( event[1], websocket.address() ) )
+            if( messages == null && event.length >= 3 && Objects.equal( event[0], MESSAGE_EVENT ) && Objects.equal( event[1], websocket.address() ) )
             {
                 return MethodResult.of( Arrays.copyOfRange( event, 2, event.length ) );
             }
+            else if( messages != null && event.length >= 2 && Objects.equal( event[0], BATCH_EVENT ) && Objects.equal( event[1], websocket.address() ) )
+            {
+                Object[] result = all ? messages.drainOrWait() : messages.pollOrWait();
+                if( result != null ) return MethodResult.of( result );
+            }
             else if( event.length >= 2 && Objects.equal( event[0], CLOSE_EVENT ) && Objects.equal( event[1], websocket.address() ) && closed )
             {
                 // If the socket is closed abort.
@@ -66,14 +66,14 @@ public void channelRead0( ChannelHandlerContext ctx, Object msg )
             String data = textFrame.text();
 
             websocket.environment().observe( Metrics.WEBSOCKET_INCOMING, data.length() );
-            websocket.environment().queueEvent( MESSAGE_EVENT, websocket.address(), data, false );
+            onMessage( data, data.length(), false );
         }
         else if( frame instanceof BinaryWebSocketFrame )
         {
             byte[] converted = NetworkUtils.toBytes( frame.content() );
 
             websocket.environment().observe( Metrics.WEBSOCKET_INCOMING, converted.length );
-            websocket.environment().queueEvent( MESSAGE_EVENT, websocket.address(), converted, true );
+            onMessage( converted, converted.length, true );
         }
         else if( frame instanceof CloseWebSocketFrame closeFrame )
         {
@@ -86,6 +86,19 @@ else if( frame instanceof PingWebSocketFrame )
         }
     }
 
+    private void onMessage( Object contents, int length, boolean binary )
+    {
+        WebsocketMessageQueue messages = websocket.messages();
+        if( messages != null )
+        {
+            messages.offer( contents, length, binary );
+        }
+        else
+        {
+            websocket.environment().queueEvent( MESSAGE_EVENT, websocket.address(), contents, binary );
+        }
+    }
+
     @Override
     public void exceptionCaught( ChannelHandlerContext ctx, Throwable cause )
     {
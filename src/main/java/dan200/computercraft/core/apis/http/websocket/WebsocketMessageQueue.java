@@ -0,0 +1,134 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.websocket;
+
+import io.netty.channel.Channel;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dan200.computercraft.core.apis.http.websocket.Websocket.BATCH_EVENT;
+
+/**
+ * Holds incoming messages for a websocket opened in batch mode.
+ * <p>
+ * Rather than queuing an event for every message, messages are stored here until the computer reads them with
+ * {@link WebsocketHandle#receive} or {@link WebsocketHandle#receiveAll}. A single {@link Websocket#BATCH_EVENT} event is
+ * queued when a message arrives while the computer is waiting for one.
+ * <p>
+ * If too many messages are pending, we stop reading from the connection until the computer catches up.
+ */
+final class WebsocketMessageQueue
+{
+    private static final int MAX_PENDING_MESSAGES = 1024;
+    private static final int MAX_PENDING_BYTES = 1024 * 1024;
+
+    private final Websocket websocket;
+    private final Channel channel;
+
+    private final ArrayDeque<Message> messages = new ArrayDeque<>();
+    private int bytes = 0;
+    private boolean paused = false;
+    private boolean waiting = false;
+
+    WebsocketMessageQueue( Websocket websocket, Channel channel )
+    {
+        this.websocket = websocket;
+        this.channel = channel;
+    }
+
+    /**
+     * Add a message to the queue. This should be called from the channel's event loop.
+     *
+     * @param contents The message's contents, either a {@link String} or {@code byte[]}.
+     * @param length   The length of this message.
+     * @param binary   Whether this is a binary message.
+     */
+    void offer( Object contents, int length, boolean binary )
+    {
+        boolean notify;
+        synchronized( this )
+        {
+            messages.addLast( new Message( contents, length, binary ) );
+            bytes += length;
+
+            notify = waiting;
+            waiting = false;
+
+            if( !paused && (messages.size() >= MAX_PENDING_MESSAGES || bytes >= MAX_PENDING_BYTES) )
+            {
+                paused = true;
+                channel.config().setAutoRead( false );
+            }
+        }
+
+        if( notify ) websocket.environment().queueEvent( BATCH_EVENT, websocket.address() );
+    }
+
+    /**
+     * Take the next message from the queue. If none is available, the computer is marked as waiting, and will be sent
+     * a {@link Websocket#BATCH_EVENT} event when one arrives.
+     *
+     * @return The message and whether it is binary, or {@code null} if none is available.
+     */
+    @Nullable
+    synchronized Object[] pollOrWait()
+    {
+        Message message = messages.pollFirst();
+        if( message == null )
+        {
+            waiting = true;
+            return null;
+        }
+
+        removed( message );
+        return new Object[] { message.contents(), message.binary() };
+    }
+
+    /**
+     * Take every message from the queue. If none are available, the computer is marked as waiting, and will be sent a
+     * {@link Websocket#BATCH_EVENT} event when one arrives.
+     *
+     * @return A list of messages and a list of whether each message is binary, or {@code null} if none are available.
+     */
+    @Nullable
+    synchronized Object[] drainOrWait()
+    {
+        if( messages.isEmpty() )
+        {
+            waiting = true;
+            return null;
+        }
+
+        List<Object> contents = new ArrayList<>( messages.size() );
+        List<Boolean> binary = new ArrayList<>( messages.size() );
+        Message message;
+        while( (message = messages.pollFirst()) != null )
+        {
+            contents.add( message.contents() );
+            binary.add( message.binary() );
+            removed( message );
+        }
+
+        return new Object[] { contents, binary };
+    }
+
+    private void removed( Message message )
+    {
+        bytes -= message.length();
+        if( paused && messages.size() < MAX_PENDING_MESSAGES / 2 && bytes < MAX_PENDING_BYTES / 2 )
+        {
+            paused = false;
+            channel.config().setAutoRead( true );
+        }
+    }
+
+    private record Message(Object contents, int length, boolean binary)
+    {
+    }
+}
@@ -14,6 +14,7 @@
 import dan200.computercraft.core.apis.IAPIEnvironment;
 import dan200.computercraft.core.computer.mainthread.MainThreadScheduler;
 import dan200.computercraft.core.filesystem.FileSystem;
+import dan200.computercraft.core.metrics.Profiler;
 import dan200.computercraft.core.terminal.Terminal;
 
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -45,6 +46,7 @@
     private final Terminal terminal;
     private final ComputerExecutor executor;
     private final MainThreadScheduler.Executor serverExecutor;
+    private final Profiler profiler = new Profiler();
 
     /**
      * An internal counter for {@link ILuaTask} ids.
@@ -99,6 +101,16 @@ public IAPIEnvironment getAPIEnvironment()
         return internalEnvironment;
     }
 
+    /**
+     * Get this computer's profiler. This is kept across reboots, so a profile may cover several runs of the computer.
+     *
+     * @return This computer's profiler.
+     */
+    public Profiler getProfiler()
+    {
+        return profiler;
+    }
+
     public boolean isOn()
     {
         return executor.isOn();
@@ -124,6 +136,17 @@ public void unload()
         executor.queueStop( false, true );
     }
 
+    /**
+     * Park or unpark this computer. A parked computer keeps its Lua state, but will not process any events until it is
+     * unparked.
+     *
+     * @param parked Whether this computer should be parked.
+     */
+    public void setParked( boolean parked )
+    {
+        executor.setParked( parked );
+    }
+
     public void queueEvent( String event, Object[] args )
     {
         executor.queueEvent( event, args );
@@ -109,14 +109,22 @@
      *
      * @see ComputerThread
      */
-    long virtualRuntime = 0;
+    volatile long virtualRuntime = 0;
 
     /**
      * The last time at which we updated {@link #virtualRuntime}.
      *
      * @see ComputerThread
      */
-    long vRuntimeStart;
+    volatile long vRuntimeStart;
+
+    /**
+     * The order in which this computer was added to {@link ComputerThread}'s queue, used to order computers with the
+     * same {@link #virtualRuntime}.
+     *
+     * @see ComputerThread
+     */
+    long queueSequence;
 
     /**
      * The command that {@link #work()} should execute on the computer thread.
@@ -151,6 +159,15 @@
      */
     private boolean closed;
 
+    /**
+     * Whether this computer is parked. Parked computers keep their Lua state, but do not run any events until they
+     * are unparked. Commands (such as shutting down) are still executed.
+     *
+     * @see #setParked(boolean)
+     * @see #queueLock
+     */
+    private boolean parked;
+
     private IWritableMount rootMount;
 
     /**
@@ -310,6 +327,21 @@ void queueEvent( @Nonnull String event, @Nullable Object[] args )
         }
     }
 
+    /**
+     * Park or unpark this computer. While parked, events are queued as normal, but are not run until the computer is
+     * unparked.
+     *
+     * @param parked Whether this computer should be parked.
+     */
+    void setParked( boolean parked )
+    {
+        synchronized( queueLock )
+        {
+            this.parked = parked;
+            if( !parked && (interruptedEvent || !eventQueue.isEmpty()) ) enqueue();
+        }
+    }
+
     /**
      * Add this executor to the {@link ComputerThread} if not already there.
      */
@@ -317,6 +349,7 @@ private void enqueue()
     {
         synchronized( queueLock )
         {
+            if( parked && command == null ) return;
             if( !onComputerQueue ) scheduler.queue( this );
         }
     }
@@ -405,7 +438,7 @@ private ILuaMachine createLuaMachine()
 
         // Create the lua machine
         ILuaMachine machine = luaFactory.create( new MachineEnvironment(
-            new LuaContext( computer ), metrics, timeout, computer.getGlobalEnvironment().getHostString()
+            new LuaContext( computer ), metrics, computer.getProfiler(), timeout, computer.getGlobalEnvironment().getHostString()
         ) );
 
         // Add the APIs. We unwrap them (yes, this is horrible) to get access to the underlying object.
@@ -535,11 +568,13 @@ boolean afterWork()
 
         metrics.observe( Metrics.COMPUTER_TASKS, timeout.nanoCurrent() );
 
-        if( interruptedEvent ) return true;
-
         synchronized( queueLock )
         {
-            if( eventQueue.isEmpty() && command == null ) return onComputerQueue = false;
+            // Parked computers only run commands, so there's no work to do until we are unparked or receive one.
+            if( command == null && (parked || (!interruptedEvent && eventQueue.isEmpty())) )
+            {
+                return onComputerQueue = false;
+            }
             return true;
         }
     }
@@ -555,7 +590,14 @@ boolean afterWork()
      */
     void work() throws InterruptedException
     {
-        if( interruptedEvent && !closed )
+        boolean parked;
+        synchronized( queueLock )
+        {
+            parked = this.parked;
+        }
+
+        // Parked computers may still run commands, but should not resume their machine until unparked.
+        if( interruptedEvent && !closed && !parked )
         {
             interruptedEvent = false;
             if( machine != null )
@@ -583,6 +625,7 @@ void work() throws InterruptedException
                     return;
                 }
 
+                if( parked ) return;
                 event = eventQueue.poll();
             }
         }
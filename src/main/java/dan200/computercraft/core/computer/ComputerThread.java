@@ -13,8 +13,9 @@
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Iterator;
 import java.util.Objects;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -47,6 +48,16 @@
  * <p>
  * In reality, it's unlikely that more than a few computers are waiting to execute at once, so this will not have much
  * effect unless you have a computer hogging execution time. However, it is pretty effective in those situations.
+ * <p>
+ * Queueing a computer does not take any global lock: the queue itself is a concurrent skip list, and the minimum
+ * virtual runtime is estimated without modifying the currently running computers (each worker updates its own
+ * computer's runtime once it has finished executing). The only lock is used by idle workers to sleep, and is only
+ * acquired when queueing a computer if there are workers waiting for work.
+ * <p>
+ * Workers are spawned on demand, whenever there is more work queued than there are idle workers to run it, up to a
+ * maximum number of threads. Workers above the minimum number of threads are retired once they have been idle for a
+ * while. This means we can absorb bursts of activity (such as every computer starting up when the server starts)
+ * without keeping a large number of threads around permanently.
  *
  * @see TimeoutState For how hard timeouts are handled.
  * @see ComputerExecutor For how computers actually do execution.
@@ -84,6 +95,11 @@
      */
     private static final long LATENCY_MAX_TASKS = DEFAULT_LATENCY / DEFAULT_MIN_PERIOD;
 
+    /**
+     * The default time an idle worker will wait for work before being retired.
+     */
+    private static final long DEFAULT_KEEP_ALIVE = TimeUnit.SECONDS.toNanos( 60 );
+
     /**
      * Time difference between reporting crashed threads.
      *
@@ -108,7 +124,7 @@
     /**
      * The current task manager.
      */
-    private @Nullable Thread monitor;
+    private volatile @Nullable Thread monitor;
 
     /**
      * The array of current workers, and their owning threads.
@@ -116,45 +132,100 @@
     @GuardedBy( "threadLock" )
     private final Worker[] workers;
 
+    /**
+     * The number of workers which are always kept running (once started). Any workers beyond this are retired once
+     * they have been idle for {@link #keepAlive}.
+     */
+    private final int minWorkers;
+
+    /**
+     * How long (in nanoseconds) an idle worker will wait for work before being retired.
+     */
+    private final long keepAlive;
+
     /**
      * The number of workers in {@link #workers}.
      */
     @GuardedBy( "threadLock" )
-    private int workerCount = 0;
+    private volatile int workerCount = 0;
 
     private final Condition shutdown = threadLock.newCondition();
 
     private final long latency;
     private final long minPeriod;
 
-    private final ReentrantLock computerLock = new ReentrantLock();
-    private final Condition workerWakeup = computerLock.newCondition();
-    private final Condition monitorWakeup = computerLock.newCondition();
+    /**
+     * Lock used by idle workers to wait for work.
+     */
+    private final ReentrantLock workerLock = new ReentrantLock();
+    private final Condition workerWakeup = workerLock.newCondition();
 
+    /**
+     * The number of workers which are waiting for work. Workers increment this before checking the queue (and waiting
+     * on {@link #workerWakeup}), and so a computer queued while this is zero will always be seen by a worker.
+     */
     private final AtomicInteger idleWorkers = new AtomicInteger( 0 );
 
     /**
      * Active queues to execute.
+     * <p>
+     * Computers are ordered by their {@link ComputerExecutor#virtualRuntime}. This is never modified while a computer
+     * is on the queue, and ties are broken by {@link ComputerExecutor#queueSequence}, so distinct computers never
+     * compare as equal.
      */
-    private final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>( ( a, b ) -> {
+    private final ConcurrentSkipListSet<ComputerExecutor> computerQueue = new ConcurrentSkipListSet<>( ( a, b ) -> {
         if( a == b ) return 0; // Should never happen, but let's be consistent here
 
         long at = a.virtualRuntime, bt = b.virtualRuntime;
-        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
+        if( at == bt ) return Long.compare( a.queueSequence, b.queueSequence );
         return at < bt ? -1 : 1;
     } );
 
+    /**
+     * The number of computers in {@link #computerQueue}. {@link ConcurrentSkipListSet#size()} is linear, so we track
+     * this separately.
+     */
+    private final AtomicInteger queueSize = new AtomicInteger( 0 );
+
+    /**
+     * A counter used to assign {@link ComputerExecutor#queueSequence}.
+     */
+    private final AtomicLong queueSequence = new AtomicLong( 0 );
+
     /**
      * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
      */
-    private long minimumVirtualRuntime = 0;
+    private final AtomicLong minimumVirtualRuntime = new AtomicLong( 0 );
 
+    /**
+     * Create a new computer thread with a fixed number of workers.
+     *
+     * @param threadCount The number of worker threads.
+     */
     public ComputerThread( int threadCount )
     {
-        workers = new Worker[threadCount];
+        this( threadCount, threadCount, DEFAULT_KEEP_ALIVE, TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Create a new computer thread whose number of workers varies with the current load.
+     *
+     * @param minThreads The number of workers which are always kept running.
+     * @param maxThreads The maximum number of workers.
+     * @param keepAlive  How long an idle worker will wait for work before being retired.
+     * @param unit       The unit {@code keepAlive} is in.
+     */
+    public ComputerThread( int minThreads, int maxThreads, long keepAlive, TimeUnit unit )
+    {
+        if( maxThreads < 1 ) throw new IllegalArgumentException( "Must have at least one thread" );
+
+        workers = new Worker[maxThreads];
+        minWorkers = Math.max( 1, Math.min( minThreads, maxThreads ) );
+        this.keepAlive = unit.toNanos( keepAlive );
 
         // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
-        // longer when executing on more than one thread.
+        // longer when executing on more than one thread. We use the maximum number of threads here, as that is how
+        // many we'll have when it matters (when we're busy).
         int factor = 64 - Long.numberOfLeadingZeros( workers.length );
         latency = DEFAULT_LATENCY * factor;
         minPeriod = DEFAULT_MIN_PERIOD * factor;
@@ -170,13 +241,15 @@ private void addWorker( int index )
 
     /**
      * Ensure sufficient workers are running.
+     * <p>
+     * We spawn a new worker if we are below the minimum number of workers, or if we have more work queued than there
+     * are idle workers to run it.
      */
-    @GuardedBy( "computerLock" )
     private void ensureRunning()
     {
-        // Don't even enter the lock if we've a monitor and don't need to/can't spawn an additional worker.
-        // We'll be holding the computer lock at this point, so there's no problems with idleWorkers being wrong.
-        if( monitor != null && (idleWorkers.get() > 0 || workerCount == workers.length) ) return;
+        // Don't even enter the lock if we've a monitor and don't need to/can't spawn an additional worker. These checks
+        // may be slightly out of date, but a worker which has just become busy will pick up more work once it is done.
+        if( monitor != null && !needsWorker() ) return;
 
         threadLock.lock();
         try
@@ -184,7 +257,7 @@ private void ensureRunning()
             ComputerCraft.log.trace( "Possibly spawning a worker or monitor." );
 
             if( monitor == null || !monitor.isAlive() ) (monitor = monitorFactory.newThread( new Monitor() )).start();
-            if( idleWorkers.get() == 0 || workerCount < workers.length )
+            if( needsWorker() )
             {
                 for( int i = 0; i < workers.length; i++ )
                 {
@@ -202,6 +275,37 @@ private void ensureRunning()
         }
     }
 
+    private boolean needsWorker()
+    {
+        int workerCount = this.workerCount;
+        return workerCount < minWorkers || (workerCount < workers.length && isBusy());
+    }
+
+    /**
+     * Attempt to retire an idle worker, if we have more workers than we need.
+     *
+     * @param worker The worker to retire.
+     * @return Whether the worker was retired, and so should stop running.
+     */
+    private boolean tryRetire( Worker worker )
+    {
+        threadLock.lock();
+        try
+        {
+            if( workerCount <= minWorkers || hasPendingWork() || workers[worker.index] != worker ) return false;
+
+            ComputerCraft.log.trace( "Retiring idle worker {}.", worker.index );
+            worker.running.set( false );
+            workers[worker.index] = null;
+            workerCount--;
+            return true;
+        }
+        finally
+        {
+            threadLock.unlock();
+        }
+    }
+
     private void advanceState( int newState )
     {
         while( true )
@@ -241,14 +345,14 @@ public boolean stop( long timeout, TimeUnit unit ) throws InterruptedException
         }
 
         // Wake all workers
-        computerLock.lock();
+        workerLock.lock();
         try
         {
             workerWakeup.signalAll();
         }
         finally
         {
-            computerLock.unlock();
+            workerLock.unlock();
         }
 
         // Wait for all workers to signal they have finished.
@@ -270,15 +374,7 @@ public boolean stop( long timeout, TimeUnit unit ) throws InterruptedException
         advanceState( CLOSED );
 
         // Signal the monitor to finish, but don't wait for it to stop.
-        computerLock.lock();
-        try
-        {
-            monitorWakeup.signal();
-        }
-        finally
-        {
-            computerLock.unlock();
-        }
+        wakeMonitor();
 
         return true;
     }
@@ -293,92 +389,108 @@ public boolean stop( long timeout, TimeUnit unit ) throws InterruptedException
      */
     void queue( ComputerExecutor executor )
     {
-        computerLock.lock();
-        try
+        if( state.get() != RUNNING ) throw new IllegalStateException( "ComputerThread is no longer running" );
+
+        if( executor.onComputerQueue ) throw new IllegalStateException( "Cannot queue already queued executor" );
+        executor.onComputerQueue = true;
+
+        // We're not currently on the queue, so update its current execution time to
+        // ensure its at least as high as the minimum.
+        long newRuntime = updateRuntimes();
+
+        if( executor.virtualRuntime == 0 )
         {
-            if( state.get() != RUNNING ) throw new IllegalStateException( "ComputerThread is no longer running" );
+            // Slow down new computers a little bit.
+            newRuntime += scaledPeriod();
+        }
+        else
+        {
+            // Give a small boost to computers which have slept a little.
+            newRuntime -= latency / 2;
+        }
 
-            // Ensure we've got a worker running.
-            ensureRunning();
+        executor.virtualRuntime = Math.max( newRuntime, executor.virtualRuntime );
 
-            if( executor.onComputerQueue ) throw new IllegalStateException( "Cannot queue already queued executor" );
-            executor.onComputerQueue = true;
+        addToQueue( executor );
+    }
 
-            updateRuntimes( null );
+    /**
+     * Add an executor to the queue, and wake up any workers which are waiting for work.
+     *
+     * @param executor The executor to add. This must not be on the queue, or be executing.
+     */
+    private void addToQueue( ComputerExecutor executor )
+    {
+        boolean wasBusy = isBusy();
 
-            // We're not currently on the queue, so update its current execution time to
-            // ensure its at least as high as the minimum.
-            long newRuntime = minimumVirtualRuntime;
+        executor.queueSequence = queueSequence.getAndIncrement();
+        queueSize.getAndIncrement();
+        computerQueue.add( executor );
 
-            if( executor.virtualRuntime == 0 )
+        // If there are idle workers, signal one of them. Workers increment idleWorkers before checking the queue, so
+        // if there are none, then any worker which becomes idle will see this computer.
+        if( idleWorkers.get() > 0 )
+        {
+            workerLock.lock();
+            try
             {
-                // Slow down new computers a little bit.
-                newRuntime += scaledPeriod();
+                workerWakeup.signal();
             }
-            else
+            finally
             {
-                // Give a small boost to computers which have slept a little.
-                newRuntime -= latency / 2;
+                workerLock.unlock();
             }
+        }
 
-            executor.virtualRuntime = Math.max( newRuntime, executor.virtualRuntime );
-
-            boolean wasBusy = isBusy();
-            // Add to the queue, and signal the workers.
-            computerQueue.add( executor );
-            workerWakeup.signal();
+        // Ensure we've got a worker running, spawning a new one if every worker is busy. This must happen after adding
+        // to the queue, so we cannot miss a worker which is being retired.
+        ensureRunning();
 
-            // If we've transitioned into a busy state, notify the monitor. This will cause it to sleep for scaledPeriod
-            // instead of the longer wakeup duration.
-            if( !wasBusy && isBusy() ) monitorWakeup.signal();
-        }
-        finally
-        {
-            computerLock.unlock();
-        }
+        // If we've transitioned into a busy state, notify the monitor. This will cause it to sleep for scaledPeriod
+        // instead of the longer wakeup duration.
+        if( !wasBusy && isBusy() ) wakeMonitor();
     }
 
+    private void wakeMonitor()
+    {
+        Thread monitor = this.monitor;
+        if( monitor != null ) LockSupport.unpark( monitor );
+    }
 
     /**
-     * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the
-     * {@link #minimumVirtualRuntime} based on the current tasks.
+     * Update the {@link #minimumVirtualRuntime} based on the current tasks.
+     * <p>
+     * This estimates the virtual runtime of the currently executing tasks, rather than updating them - each worker
+     * updates its own task's runtime in {@link #afterWork(Worker, ComputerExecutor)}. This means it is safe to call
+     * from multiple threads at once.
      * <p>
      * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date.
      *
-     * @param current The machine which we updating runtimes from.
+     * @return The new minimum virtual runtime.
      */
-    private void updateRuntimes( @Nullable ComputerExecutor current )
+    private long updateRuntimes()
     {
         long minRuntime = Long.MAX_VALUE;
 
         // If we've a task on the queue, use that as our base time.
-        if( !computerQueue.isEmpty() ) minRuntime = computerQueue.first().virtualRuntime;
+        Iterator<ComputerExecutor> queued = computerQueue.iterator();
+        if( queued.hasNext() ) minRuntime = queued.next().virtualRuntime;
 
-        // Update all the currently executing tasks
+        // Include all the currently executing tasks
         long now = System.nanoTime();
-        int tasks = 1 + computerQueue.size();
+        int tasks = 1 + queueSize.get();
         for( @Nullable Worker runner : workers )
         {
             if( runner == null ) continue;
             ComputerExecutor executor = runner.currentExecutor.get();
             if( executor == null ) continue;
 
-            // We do two things here: first we update the task's virtual runtime based on when we
-            // last checked, and then we check the minimum.
-            minRuntime = Math.min( minRuntime, executor.virtualRuntime += (now - executor.vRuntimeStart) / tasks );
-            executor.vRuntimeStart = now;
+            minRuntime = Math.min( minRuntime, executor.virtualRuntime + (now - executor.vRuntimeStart) / tasks );
         }
 
-        // And update the most recently executed one (if set).
-        if( current != null )
-        {
-            minRuntime = Math.min( minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks );
-        }
-
-        if( minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
-        {
-            minimumVirtualRuntime = minRuntime;
-        }
+        return minRuntime < Long.MAX_VALUE
+            ? minimumVirtualRuntime.accumulateAndGet( minRuntime, Math::max )
+            : minimumVirtualRuntime.get();
     }
 
     /**
@@ -403,22 +515,15 @@ private void afterWork( Worker runner, ComputerExecutor executor )
             );
         }
 
-        computerLock.lock();
-        try
-        {
-            updateRuntimes( executor );
+        // This executor is neither running nor queued, so we're the only thread which can modify its runtime.
+        executor.virtualRuntime += (System.nanoTime() - executor.vRuntimeStart) / (1 + queueSize.get());
+        updateRuntimes();
 
-            // If we've no more tasks, just return.
-            if( !executor.afterWork() || state.get() != RUNNING ) return;
+        // If we've no more tasks, just return.
+        if( !executor.afterWork() || state.get() != RUNNING ) return;
 
-            // Otherwise, add to the queue, and signal any waiting workers.
-            computerQueue.add( executor );
-            workerWakeup.signal();
-        }
-        finally
-        {
-            computerLock.unlock();
-        }
+        // Otherwise, add to the queue, and signal any waiting workers.
+        addToQueue( executor );
     }
 
     /**
@@ -431,11 +536,8 @@ private void afterWork( Worker runner, ComputerExecutor executor )
      */
     long scaledPeriod()
     {
-        // FIXME: We access this on other threads (in TimeoutState), so their reads won't be consistent. This isn't
-        //  "criticial" behaviour, so not clear if it matters too much.
-
         // +1 to include the current task
-        int count = 1 + computerQueue.size();
+        int count = 1 + queueSize.get();
         return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
     }
 
@@ -447,20 +549,29 @@ long scaledPeriod()
     @VisibleForTesting
     public boolean hasPendingWork()
     {
-        // FIXME: See comment in scaledPeriod. Again, we access this in multiple threads but not clear if it matters!
         return !computerQueue.isEmpty();
     }
 
+    /**
+     * Get the number of workers which are currently running.
+     *
+     * @return The current number of workers.
+     */
+    @VisibleForTesting
+    int getWorkerCount()
+    {
+        return workerCount;
+    }
+
     /**
      * Check if we have more work queued than we have capacity for. Effectively a more fine-grained version of
      * {@link #hasPendingWork()}.
      *
      * @return If the computer threads are busy.
      */
-    @GuardedBy( "computerLock" )
     private boolean isBusy()
     {
-        return computerQueue.size() > idleWorkers.get();
+        return queueSize.get() > idleWorkers.get();
     }
 
     private void workerFinished( Worker worker )
@@ -486,12 +597,13 @@ private void workerFinished( Worker worker )
             else if( state.get() == RUNNING || (state.get() == STOPPING && hasPendingWork()) )
             {
                 addWorker( worker.index );
-                workerCount++;
             }
             else
             {
                 workers[worker.index] = null;
             }
+
+            if( workerCount == 0 ) shutdown.signalAll();
         }
         finally
         {
@@ -525,23 +637,15 @@ private void runImpl()
         {
             while( state.get() < CLOSED )
             {
-                computerLock.lock();
-                try
-                {
-                    // If we've got more work than we have capacity for it, then we'll need to pause a task soon, so
-                    // sleep for a single pause duration. Otherwise we only need to wake up to set the soft/hard abort
-                    // flags, which are far less granular.
-                    monitorWakeup.awaitNanos( isBusy() ? scaledPeriod() : MONITOR_WAKEUP );
-                }
-                catch( InterruptedException e )
+                // If we've got more work than we have capacity for it, then we'll need to pause a task soon, so
+                // sleep for a single pause duration. Otherwise we only need to wake up to set the soft/hard abort
+                // flags, which are far less granular.
+                LockSupport.parkNanos( this, isBusy() ? scaledPeriod() : MONITOR_WAKEUP );
+                if( Thread.interrupted() )
                 {
-                    ComputerCraft.log.error( "Monitor thread interrupted. Computers may behave very badly!", e );
+                    ComputerCraft.log.error( "Monitor thread interrupted. Computers may behave very badly!" );
                     break;
                 }
-                finally
-                {
-                    computerLock.unlock();
-                }
 
                 checkRunners();
             }
@@ -651,25 +755,45 @@ private void runImpl()
             tasks:
             while( running.get() )
             {
-                // Wait for an active queue to execute
-                ComputerExecutor executor;
-                computerLock.lock();
-                try
+                // Wait for an active queue to execute. We first try to take one without locking, and only fall back to
+                // waiting if the queue is empty.
+                ComputerExecutor executor = computerQueue.pollFirst();
+                if( executor == null )
                 {
                     idleWorkers.getAndIncrement();
-                    while( (executor = computerQueue.pollFirst()) == null )
+                    workerLock.lock();
+                    try
                     {
-                        if( state.get() >= STOPPING ) return;
-
-                        // We should never interrupt() the worker, so this should be fine.
-                        workerWakeup.awaitUninterruptibly();
+                        long idleTime = keepAlive;
+                        while( (executor = computerQueue.pollFirst()) == null )
+                        {
+                            if( state.get() >= STOPPING ) return;
+
+                            if( idleTime <= 0 )
+                            {
+                                // We've been idle for a while, so stop if there's enough other workers.
+                                if( tryRetire( this ) ) return;
+                                idleTime = keepAlive;
+                            }
+
+                            try
+                            {
+                                idleTime = workerWakeup.awaitNanos( idleTime );
+                            }
+                            catch( InterruptedException ignored )
+                            {
+                                // We should never interrupt() an idle worker, but a stale interrupt from an aborted
+                                // task may still be pending. Just wait again.
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        idleWorkers.getAndDecrement();
+                        workerLock.unlock();
                     }
                 }
-                finally
-                {
-                    idleWorkers.getAndDecrement();
-                    computerLock.unlock();
-                }
+                queueSize.getAndDecrement();
 
                 // If we're trying to executing some task on this computer while someone else is doing work, something
                 // is seriously wrong.
@@ -0,0 +1,208 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timing wheel, used to store a computer's timers.
+ * <p>
+ * Timers are stored in one of several "wheels", each made up of {@link #SLOTS} slots. Timers which are due soon are
+ * stored on the lowest wheel, in the slot for the tick they should fire on. Timers further in the future are stored on
+ * higher wheels, where each slot covers a range of ticks. When the lower wheel wraps around, we move timers from the
+ * next slot of the wheel above down to the lower one.
+ * <p>
+ * This means starting, cancelling and firing a timer are all (amortised) constant time, and timers which are not due
+ * to fire cost nothing on each tick.
+ * <p>
+ * This class is not thread safe, and should be externally synchronised.
+ *
+ * @see Environment#startTimer(long)
+ */
+final class TimerWheel
+{
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * The number of ticks covered by all our wheels. Timers further in the future than this are stored in
+     * {@link #overflow}.
+     */
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    private final Timer[][] wheels = new Timer[LEVELS][SLOTS];
+    private @Nullable Timer overflow;
+
+    private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+    private long now;
+
+    /**
+     * Schedule a timer, replacing any existing timer with the same id.
+     *
+     * @param id    The id of this timer.
+     * @param ticks The number of ticks until this timer should fire. Timers with a delay of 0 or less will fire on the
+     *              next tick.
+     */
+    void schedule( int id, long ticks )
+    {
+        cancel( id );
+
+        // Clamp the deadline, so extremely long timers don't overflow.
+        long delay = Math.max( ticks, 1 );
+        Timer timer = new Timer( id, delay > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + delay );
+        timers.put( id, timer );
+        insert( timer );
+    }
+
+    /**
+     * Cancel a timer.
+     *
+     * @param id The id of the timer to cancel.
+     */
+    void cancel( int id )
+    {
+        Timer timer = timers.remove( id );
+        if( timer != null ) unlink( timer );
+    }
+
+    /**
+     * Remove all timers.
+     */
+    void clear()
+    {
+        timers.clear();
+        for( Timer[] wheel : wheels ) Arrays.fill( wheel, null );
+        overflow = null;
+    }
+
+    int size()
+    {
+        return timers.size();
+    }
+
+    /**
+     * Advance the wheel by a single tick, firing any timers which are now due.
+     *
+     * @param fire The function to call with the id of every timer which fires.
+     */
+    void tick( IntConsumer fire )
+    {
+        long now = ++this.now;
+
+        // If lower wheels have wrapped around, move timers from higher wheels down.
+        for( int level = 1; level < LEVELS; level++ )
+        {
+            if( (now & ((1L << (BITS * level)) - 1)) != 0 ) break;
+            cascade( level, (int) ((now >>> (BITS * level)) & MASK) );
+        }
+
+        if( (now & (RANGE - 1)) == 0 && overflow != null )
+        {
+            Timer timer = overflow;
+            overflow = null;
+            reinsert( timer );
+        }
+
+        Timer[] wheel = wheels[0];
+        int slot = (int) (now & MASK);
+        Timer timer = wheel[slot];
+        wheel[slot] = null;
+        while( timer != null )
+        {
+            Timer next = timer.next;
+            timer.next = timer.previous = null;
+            timers.remove( timer.id );
+            fire.accept( timer.id );
+            timer = next;
+        }
+    }
+
+    private void cascade( int level, int slot )
+    {
+        Timer timer = wheels[level][slot];
+        wheels[level][slot] = null;
+        reinsert( timer );
+    }
+
+    private void reinsert( @Nullable Timer timer )
+    {
+        while( timer != null )
+        {
+            Timer next = timer.next;
+            timer.next = timer.previous = null;
+            insert( timer );
+            timer = next;
+        }
+    }
+
+    private void insert( Timer timer )
+    {
+        long delta = timer.deadline - now;
+        for( int level = 0; level < LEVELS; level++ )
+        {
+            if( delta < 1L << (BITS * (level + 1)) )
+            {
+                timer.level = level;
+                timer.slot = (int) ((timer.deadline >>> (BITS * level)) & MASK);
+                Timer[] wheel = wheels[level];
+                wheel[timer.slot] = push( wheel[timer.slot], timer );
+                return;
+            }
+        }
+
+        timer.level = -1;
+        overflow = push( overflow, timer );
+    }
+
+    private void unlink( Timer timer )
+    {
+        if( timer.previous != null )
+        {
+            timer.previous.next = timer.next;
+        }
+        else if( timer.level < 0 )
+        {
+            overflow = timer.next;
+        }
+        else
+        {
+            wheels[timer.level][timer.slot] = timer.next;
+        }
+
+        if( timer.next != null ) timer.next.previous = timer.previous;
+        timer.next = timer.previous = null;
+    }
+
+    private static Timer push( @Nullable Timer head, Timer timer )
+    {
+        timer.next = head;
+        if( head != null ) head.previous = timer;
+        return timer;
+    }
+
+    private static final class Timer
+    {
+        final int id;
+        final long deadline;
+        int level;
+        int slot;
+        @Nullable Timer previous;
+        @Nullable Timer next;
+
+        Timer( int id, long deadline )
+        {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
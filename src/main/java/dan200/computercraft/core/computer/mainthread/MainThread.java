@@ -141,7 +141,7 @@ public void tick()
             if( executor == null ) break;
 
             long taskStart = System.nanoTime();
-            executor.execute();
+            executor.execute( deadline );
 
             long taskStop = System.nanoTime();
             synchronized( executors )
@@ -55,6 +55,17 @@ final class MainThreadExecutor implements MainThreadScheduler.Executor
      */
     private static final int MAX_TASKS = 5000;
 
+    /**
+     * The maximum number of tasks to run each time this executor is taken off the {@link MainThread} queue.
+     * <p>
+     * Running several tasks in a batch avoids re-sorting the main thread's queue after every task, which dominates the
+     * cost of very small tasks (such as fetching an item's details). Batches are still limited by the computer's time
+     * budget and the main thread's deadline, so this does not allow a computer to use more time.
+     *
+     * @see #execute(long)
+     */
+    private static final int MAX_BATCH_SIZE = 64;
+
     private final MetricsObserver metrics;
 
     /**
@@ -133,28 +144,61 @@ public boolean enqueue( Runnable runnable )
         }
     }
 
-    void execute()
+    /**
+     * Run a batch of tasks from this executor's queue.
+     * <p>
+     * This continues running tasks until the queue is empty, {@link #MAX_BATCH_SIZE} tasks have been run, or we have
+     * exhausted either this computer's budget or the main thread's deadline. As well as observing each task, we record
+     * the duration and size of each batch, so the effect of batching can be measured.
+     *
+     * @param deadline The {@link System#nanoTime()} by which the main thread should stop executing tasks.
+     */
+    void execute( long deadline )
     {
         if( state != State.COOL ) return;
 
-        Runnable task;
-        synchronized( queueLock )
+        // The budget is reset at the start of each tick, but only updated in consumeTime, so compute it here too.
+        long remaining = currentTick == scheduler.currentTick() ? budget : ComputerCraft.maxMainComputerTime;
+
+        long start = System.nanoTime();
+        long taskStart = start;
+        int count = 0;
+        while( count < MAX_BATCH_SIZE )
         {
-            task = tasks.poll();
+            Runnable task;
+            synchronized( queueLock )
+            {
+                task = tasks.poll();
+            }
+            if( task == null ) break;
+
+            task.run();
+            count++;
+
+            long taskEnd = System.nanoTime();
+            metrics.observe( Metrics.SERVER_TASKS, taskEnd - taskStart );
+            taskStart = taskEnd;
+
+            if( taskEnd - start >= remaining || taskEnd >= deadline ) break;
         }
 
-        if( task != null ) task.run();
+        if( count > 0 )
+        {
+            metrics.observe( Metrics.SERVER_TASK_BATCHES, taskStart - start );
+            metrics.observe( Metrics.SERVER_TASK_BATCH_SIZE, count );
+        }
     }
 
     /**
-     * Update the time taken to run an {@link #enqueue(Runnable)} task.
+     * Update the time taken to run a batch of {@link #enqueue(Runnable)} tasks.
      *
-     * @param time The time some task took to run.
+     * @param time The time the batch took to run.
      * @return Whether this should be added back to the queue.
      */
     boolean afterExecute( long time )
     {
-        consumeTime( time );
+        // Individual tasks are already observed when they are run, so only update the budget here.
+        consumeBudget( time );
 
         synchronized( queueLock )
         {
@@ -198,7 +242,11 @@ public void trackWork( long time, TimeUnit unit )
     private void consumeTime( long time )
     {
         metrics.observe( Metrics.SERVER_TASKS, time );
+        consumeBudget( time );
+    }
 
+    private void consumeBudget( long time )
+    {
         // Reset the budget if moving onto a new tick. We know this is safe, as this will only have happened if
         // #tickCooling() isn't called, and so we didn't overrun the previous tick.
         if( currentTick != scheduler.currentTick() )
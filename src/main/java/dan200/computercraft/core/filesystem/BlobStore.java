@@ -0,0 +1,369 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares identical files between {@link FileMount}s, so that (for instance) a program copied onto hundreds of computers
+ * is only stored on disk once.
+ * <p>
+ * Once two files with the same contents are found, their contents are stored once in this store, named after the SHA-256
+ * hash of those contents. Files within a mount are then replaced with hard links to this "blob". Files which are not
+ * duplicated are left alone, so they can continue to be modified cheaply. As several files now point to the same data,
+ * they must never be modified in place: {@link FileMount} instead {@linkplain #detach(Path) detaches} a shared file (or deletes it, when
+ * truncating) before it is opened for writing.
+ * <p>
+ * Blobs which are no longer linked to by any mount are removed by {@link #collectGarbage()}, which is run when the
+ * store is created.
+ * <p>
+ * This relies on the file system supporting hard links and reporting the number of links to a file, and so is only
+ * available on POSIX systems.
+ */
+public final class BlobStore
+{
+    /**
+     * Files smaller than this are not deduplicated. They take up at most a couple of blocks on disk, so sharing them
+     * is not worth the cost of hashing.
+     */
+    static final long MINIMUM_SIZE = 4096;
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base16().lowerCase();
+
+    /**
+     * The maximum number of {@linkplain #candidates unshared files} to remember. If this is exceeded, some duplicates
+     * will not be found until their mount is next loaded.
+     */
+    private static final int MAX_CANDIDATES = 4096;
+
+    private final Path root;
+    private final Path temp;
+
+    /**
+     * Files which have been hashed, but have no blob, as no other file with the same contents has been found yet. These
+     * are only accessed from the store's background thread.
+     */
+    private final Cache<String, Candidate> candidates = CacheBuilder.newBuilder()
+        .maximumSize( MAX_CANDIDATES )
+        .build();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        ThreadUtils.builder( "FileDedup" ).setPriority( Thread.MIN_PRIORITY ).build()
+    );
+
+    private BlobStore( Path root )
+    {
+        this.root = root;
+        temp = root.resolve( "tmp" );
+        executor.allowCoreThreadTimeOut( true );
+        submit( this::collectGarbage );
+    }
+
+    /**
+     * Create a new blob store.
+     *
+     * @param root The directory to store blobs in. This should be on the same file system as any mounts using this
+     *             store.
+     * @return The new blob store, or {@code null} if the file system does not support deduplication.
+     */
+    @Nullable
+    public static BlobStore create( Path root )
+    {
+        try
+        {
+            Files.createDirectories( root );
+            if( !Files.getFileStore( root ).supportsFileAttributeView( "unix" ) )
+            {
+                ComputerCraft.log.warn( "File system for {} does not support hard links. File deduplication will be disabled.", root );
+                return null;
+            }
+
+            return new BlobStore( root );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Cannot create blob store '{}'. File deduplication will be disabled.", root, e );
+            return null;
+        }
+    }
+
+    /**
+     * Run a task on this store's background thread.
+     *
+     * @param task The task to run.
+     */
+    void submit( Runnable task )
+    {
+        try
+        {
+            executor.execute( task );
+        }
+        catch( RejectedExecutionException ignored )
+        {
+            // The store has been closed, just skip this task.
+        }
+    }
+
+    /**
+     * Compute the hash of a file's contents.
+     *
+     * @param file The file to hash.
+     * @return The file's hash, as a hex string.
+     * @throws IOException If the file could not be read.
+     */
+    String hash( Path file ) throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-256" );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            throw new IOException( "Cannot hash file", e );
+        }
+
+        try( InputStream stream = new DigestInputStream( Files.newInputStream( file ), digest ) )
+        {
+            byte[] buffer = new byte[8192];
+            while( stream.read( buffer ) >= 0 )
+            {
+                // Just consume the input, the digest is updated as we read.
+            }
+        }
+
+        return ENCODING.encode( digest.digest() );
+    }
+
+    /**
+     * Share a file with any other files with the same contents. If a blob with these contents exists, the file is
+     * linked to it. Otherwise, if we have previously seen another file with the same contents, a new blob is created
+     * from that file, and both are linked to it.
+     * <p>
+     * Files with unique contents are not linked to a blob, as they would then appear to be shared and have to be
+     * copied whenever they are modified.
+     *
+     * @param mount The mount this file belongs to.
+     * @param file  The file to share.
+     * @param attrs The file's attributes when it was hashed.
+     * @param hash  The hash of this file, as returned by {@link #hash(Path)}.
+     * @throws IOException If the file could not be linked.
+     */
+    synchronized void share( FileMount mount, Path file, BasicFileAttributes attrs, String hash ) throws IOException
+    {
+        if( Files.exists( getBlob( hash ) ) )
+        {
+            mount.link( file, attrs, hash, false );
+            return;
+        }
+
+        Candidate first = candidates.getIfPresent( hash );
+        if( first == null || first.file().equals( file ) || !createBlobFrom( first, hash ) )
+        {
+            candidates.put( hash, new Candidate( mount, file, attrs ) );
+            return;
+        }
+
+        candidates.invalidate( hash );
+        if( !mount.link( file, attrs, hash, false ) )
+        {
+            // This file has changed since it was hashed, so the blob would only be used by the first file.
+            Files.deleteIfExists( getBlob( hash ) );
+            candidates.put( hash, first );
+        }
+    }
+
+    private boolean createBlobFrom( Candidate candidate, String hash )
+    {
+        try
+        {
+            return candidate.mount().link( candidate.file(), candidate.attributes(), hash, true );
+        }
+        catch( IOException e )
+        {
+            // The file may have been deleted since it was hashed. That's fine, we'll just use the newer file instead.
+            return false;
+        }
+    }
+
+    /**
+     * Create a new blob from a file.
+     * <p>
+     * The caller must ensure that the file is not modified while this is running, and that its contents match the
+     * given hash.
+     *
+     * @param file The file to create the blob from.
+     * @param hash The hash of this file, as returned by {@link #hash(Path)}.
+     * @throws IOException If the blob could not be created.
+     */
+    synchronized void createBlob( Path file, String hash ) throws IOException
+    {
+        Path blob = getBlob( hash );
+        Files.createDirectories( blob.getParent() );
+        Files.createLink( blob, file );
+    }
+
+    /**
+     * Replace a file with a link to the blob with the same contents.
+     * <p>
+     * The caller must ensure that the file is not modified while this is running, and that its contents match the
+     * given hash.
+     *
+     * @param file The file to share.
+     * @param hash The hash of this file, as returned by {@link #hash(Path)}.
+     * @throws IOException If the file could not be linked.
+     */
+    synchronized void link( Path file, String hash ) throws IOException
+    {
+        Path blob = getBlob( hash );
+        if( Files.isSameFile( blob, file ) ) return;
+
+        // Sanity check the blob before we replace anything. Blobs should never change, but this is cheap and guards
+        // against the world being edited by hand.
+        if( Files.size( blob ) != Files.size( file ) )
+        {
+            ComputerCraft.log.warn( "Blob {} does not match {}, skipping.", blob, file );
+            return;
+        }
+
+        // Create the new link outside the mount, and then move it over the original file. This means computers never
+        // see a missing or partially linked file.
+        Path link = createTempPath();
+        Files.createLink( link, blob );
+        try
+        {
+            Files.move( link, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        finally
+        {
+            Files.deleteIfExists( link );
+        }
+    }
+
+    /**
+     * Determine if a file is shared with another file, and so must be {@linkplain #detach(Path) detached} before
+     * being modified.
+     *
+     * @param file The file to check.
+     * @return Whether this file is shared.
+     */
+    boolean isShared( Path file )
+    {
+        try
+        {
+            return linkCount( file ) > 1;
+        }
+        catch( IOException | UnsupportedOperationException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Replace a shared file with a private copy of its contents.
+     *
+     * @param file The file to detach.
+     * @throws IOException If the file could not be copied.
+     */
+    void detach( Path file ) throws IOException
+    {
+        Path copy = createTempPath();
+        try
+        {
+            Files.copy( file, copy );
+            Files.move( copy, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        finally
+        {
+            Files.deleteIfExists( copy );
+        }
+    }
+
+    /**
+     * Delete any blobs which are no longer used by a mount, as well as any temporary files left over from a previous
+     * run.
+     */
+    synchronized void collectGarbage()
+    {
+        try
+        {
+            Files.walkFileTree( root, new SimpleFileVisitor<>()
+            {
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attrs ) throws IOException
+                {
+                    if( file.startsWith( temp ) || linkCount( file ) <= 1 ) Files.delete( file );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed( Path file, IOException exc )
+                {
+                    ComputerCraft.log.error( "Error checking blob {}", file, exc );
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Error collecting unused blobs in {}", root, e );
+        }
+    }
+
+    /**
+     * Stop any pending deduplication.
+     */
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    private Path getBlob( String hash )
+    {
+        return root.resolve( hash.substring( 0, 2 ) ).resolve( hash );
+    }
+
+    private Path createTempPath() throws IOException
+    {
+        Files.createDirectories( temp );
+        return temp.resolve( UUID.randomUUID().toString() );
+    }
+
+    private static int linkCount( Path file ) throws IOException
+    {
+        return (Integer) Files.getAttribute( file, "unix:nlink", LinkOption.NOFOLLOW_LINKS );
+    }
+
+    /**
+     * A file which may be shared once another file with the same contents is found.
+     *
+     * @param mount      The mount this file belongs to.
+     * @param file       The file.
+     * @param attributes The file's attributes when it was hashed.
+     */
+    private record Candidate(FileMount mount, Path file, BasicFileAttributes attributes)
+    {
+    }
+}
@@ -9,8 +9,12 @@
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.FileOperationException;
 import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.core.apis.handles.ByteBufferChannel;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -29,15 +33,28 @@ public class FileMount implements IWritableMount
     private static final Set<OpenOption> WRITE_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING );
     private static final Set<OpenOption> APPEND_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND );
 
+    /**
+     * Files larger than this are memory-mapped when opened for reading, rather than read through a {@link FileChannel}.
+     * This saves copying the file through an intermediate buffer, which adds up when reading large files.
+     * <p>
+     * This is disabled on Windows, where a mapped file cannot be deleted or overwritten until the mapping is garbage
+     * collected.
+     */
+    private static final long MAPPED_READ_THRESHOLD = System.getProperty( "os.name", "" ).startsWith( "Windows" )
+        ? Long.MAX_VALUE : 256 * 1024;
+
     private class WritableCountingChannel implements WritableByteChannel
     {
 
         private final WritableByteChannel inner;
+        private final Path path;
+        private boolean closed;
         long ignoredBytesLeft;
 
-        WritableCountingChannel( WritableByteChannel inner, long bytesToIgnore )
+        WritableCountingChannel( WritableByteChannel inner, Path path, long bytesToIgnore )
         {
             this.inner = inner;
+            this.path = path;
             ignoredBytesLeft = bytesToIgnore;
         }
 
@@ -45,7 +62,9 @@ private class WritableCountingChannel implements WritableByteChannel
         public int write( @Nonnull ByteBuffer b ) throws IOException
         {
             count( b.remaining() );
-            return inner.write( b );
+            int written = inner.write( b );
+            modifications++;
+            return written;
         }
 
         void count( long n ) throws IOException
@@ -58,7 +77,7 @@ void count( long n ) throws IOException
 
                 long bytesLeft = capacity - usedSpace;
                 if( newBytes > bytesLeft ) throw new IOException( "Out of space" );
-                usedSpace += newBytes;
+                addUsedSpace( newBytes );
             }
         }
 
@@ -71,7 +90,18 @@ public boolean isOpen()
         @Override
         public void close() throws IOException
         {
-            inner.close();
+            try
+            {
+                inner.close();
+            }
+            finally
+            {
+                if( !closed )
+                {
+                    closed = true;
+                    closeWriter( path );
+                }
+            }
         }
     }
 
@@ -79,9 +109,9 @@ private class SeekableCountingChannel extends WritableCountingChannel implements
     {
         private final SeekableByteChannel inner;
 
-        SeekableCountingChannel( SeekableByteChannel inner, long bytesToIgnore )
+        SeekableCountingChannel( SeekableByteChannel inner, Path path, long bytesToIgnore )
         {
-            super( inner, bytesToIgnore );
+            super( inner, path, bytesToIgnore );
             this.inner = inner;
         }
 
@@ -137,11 +167,60 @@ public long size() throws IOException
     private final long capacity;
     private long usedSpace;
 
+    private final @Nullable FileUsageCache cache;
+    private final @Nullable String cacheKey;
+
+    /**
+     * A counter which is incremented every time this mount is modified. This is used to determine whether a
+     * {@linkplain #verifyUsedSpace() background measurement} is still accurate.
+     */
+    private volatile long modifications;
+    private volatile @Nullable Measurement measurement;
+
+    private final @Nullable BlobStore blobs;
+
+    /**
+     * The number of channels open for writing each file. This is only tracked when {@link #blobs} is present, and is
+     * used to ensure we never deduplicate a file which is being written to.
+     */
+    private final Object2IntMap<Path> writers = new Object2IntOpenHashMap<>();
+
     public FileMount( File rootPath, long capacity )
+    {
+        this( rootPath, capacity, null, null );
+    }
+
+    public FileMount( File rootPath, long capacity, @Nullable FileUsageCache cache )
+    {
+        this( rootPath, capacity, cache, null );
+    }
+
+    public FileMount( File rootPath, long capacity, @Nullable FileUsageCache cache, @Nullable BlobStore blobs )
     {
         this.rootPath = rootPath;
         this.capacity = capacity + MINIMUM_FILE_SIZE;
-        usedSpace = created() ? measureUsedSpace( this.rootPath ) : MINIMUM_FILE_SIZE;
+        this.cache = cache;
+        this.blobs = blobs;
+        cacheKey = cache == null ? null : cache.getKey( rootPath.toPath() );
+
+        long cachedSpace = cache == null || cacheKey == null ? -1 : cache.get( cacheKey );
+        if( !created() )
+        {
+            usedSpace = MINIMUM_FILE_SIZE;
+        }
+        else if( cachedSpace >= 0 )
+        {
+            // Trust the cached value for now, but check it in the background in case it was not saved.
+            usedSpace = cachedSpace;
+            cache.verify( this::verifyUsedSpace );
+        }
+        else
+        {
+            usedSpace = measureUsedSpace( rootPath );
+            if( cache != null && cacheKey != null ) cache.set( cacheKey, usedSpace );
+        }
+
+        if( blobs != null && created() ) blobs.submit( this::deduplicate );
     }
 
     // IMount implementation
@@ -206,7 +285,18 @@ public ReadableByteChannel openForRead( @Nonnull String path ) throws IOExceptio
         if( created() )
         {
             File file = getRealPath( path );
-            if( file.exists() && !file.isDirectory() ) return FileChannel.open( file.toPath(), READ_OPTIONS );
+            if( file.exists() && !file.isDirectory() )
+            {
+                FileChannel channel = FileChannel.open( file.toPath(), READ_OPTIONS );
+                long size = channel.size();
+                if( size < MAPPED_READ_THRESHOLD || size > Integer.MAX_VALUE ) return channel;
+
+                // The mapping remains valid after the channel is closed.
+                try( channel )
+                {
+                    return new ByteBufferChannel( channel.map( FileChannel.MapMode.READ_ONLY, 0, size ) );
+                }
+            }
         }
 
         throw new FileOperationException( path, "No such file" );
@@ -231,6 +321,7 @@ public BasicFileAttributes getAttributes( @Nonnull String path ) throws IOExcept
     public void makeDirectory( @Nonnull String path ) throws IOException
     {
         create();
+        applyMeasurement();
         File file = getRealPath( path );
         if( file.exists() )
         {
@@ -253,7 +344,7 @@ public void makeDirectory( @Nonnull String path ) throws IOException
 
         if( file.mkdirs() )
         {
-            usedSpace += dirsToCreate * MINIMUM_FILE_SIZE;
+            addUsedSpace( dirsToCreate * MINIMUM_FILE_SIZE );
         }
         else
         {
@@ -268,6 +359,7 @@ public void delete( @Nonnull String path ) throws IOException
 
         if( created() )
         {
+            applyMeasurement();
             File file = getRealPath( path );
             if( file.exists() ) deleteRecursively( file );
         }
@@ -290,7 +382,7 @@ private void deleteRecursively( File file ) throws IOException
         boolean success = file.delete();
         if( success )
         {
-            usedSpace -= Math.max( MINIMUM_FILE_SIZE, fileSize );
+            addUsedSpace( -Math.max( MINIMUM_FILE_SIZE, fileSize ) );
         }
         else
         {
@@ -303,20 +395,26 @@ private void deleteRecursively( File file ) throws IOException
     public WritableByteChannel openForWrite( @Nonnull String path ) throws IOException
     {
         create();
+        applyMeasurement();
         File file = getRealPath( path );
         if( file.exists() && file.isDirectory() ) throw new FileOperationException( path, "Cannot write to directory" );
 
         if( file.exists() )
         {
-            usedSpace -= Math.max( file.length(), MINIMUM_FILE_SIZE );
+            addUsedSpace( MINIMUM_FILE_SIZE - Math.max( file.length(), MINIMUM_FILE_SIZE ) );
         }
         else if( getRemainingSpace() < MINIMUM_FILE_SIZE )
         {
             throw new FileOperationException( path, "Out of space" );
         }
-        usedSpace += MINIMUM_FILE_SIZE;
+        else
+        {
+            addUsedSpace( MINIMUM_FILE_SIZE );
+        }
 
-        return new SeekableCountingChannel( Files.newByteChannel( file.toPath(), WRITE_OPTIONS ), MINIMUM_FILE_SIZE );
+        SeekableByteChannel channel = openWriter( file.toPath(), WRITE_OPTIONS );
+        modifications++;
+        return new SeekableCountingChannel( channel, file.toPath(), MINIMUM_FILE_SIZE );
     }
 
     @Nonnull
@@ -328,13 +426,14 @@ public WritableByteChannel openForAppend( @Nonnull String path ) throws IOExcept
             throw new FileOperationException( path, "No such file" );
         }
 
+        applyMeasurement();
         File file = getRealPath( path );
         if( !file.exists() ) throw new FileOperationException( path, "No such file" );
         if( file.isDirectory() ) throw new FileOperationException( path, "Cannot write to directory" );
 
         // Allowing seeking when appending is not recommended, so we use a separate channel.
         return new WritableCountingChannel(
-            Files.newByteChannel( file.toPath(), APPEND_OPTIONS ),
+            openWriter( file.toPath(), APPEND_OPTIONS ), file.toPath(),
             Math.max( MINIMUM_FILE_SIZE - file.length(), 0 )
         );
     }
@@ -342,6 +441,7 @@ public WritableByteChannel openForAppend( @Nonnull String path ) throws IOExcept
     @Override
     public long getRemainingSpace()
     {
+        applyMeasurement();
         return Math.max( capacity - usedSpace, 0 );
     }
 
@@ -374,6 +474,178 @@ private void create() throws IOException
         }
     }
 
+    /**
+     * Open a file for writing. If this file is shared with other mounts by the {@link BlobStore}, we first give this
+     * mount its own copy, so that writes are not visible elsewhere.
+     *
+     * @param path    The file to open.
+     * @param options The options to open the file with.
+     * @return The opened channel. {@link #closeWriter(Path)} must be called once this is closed.
+     * @throws IOException If the file could not be opened.
+     */
+    private SeekableByteChannel openWriter( Path path, Set<OpenOption> options ) throws IOException
+    {
+        if( blobs == null ) return Files.newByteChannel( path, options );
+
+        synchronized( writers )
+        {
+            if( blobs.isShared( path ) )
+            {
+                // If we're truncating the file there's no need to copy it, we can just start afresh.
+                if( options.contains( StandardOpenOption.TRUNCATE_EXISTING ) )
+                {
+                    Files.delete( path );
+                }
+                else
+                {
+                    blobs.detach( path );
+                }
+            }
+
+            SeekableByteChannel channel = Files.newByteChannel( path, options );
+            writers.mergeInt( path, 1, Integer::sum );
+            return channel;
+        }
+    }
+
+    private void closeWriter( Path path )
+    {
+        if( blobs == null ) return;
+
+        synchronized( writers )
+        {
+            if( writers.mergeInt( path, -1, Integer::sum ) <= 0 ) writers.removeInt( path );
+        }
+    }
+
+    /**
+     * Share any files in this mount with other mounts, using the {@link BlobStore}. This runs on the store's background
+     * thread.
+     * <p>
+     * Hashing is done without holding any locks. We then check the file is not open for writing and has not changed
+     * since it was hashed before linking it (see {@link #link(Path, BasicFileAttributes, String, boolean)}).
+     */
+    private void deduplicate()
+    {
+        BlobStore blobs = this.blobs;
+        if( blobs == null ) return;
+
+        try
+        {
+            Files.walkFileTree( rootPath.toPath(), new SimpleFileVisitor<>()
+            {
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                {
+                    if( Thread.currentThread().isInterrupted() ) return FileVisitResult.TERMINATE;
+                    if( !attrs.isRegularFile() || attrs.size() < BlobStore.MINIMUM_SIZE || blobs.isShared( file ) )
+                    {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    try
+                    {
+                        blobs.share( FileMount.this, file, attrs, blobs.hash( file ) );
+                    }
+                    catch( IOException e )
+                    {
+                        ComputerCraft.log.warn( "Cannot deduplicate {}", file, e );
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed( Path file, IOException exc )
+                {
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Error deduplicating files in {}", rootPath, e );
+        }
+    }
+
+    /**
+     * Link a file to a blob, as long as it is not open for writing and has not changed since it was hashed. This is
+     * called by {@link BlobStore#share(FileMount, Path, BasicFileAttributes, String)}.
+     *
+     * @param file   The file to link.
+     * @param attrs  The file's attributes when it was hashed.
+     * @param hash   The file's hash.
+     * @param create Whether to create a new blob from this file, rather than linking it to an existing one.
+     * @return Whether the file was linked.
+     * @throws IOException If the file could not be linked.
+     */
+    boolean link( Path file, BasicFileAttributes attrs, String hash, boolean create ) throws IOException
+    {
+        BlobStore blobs = this.blobs;
+        if( blobs == null ) return false;
+
+        synchronized( writers )
+        {
+            if( writers.containsKey( file ) ) return false;
+
+            BasicFileAttributes current = Files.readAttributes( file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS );
+            if( current.size() != attrs.size() || !current.lastModifiedTime().equals( attrs.lastModifiedTime() ) )
+            {
+                return false;
+            }
+
+            if( create )
+            {
+                blobs.createBlob( file, hash );
+            }
+            else
+            {
+                blobs.link( file, hash );
+            }
+            return true;
+        }
+    }
+
+    private void addUsedSpace( long delta )
+    {
+        modifications++;
+        usedSpace += delta;
+        if( cache != null && cacheKey != null ) cache.set( cacheKey, usedSpace );
+    }
+
+    /**
+     * Measure the space used by this mount. This is run on a background thread when the mount's usage was loaded from
+     * the {@link FileUsageCache}, and the result applied by {@link #applyMeasurement()}.
+     */
+    private void verifyUsedSpace()
+    {
+        long generation = modifications;
+        long size = measureUsedSpace( rootPath );
+        measurement = new Measurement( generation, size );
+    }
+
+    /**
+     * Apply the result of {@link #verifyUsedSpace()}, if there is one.
+     * <p>
+     * If the mount was modified while we were measuring it, then the measurement may not reflect those changes, and so
+     * is discarded. The mount will be measured again the next time it is loaded.
+     */
+    private void applyMeasurement()
+    {
+        Measurement measurement = this.measurement;
+        if( measurement == null ) return;
+        this.measurement = null;
+
+        if( measurement.generation() != modifications || measurement.size() == usedSpace ) return;
+
+        ComputerCraft.log.warn( "Cached usage for {} was {}, but measured {}. Correcting.", rootPath, usedSpace, measurement.size() );
+        addUsedSpace( measurement.size() - usedSpace );
+    }
+
+    private record Measurement(long generation, long size)
+    {
+    }
+
     private static class Visitor extends SimpleFileVisitor<Path>
     {
         long size;
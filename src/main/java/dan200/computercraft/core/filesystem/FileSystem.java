@@ -39,6 +39,7 @@
 
     private final FileSystemWrapperMount wrapper = new FileSystemWrapperMount( this );
     private final Map<String, MountWrapper> mounts = new HashMap<>();
+    private final MountTrie mountTrie = new MountTrie();
 
     private final HashMap<WeakReference<FileSystemWrapper<?>>, ChannelWrapper<?>> openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> openFileQueue = new ReferenceQueue<>();
@@ -89,14 +90,16 @@ public synchronized void mountWritable( String label, String location, IWritable
     private synchronized void mount( MountWrapper wrapper )
     {
         String location = wrapper.getLocation();
-        mounts.remove( location );
-        mounts.put( location, wrapper );
+        MountWrapper existing = mounts.put( location, wrapper );
+        if( existing != null ) mountTrie.remove( existing );
+        mountTrie.add( wrapper );
     }
 
     public synchronized void unmount( String path )
     {
         MountWrapper mount = mounts.remove( sanitizePath( path ) );
         if( mount == null ) return;
+        mountTrie.remove( mount );
 
         cleanup();
 
@@ -187,7 +190,9 @@ public synchronized String[] list( String path ) throws FileSystemException
         mount.list( path, list );
 
         // Add any mounts that are mounted at this location
-        for( MountWrapper otherMount : mounts.values() )
+        List<MountWrapper> children = new ArrayList<>( 0 );
+        mountTrie.children( path, children );
+        for( MountWrapper otherMount : children )
         {
             if( getDirectory( otherMount.getLocation() ).equals( path ) )
             {
@@ -458,22 +463,7 @@ public synchronized OptionalLong getCapacity( String path ) throws FileSystemExc
     private synchronized MountWrapper getMount( String path ) throws FileSystemException
     {
         // Return the deepest mount that contains a given path
-        Iterator<MountWrapper> it = mounts.values().iterator();
-        MountWrapper match = null;
-        int matchLength = 999;
-        while( it.hasNext() )
-        {
-            MountWrapper mount = it.next();
-            if( contains( mount.getLocation(), path ) )
-            {
-                int len = toLocal( path, mount.getLocation() ).length();
-                if( match == null || len < matchLength )
-                {
-                    match = mount;
-                    matchLength = len;
-                }
-            }
-        }
+        MountWrapper match = mountTrie.find( path );
         if( match == null )
         {
             throw new FileSystemException( "/" + path + ": Invalid Path" );
@@ -0,0 +1,170 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * A persistent cache of how much space each {@link FileMount} under a directory uses.
+ * <p>
+ * Measuring a mount's usage requires walking its entire directory tree, which gets expensive when loading lots of
+ * computers with large disks. Instead, mounts record their usage in this cache as it changes, and load it from here
+ * when created. As the cache may be out of date (for instance, if the server crashed before it was saved), mounts
+ * still measure their real usage, but do so on a background thread.
+ * <p>
+ * The cache is stored as a JSON file mapping each mount's path (relative to the cache's root) to its usage.
+ */
+public final class FileUsageCache
+{
+    private static final Gson GSON = new Gson();
+    private static final Type TOKEN = new TypeToken<Map<String, Long>>()
+    {
+    }.getType();
+
+    private final Path root;
+    private final Path file;
+    private final Map<String, Long> usage = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        ThreadUtils.builder( "FileUsage" ).setPriority( Thread.MIN_PRIORITY ).build()
+    );
+
+    /**
+     * Create a new usage cache.
+     *
+     * @param root The directory mounts are stored under.
+     * @param file The file to store the cache in.
+     */
+    public FileUsageCache( Path root, Path file )
+    {
+        this.root = root;
+        this.file = file;
+        executor.allowCoreThreadTimeOut( true );
+        load();
+    }
+
+    /**
+     * Get the key a mount is stored under.
+     *
+     * @param path The root path of this mount.
+     * @return The key for this mount, or {@code null} if it is not within this cache's root.
+     */
+    @Nullable
+    String getKey( Path path )
+    {
+        Path absRoot = root.toAbsolutePath().normalize(), absPath = path.toAbsolutePath().normalize();
+        if( !absPath.startsWith( absRoot ) || absPath.equals( absRoot ) ) return null;
+        return absRoot.relativize( absPath ).toString().replace( '\\', '/' );
+    }
+
+    /**
+     * Get the cached usage of a mount.
+     *
+     * @param key The mount's key, as returned by {@link #getKey(Path)}.
+     * @return The cached usage, or {@code -1} if not known.
+     */
+    long get( String key )
+    {
+        Long value = usage.get( key );
+        return value == null ? -1 : value;
+    }
+
+    /**
+     * Update the cached usage of a mount.
+     *
+     * @param key   The mount's key, as returned by {@link #getKey(Path)}.
+     * @param value The mount's new usage.
+     */
+    void set( String key, long value )
+    {
+        Long previous = usage.put( key, value );
+        if( previous == null || previous != value ) dirty = true;
+    }
+
+    /**
+     * Run a task on the background thread used to verify mounts' usage.
+     *
+     * @param task The task to run.
+     */
+    void verify( Runnable task )
+    {
+        try
+        {
+            executor.execute( task );
+        }
+        catch( RejectedExecutionException ignored )
+        {
+            // The cache has been closed, just skip verifying.
+        }
+    }
+
+    /**
+     * Save this cache to disk, if it has changed.
+     */
+    public synchronized void save()
+    {
+        if( !dirty ) return;
+        dirty = false;
+
+        try
+        {
+            Files.createDirectories( file.getParent() );
+            Path temp = file.resolveSibling( file.getFileName() + ".tmp" );
+            try( Writer writer = Files.newBufferedWriter( temp, StandardCharsets.UTF_8 ) )
+            {
+                GSON.toJson( new HashMap<>( usage ), TOKEN, writer );
+            }
+            Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( IOException e )
+        {
+            dirty = true;
+            ComputerCraft.log.error( "Cannot save file usage cache '{}'", file, e );
+        }
+    }
+
+    /**
+     * Stop any pending verification and save this cache to disk.
+     */
+    public void close()
+    {
+        executor.shutdownNow();
+        save();
+    }
+
+    private void load()
+    {
+        if( !Files.isRegularFile( file ) ) return;
+
+        try( Reader reader = Files.newBufferedReader( file, StandardCharsets.UTF_8 ) )
+        {
+            Map<String, Long> values = GSON.fromJson( reader, TOKEN );
+            if( values != null ) usage.putAll( values );
+        }
+        catch( Exception e )
+        {
+            ComputerCraft.log.error( "Cannot load file usage cache '{}'", file, e );
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A trie of the mounts in a {@link FileSystem}, keyed by each segment of their location.
+ * <p>
+ * This allows finding the mount for a path, and the mounts within a directory, by walking down the path one segment
+ * at a time, rather than checking every mount. Like {@link FileSystem#contains(String, String)}, segments are compared
+ * case-insensitively.
+ * <p>
+ * All paths given to this class should already be sanitised.
+ */
+final class MountTrie
+{
+    private final Node root = new Node( "" );
+
+    /**
+     * Add a mount to this trie. Any existing mount at exactly the same location should have been removed first.
+     *
+     * @param mount The mount to add.
+     */
+    void add( MountWrapper mount )
+    {
+        String location = mount.getLocation();
+        Node node = root;
+        int start = 0;
+        while( start < location.length() )
+        {
+            int end = segmentEnd( location, start );
+            Node child = node.child( location, start, end - start );
+            if( child == null )
+            {
+                child = new Node( location.substring( start, end ) );
+                node.children.add( child );
+            }
+
+            node = child;
+            start = end + 1;
+        }
+
+        node.mounts.add( mount );
+    }
+
+    /**
+     * Remove a mount from this trie, pruning any nodes which are no longer needed.
+     *
+     * @param mount The mount to remove.
+     */
+    void remove( MountWrapper mount )
+    {
+        remove( root, mount, mount.getLocation(), 0 );
+    }
+
+    private static void remove( Node node, MountWrapper mount, String location, int start )
+    {
+        if( start >= location.length() )
+        {
+            node.mounts.remove( mount );
+            return;
+        }
+
+        int end = segmentEnd( location, start );
+        Node child = node.child( location, start, end - start );
+        if( child == null ) return;
+
+        remove( child, mount, location, end + 1 );
+        if( child.mounts.isEmpty() && child.children.isEmpty() ) node.children.remove( child );
+    }
+
+    /**
+     * Find the deepest mount which contains a path.
+     *
+     * @param path The path to find.
+     * @return The mount containing this path, or {@code null} if there is none.
+     */
+    @Nullable
+    MountWrapper find( String path )
+    {
+        if( path.equals( ".." ) || path.startsWith( "../" ) ) return null;
+
+        Node node = root;
+        MountWrapper match = node.mount();
+        int start = 0;
+        while( start < path.length() )
+        {
+            int end = segmentEnd( path, start );
+            node = node.child( path, start, end - start );
+            if( node == null ) break;
+
+            MountWrapper mount = node.mount();
+            if( mount != null ) match = mount;
+            start = end + 1;
+        }
+
+        return match;
+    }
+
+    /**
+     * Find all mounts whose location is an immediate child of a directory.
+     *
+     * @param path   The directory to search in.
+     * @param mounts The list to add mounts to.
+     */
+    void children( String path, List<MountWrapper> mounts )
+    {
+        Node node = root;
+        int start = 0;
+        while( start < path.length() )
+        {
+            int end = segmentEnd( path, start );
+            node = node.child( path, start, end - start );
+            if( node == null ) return;
+            start = end + 1;
+        }
+
+        for( Node child : node.children ) mounts.addAll( child.mounts );
+    }
+
+    private static int segmentEnd( String path, int start )
+    {
+        int end = path.indexOf( '/', start );
+        return end < 0 ? path.length() : end;
+    }
+
+    private static final class Node
+    {
+        final String name;
+        final List<Node> children = new ArrayList<>( 0 );
+
+        /**
+         * The mounts at this location. This will almost always have at most one element, though may have more if
+         * several mounts' locations differ only by case.
+         */
+        final List<MountWrapper> mounts = new ArrayList<>( 1 );
+
+        Node( String name )
+        {
+            this.name = name;
+        }
+
+        @Nullable
+        Node child( String path, int start, int length )
+        {
+            for( Node child : children )
+            {
+                if( child.name.length() == length && path.regionMatches( true, start, child.name, 0, length ) )
+                {
+                    return child;
+                }
+            }
+
+            return null;
+        }
+
+        @Nullable
+        MountWrapper mount()
+        {
+            return mounts.isEmpty() ? null : mounts.get( mounts.size() - 1 );
+        }
+    }
+}
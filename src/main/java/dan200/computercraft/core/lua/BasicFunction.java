@@ -41,6 +41,7 @@ class BasicFunction extends VarArgFunction
     public Varargs invoke( LuaState luaState, Varargs args ) throws LuaError
     {
         VarargArguments arguments = VarargArguments.of( args );
+        long start = machine.isProfiling() ? System.nanoTime() : 0;
         MethodResult results;
         try
         {
@@ -61,6 +62,7 @@ public Varargs invoke( LuaState luaState, Varargs args ) throws LuaError
         finally
         {
             arguments.close();
+            if( start != 0 ) machine.recordCall( instance, name, start );
         }
 
         if( results.getCallback() != null )
@@ -15,7 +15,7 @@
 import dan200.computercraft.core.computer.TimeoutState;
 import dan200.computercraft.core.metrics.Metrics;
 import dan200.computercraft.core.metrics.MetricsObserver;
-import dan200.computercraft.shared.util.ThreadUtils;
+import dan200.computercraft.core.metrics.Profiler;
 import org.squiddev.cobalt.*;
 import org.squiddev.cobalt.compiler.CompileException;
 import org.squiddev.cobalt.compiler.LoadState;
@@ -31,9 +31,8 @@
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.squiddev.cobalt.ValueFactory.valueOf;
 import static org.squiddev.cobalt.ValueFactory.varargsOf;
@@ -42,18 +41,17 @@
 
 public class CobaltLuaMachine implements ILuaMachine
 {
-    private static final ThreadPoolExecutor COROUTINES = new ThreadPoolExecutor(
-        0, Integer.MAX_VALUE,
-        5L, TimeUnit.MINUTES,
-        new SynchronousQueue<>(),
-        ThreadUtils.factory( "Coroutine" )
-    );
-
     private static final LuaMethod FUNCTION_METHOD = ( target, context, args ) -> ((ILuaFunction) target).call( args );
 
+    /**
+     * The maximum number of Lua frames to include in a {@linkplain Profiler profiler} sample.
+     */
+    private static final int MAX_PROFILE_DEPTH = 64;
+
     private final TimeoutState timeout;
     private final TimeoutDebugHandler debug;
     private final ILuaContext context;
+    private final Profiler profiler;
 
     private LuaState state;
     private LuaTable globals;
@@ -65,25 +63,37 @@ public CobaltLuaMachine( MachineEnvironment environment )
     {
         timeout = environment.timeout();
         context = environment.context();
+        profiler = environment.profiler();
         debug = new TimeoutDebugHandler();
 
         // Create an environment to run in
         MetricsObserver metrics = environment.metrics();
+        Executor coroutines = ComputerCraft.coroutineExecutor.executor();
         LuaState state = this.state = LuaState.builder()
             .resourceManipulator( new VoidResourceManipulator() )
+            .compiler( PrototypeCache.INSTANCE )
             .debug( debug )
             .coroutineExecutor( command -> {
                 metrics.observe( Metrics.COROUTINES_CREATED );
-                COROUTINES.execute( () -> {
-                    try
-                    {
-                        command.run();
-                    }
-                    finally
-                    {
-                        metrics.observe( Metrics.COROUTINES_DISPOSED );
-                    }
-                } );
+                try
+                {
+                    coroutines.execute( () -> {
+                        try
+                        {
+                            command.run();
+                        }
+                        finally
+                        {
+                            metrics.observe( Metrics.COROUTINES_DISPOSED );
+                        }
+                    } );
+                }
+                catch( RejectedExecutionException e )
+                {
+                    // Keep the created/disposed counts balanced, so they can be used to track live coroutines.
+                    metrics.observe( Metrics.COROUTINES_DISPOSED );
+                    throw e;
+                }
             } )
             .build();
 
@@ -170,6 +180,9 @@ public MachineResult handleEvent( String eventName, Object[] arguments )
         timeout.refresh();
         if( !timeout.isSoftAborted() ) debug.thrownSoftAbort = false;
 
+        // Don't count the time since we last ran towards the first sample.
+        debug.lastSample = System.nanoTime();
+
         try
         {
             Varargs resumeArgs = Constants.NONE;
@@ -238,6 +251,66 @@ public void close()
         globals = null;
     }
 
+    boolean isProfiling()
+    {
+        return profiler.isRunning();
+    }
+
+    /**
+     * Record the time spent in a call to a Java method.
+     *
+     * @param instance The object the method was called on.
+     * @param name     The name of the method.
+     * @param start    The time (from {@link System#nanoTime()}) the call started at.
+     * @see BasicFunction
+     * @see ResultInterpreterFunction
+     */
+    void recordCall( Object instance, String name, long start )
+    {
+        LuaState state = this.state;
+        if( state == null ) return;
+
+        long elapsed = System.nanoTime() - start;
+        StringBuilder stack = getStack( state.getCurrentThread().getDebugState() );
+        if( stack.length() > 0 ) stack.append( ';' );
+        stack.append( instance.getClass().getSimpleName() ).append( '.' ).append( name ).append( " [java]" );
+        profiler.record( stack.toString(), elapsed );
+
+        // Don't count this call towards the next sample of the Lua stack.
+        debug.lastSample += elapsed;
+    }
+
+    /**
+     * Build a collapsed stack of the Lua functions currently executing. Java functions (such as {@code pcall}) are
+     * skipped.
+     *
+     * @param ds The current debug state.
+     * @return The collapsed stack, from the outermost function to the innermost.
+     */
+    private static StringBuilder getStack( DebugState ds )
+    {
+        List<String> frames = new ArrayList<>();
+        for( int level = 0; frames.size() < MAX_PROFILE_DEPTH; level++ )
+        {
+            DebugFrame frame = ds.getFrame( level );
+            if( frame == null ) break;
+            if( frame.closure == null ) continue;
+
+            Prototype prototype = frame.closure.getPrototype();
+            String source = prototype.source.toString();
+            if( source.startsWith( "@" ) || source.startsWith( "=" ) ) source = source.substring( 1 );
+            frames.add( prototype.linedefined == 0 ? source : source + ":" + prototype.linedefined );
+        }
+
+        StringBuilder stack = new StringBuilder();
+        for( int i = frames.size() - 1; i >= 0; i-- )
+        {
+            if( stack.length() > 0 ) stack.append( ';' );
+            stack.append( frames.get( i ) );
+        }
+        return stack;
+    }
+
     @Nullable
     private LuaTable wrapLuaObject( Object object )
     {
@@ -443,6 +516,11 @@ private class TimeoutDebugHandler extends DebugHandler
         private int count = 0;
         boolean thrownSoftAbort;
 
+        /**
+         * The time at which we last sampled the Lua stack for the {@link Profiler}.
+         */
+        long lastSample;
+
         private boolean isPaused;
         private int oldFlags;
         private boolean oldInHook;
@@ -465,6 +543,7 @@ public void onInstruction( DebugState ds, DebugFrame di, int pc ) throws LuaErro
                 if( timeout.isHardAborted() || state == null ) throw HardAbortError.INSTANCE;
                 if( timeout.isPaused() ) handlePause( ds, di );
                 if( timeout.isSoftAborted() ) handleSoftAbort();
+                if( profiler.isRunning() ) sample( ds );
             }
 
             super.onInstruction( ds, di, pc );
@@ -479,6 +558,16 @@ public void poll() throws LuaError
             if( timeout.isSoftAborted() ) handleSoftAbort();
         }
 
+        private void sample( DebugState ds )
+        {
+            long now = System.nanoTime();
+            long elapsed = now - lastSample;
+            if( elapsed < Profiler.SAMPLE_INTERVAL ) return;
+
+            lastSample = now;
+            profiler.record( getStack( ds ).toString(), elapsed );
+        }
+
         private void resetPaused( DebugState ds, DebugFrame di )
         {
             // Restore the previous paused state
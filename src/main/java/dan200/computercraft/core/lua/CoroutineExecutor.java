@@ -0,0 +1,137 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.*;
+
+/**
+ * Strategies for running Lua coroutines.
+ * <p>
+ * Cobalt runs each coroutine on its own Java thread, which is parked whenever the coroutine is suspended. This
+ * controls where those threads come from.
+ *
+ * @see ComputerCraft#coroutineExecutor
+ */
+public enum CoroutineExecutor
+{
+    /**
+     * Run each coroutine on a platform thread from a shared pool, with no limit on the number of threads.
+     */
+    THREAD,
+
+    /**
+     * Run each coroutine on a platform thread from a shared pool, failing to start new coroutines once
+     * {@link ComputerCraft#maxCoroutineThreads} are alive.
+     */
+    BOUNDED,
+
+    /**
+     * Run each coroutine on a virtual thread. These are much cheaper than platform threads, so there is no need to
+     * limit them. If the runtime does not support virtual threads (they require Java 21), this falls back to
+     * {@link #BOUNDED}.
+     */
+    VIRTUAL;
+
+    /**
+     * Get the executor for this strategy.
+     *
+     * @return The executor to submit coroutines to.
+     */
+    public Executor executor()
+    {
+        switch( this )
+        {
+            case BOUNDED:
+                return Bounded.EXECUTOR;
+            case VIRTUAL:
+            {
+                ThreadFactory factory = Virtual.FACTORY;
+                return factory == null ? Bounded.EXECUTOR : command -> factory.newThread( command ).start();
+            }
+            case THREAD:
+            default:
+                return Unbounded.EXECUTOR;
+        }
+    }
+
+    /**
+     * Whether the current runtime supports virtual threads.
+     *
+     * @return If {@link #VIRTUAL} will use virtual threads, rather than falling back to {@link #BOUNDED}.
+     */
+    public static boolean supportsVirtualThreads()
+    {
+        return Virtual.FACTORY != null;
+    }
+
+    /**
+     * Update the executors after the config has changed.
+     */
+    public static void reloadConfig()
+    {
+        Bounded.EXECUTOR.setMaximumPoolSize( Math.max( 1, ComputerCraft.maxCoroutineThreads ) );
+    }
+
+    private static final class Unbounded
+    {
+        static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            5L, TimeUnit.MINUTES,
+            new SynchronousQueue<>(),
+            ThreadUtils.factory( "Coroutine" )
+        );
+    }
+
+    private static final class Bounded
+    {
+        static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            0, Math.max( 1, ComputerCraft.maxCoroutineThreads ),
+            5L, TimeUnit.MINUTES,
+            new SynchronousQueue<>(),
+            ThreadUtils.factory( "Coroutine" ),
+            ( command, executor ) -> {
+                throw new RejectedExecutionException( "Too many coroutines (limit is " + executor.getMaximumPoolSize() + ")" );
+            }
+        );
+    }
+
+    private static final class Virtual
+    {
+        static final @Nullable ThreadFactory FACTORY = createFactory();
+
+        /**
+         * Create a factory for virtual threads. We're compiled against Java 17, so need to access this reflectively.
+         *
+         * @return The thread factory, or {@code null} if virtual threads are not available.
+         */
+        @Nullable
+        private static ThreadFactory createFactory()
+        {
+            try
+            {
+                Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+                Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+                builder = builderClass.getMethod( "name", String.class, long.class ).invoke( builder, "ComputerCraft-Coroutine-Virtual-", 0L );
+                return (ThreadFactory) builderClass.getMethod( "factory" ).invoke( builder );
+            }
+            catch( ClassNotFoundException | NoSuchMethodException | IllegalAccessException e )
+            {
+                return null;
+            }
+            catch( InvocationTargetException e )
+            {
+                // Virtual threads are a preview feature on Java 19 and 20, and so throw if previews are not enabled.
+                ComputerCraft.log.warn( "Virtual threads are not available, falling back to a bounded thread pool.", e.getCause() );
+                return null;
+            }
+        }
+    }
+}
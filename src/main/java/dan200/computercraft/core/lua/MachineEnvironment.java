@@ -10,6 +10,7 @@
 import dan200.computercraft.core.computer.TimeoutState;
 import dan200.computercraft.core.metrics.Metrics;
 import dan200.computercraft.core.metrics.MetricsObserver;
+import dan200.computercraft.core.metrics.Profiler;
 
 /**
  * Arguments used to construct a {@link ILuaMachine}.
@@ -17,10 +18,13 @@
  * @param context    The Lua context to execute main-thread tasks with.
  * @param metrics    A sink to submit metrics to. You do not need to submit task timings here, it should only be for additional
  *                   metrics such as {@link Metrics#COROUTINES_CREATED}
+ * @param profiler   The computer's profiler, which the machine should submit samples to while it is running.
  * @param timeout    The current timeout state. This should be used by the machine to interrupt its execution.
  * @param hostString A {@linkplain GlobalEnvironment#getHostString() host string} to identify the current environment.
  * @see ILuaMachine.Factory
  */
-public record MachineEnvironment(ILuaContext context, MetricsObserver metrics, TimeoutState timeout, String hostString)
+public record MachineEnvironment(
+    ILuaContext context, MetricsObserver metrics, Profiler profiler, TimeoutState timeout, String hostString
+)
 {
 }
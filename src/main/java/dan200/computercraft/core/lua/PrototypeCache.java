@@ -0,0 +1,114 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+import org.squiddev.cobalt.Prototype;
+import org.squiddev.cobalt.compiler.CompileException;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.compiler.LuaC;
+import org.squiddev.cobalt.function.LuaClosure;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link LoadState.LuaCompiler} which shares compiled code between every {@link CobaltLuaMachine}.
+ * <p>
+ * Every computer loads the same set of files when booting ({@code bios.lua}, the shell, and the ROM's APIs). Rather
+ * than compiling these again for each computer, we cache the compiled {@link Prototype}s, keyed by the chunk's name
+ * and a hash of its contents. Prototypes are immutable, so can safely be shared between Lua states - each machine
+ * just creates its own closure from it.
+ * <p>
+ * Only chunks loaded from files (those whose name starts with {@code @}) are cached, so that code generated at runtime
+ * with {@code load} does not push useful entries out of the cache.
+ */
+final class PrototypeCache implements LoadState.LuaCompiler
+{
+    static final PrototypeCache INSTANCE = new PrototypeCache();
+
+    /**
+     * The maximum (estimated) size of all cached prototypes, in bytes. This is much larger than the compiled ROM, which
+     * leaves room for commonly used programs on computers' own drives.
+     *
+     * @see #estimateSize(Prototype)
+     */
+    private static final long MAX_SIZE = 16 * 1024 * 1024;
+
+    private final Cache<Key, Prototype> cache = CacheBuilder.newBuilder()
+        .maximumWeight( MAX_SIZE )
+        .weigher( ( Key key, Prototype prototype ) -> estimateSize( prototype ) )
+        .build();
+
+    private PrototypeCache()
+    {
+    }
+
+    @Override
+    public LuaClosure load( InputStream stream, LuaString name, @Nullable LuaString mode, LuaTable env ) throws IOException, CompileException
+    {
+        if( name.length() == 0 || name.luaByte( 0 ) != '@' ) return LuaC.INSTANCE.load( stream, name, mode, env );
+
+        byte[] contents = stream.readAllBytes();
+        Key key = new Key( name, mode, Hashing.sha256().hashBytes( contents ), contents.length );
+
+        // If two computers compile the same chunk at once, we'll compile it twice. This is rare enough that it's not
+        // worth blocking for.
+        Prototype prototype = cache.getIfPresent( key );
+        if( prototype == null )
+        {
+            prototype = LuaC.compile( new ByteArrayInputStream( contents ), name, mode );
+            cache.put( key, prototype );
+        }
+
+        LuaInterpretedFunction closure = new LuaInterpretedFunction( prototype, env );
+        closure.nilUpvalues();
+        return closure;
+    }
+
+    /**
+     * Estimate the memory used by a prototype and its children. The size of a prototype is not proportional to its
+     * source code (for instance, a short chunk may contain a large number of constants), so we need to look at the
+     * compiled code instead.
+     * <p>
+     * This does not need to be exact, but should be in the right order of magnitude.
+     *
+     * @param prototype The prototype to measure.
+     * @return The estimated size of this prototype, in bytes.
+     */
+    static int estimateSize( Prototype prototype )
+    {
+        // Object header and fields, then the instructions and line information.
+        long size = 64 + 4L * prototype.code.length + 4L * prototype.lineinfo.length;
+
+        // References to constants, local variables, upvalues and child functions.
+        size += 8L * (prototype.k.length + prototype.locvars.length + prototype.upvalues.length + prototype.p.length);
+        for( LuaValue constant : prototype.k )
+        {
+            // Numbers and booleans are small, but strings may be arbitrarily large.
+            size += constant instanceof LuaString string ? 32 + string.length() : 16;
+        }
+
+        // Names of local variables.
+        size += 32L * prototype.locvars.length;
+
+        for( Prototype child : prototype.p ) size += estimateSize( child );
+        return (int) Math.min( size, Integer.MAX_VALUE );
+    }
+
+    private record Key(LuaString name, @Nullable LuaString mode, HashCode hash, int length)
+    {
+    }
+}
@@ -55,6 +55,7 @@ class ResultInterpreterFunction extends ResumableVarArgFunction<ResultInterprete
     protected Varargs invoke( LuaState state, DebugFrame debugFrame, Varargs args ) throws LuaError, UnwindThrowable
     {
         VarargArguments arguments = VarargArguments.of( args );
+        long start = machine.isProfiling() ? System.nanoTime() : 0;
         MethodResult results;
         try
         {
@@ -75,6 +76,7 @@ protected Varargs invoke( LuaState state, DebugFrame debugFrame, Varargs args )
         finally
         {
             arguments.close();
+            if( start != 0 ) machine.recordCall( instance, name, start );
         }
 
         ILuaCallback callback = results.getCallback();
@@ -91,6 +93,7 @@ protected Varargs resumeThis( LuaState state, Container container, Varargs args
     {
         MethodResult results;
         Object[] arguments = CobaltLuaMachine.toObjects( args );
+        long start = machine.isProfiling() ? System.nanoTime() : 0;
         try
         {
             results = container.callback.resume( arguments );
@@ -107,6 +110,10 @@ protected Varargs resumeThis( LuaState state, Container container, Varargs args
             }
             throw new LuaError( "Java Exception Thrown: " + t, 0 );
         }
+        finally
+        {
+            if( start != 0 ) machine.recordCall( container.callback, name, start );
+        }
 
         Varargs ret = machine.toValues( results.getResult() );
 
@@ -16,11 +16,14 @@ private Metrics()
 
     public static final Metric.Event COMPUTER_TASKS = new Metric.Event( "computer_tasks", "ms", Metric::formatTime );
     public static final Metric.Event SERVER_TASKS = new Metric.Event( "server_tasks", "ms", Metric::formatTime );
+    public static final Metric.Event SERVER_TASK_BATCHES = new Metric.Event( "server_task_batches", "ms", Metric::formatTime );
+    public static final Metric.Event SERVER_TASK_BATCH_SIZE = new Metric.Event( "server_task_batch_size", "", Metric::formatDefault );
 
     public static final Metric.Counter PERIPHERAL_OPS = new Metric.Counter( "peripheral" );
     public static final Metric.Counter FS_OPS = new Metric.Counter( "fs" );
 
     public static final Metric.Counter HTTP_REQUESTS = new Metric.Counter( "http_requests" );
+    public static final Metric.Counter HTTP_CONNECTIONS_REUSED = new Metric.Counter( "http_connections_reused" );
     public static final Metric.Event HTTP_UPLOAD = new Metric.Event( "http_upload", "bytes", Metric::formatBytes );
     public static final Metric.Event HTTP_DOWNLOAD = new Metric.Event( "http_download", "bytes", Metric::formatBytes );
 
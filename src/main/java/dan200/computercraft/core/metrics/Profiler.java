@@ -0,0 +1,118 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.metrics;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sampling profiler for a single computer.
+ * <p>
+ * While running, the Lua machine periodically records the current Lua call stack, along with how much time has been
+ * spent executing since the previous sample. Calls to Java methods are timed exactly, and recorded as a child of the
+ * Lua function which called them.
+ * <p>
+ * The results are stored as "collapsed stacks": each stack is a list of frames, separated by {@code ;}, from the
+ * outermost function to the innermost. This is the format used by most flame graph tools.
+ */
+public final class Profiler
+{
+    /**
+     * The minimum time between samples of the Lua stack. Any time after the last sample in an event is not recorded,
+     * so this is kept short, in order to not under-count computers which handle lots of short events.
+     */
+    public static final long SAMPLE_INTERVAL = TimeUnit.MICROSECONDS.toNanos( 100 );
+
+    /**
+     * The maximum number of unique stacks to store. Any further stacks are merged into {@link #TRUNCATED}, so that a
+     * long-running profile cannot use an unbounded amount of memory.
+     */
+    private static final int MAX_STACKS = 10_000;
+    private static final String TRUNCATED = "[truncated]";
+
+    private volatile boolean running;
+    private final Object2LongMap<String> samples = new Object2LongOpenHashMap<>();
+
+    /**
+     * Start profiling this computer, discarding any previous results.
+     */
+    public synchronized void start()
+    {
+        samples.clear();
+        running = true;
+    }
+
+    /**
+     * Stop profiling this computer.
+     *
+     * @return Whether the profiler was running.
+     */
+    public boolean stop()
+    {
+        boolean wasRunning = running;
+        running = false;
+        return wasRunning;
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    /**
+     * Record time spent in a given stack.
+     *
+     * @param stack The collapsed stack.
+     * @param nanos The time spent executing this stack, in nanoseconds.
+     */
+    public synchronized void record( String stack, long nanos )
+    {
+        if( !running || nanos <= 0 ) return;
+        if( samples.size() >= MAX_STACKS && !samples.containsKey( stack ) ) stack = TRUNCATED;
+        samples.mergeLong( stack, nanos, Long::sum );
+    }
+
+    /**
+     * Get the total time recorded by this profiler.
+     *
+     * @return The total time, in nanoseconds.
+     */
+    public synchronized long getTotalTime()
+    {
+        long total = 0;
+        for( long value : samples.values() ) total += value;
+        return total;
+    }
+
+    /**
+     * Get the results of this profiler as collapsed stacks, one per line, with the time spent in microseconds.
+     *
+     * @return The collapsed stacks.
+     */
+    public String toCollapsedStacks()
+    {
+        Object2LongMap<String> samples;
+        synchronized( this )
+        {
+            samples = new Object2LongOpenHashMap<>( this.samples );
+        }
+
+        List<String> stacks = new ArrayList<>( samples.keySet() );
+        stacks.sort( null );
+
+        StringBuilder out = new StringBuilder();
+        for( String stack : stacks )
+        {
+            long micros = TimeUnit.NANOSECONDS.toMicros( samples.getLong( stack ) );
+            if( micros > 0 ) out.append( stack ).append( ' ' ).append( micros ).append( '\n' );
+        }
+        return out.toString();
+    }
+}
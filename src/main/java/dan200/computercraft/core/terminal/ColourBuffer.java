@@ -0,0 +1,110 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.terminal;
+
+import dan200.computercraft.shared.util.ColourUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A line of terminal colours, each stored as a packed {@code 0xRRGGBB} integer.
+ *
+ * @see TextBuffer
+ */
+public class ColourBuffer
+{
+    private final int[] colours;
+
+    public ColourBuffer( int colour, int length )
+    {
+        colours = new int[length];
+        fill( colour );
+    }
+
+    public ColourBuffer( int[] colours )
+    {
+        this.colours = colours;
+    }
+
+    public int length()
+    {
+        return colours.length;
+    }
+
+    public int get( int i )
+    {
+        return colours[i];
+    }
+
+    public void set( int i, int colour )
+    {
+        if( i >= 0 && i < colours.length ) colours[i] = colour;
+    }
+
+    public void write( int[] colours )
+    {
+        write( colours, 0 );
+    }
+
+    public void write( int[] colours, int start )
+    {
+        int pos = start;
+        start = Math.max( start, 0 );
+        int end = Math.min( start + colours.length, pos + colours.length );
+        end = Math.min( end, this.colours.length );
+        if( end <= start ) return;
+
+        System.arraycopy( colours, start - pos, this.colours, start, end - start );
+    }
+
+    public void write( ColourBuffer colours )
+    {
+        System.arraycopy( colours.colours, 0, this.colours, 0, Math.min( colours.colours.length, this.colours.length ) );
+    }
+
+    /**
+     * Copy the remaining bytes of a buffer into this line, where each colour is encoded as three bytes (red, green and
+     * blue). The buffer's position is not modified.
+     *
+     * @param colours The colours to write.
+     * @param start   The position in this line to start writing at. This may be negative or extend past the end of
+     *                the line, in which case the colours are clipped.
+     */
+    public void writeRgb( ByteBuffer colours, int start )
+    {
+        int pos = start;
+        int bufferPos = colours.position();
+
+        start = Math.max( start, 0 );
+        int length = colours.remaining() / 3;
+        int end = Math.min( start + length, pos + length );
+        end = Math.min( end, this.colours.length );
+
+        for( int i = start; i < end; i++ )
+        {
+            int offset = bufferPos + (i - pos) * 3;
+            this.colours[i] = ColourUtils.bytesToInt( colours.get( offset ), colours.get( offset + 1 ), colours.get( offset + 2 ) );
+        }
+    }
+
+    public void fill( int colour )
+    {
+        Arrays.fill( colours, colour );
+    }
+
+    public void fill( int colour, int start, int end )
+    {
+        start = Math.max( start, 0 );
+        end = Math.min( end, colours.length );
+        if( start < end ) Arrays.fill( colours, start, end, colour );
+    }
+
+    public int[] toArray()
+    {
+        return colours.clone();
+    }
+}
@@ -5,11 +5,11 @@
  */
 package dan200.computercraft.core.terminal;
 
-import dan200.computercraft.shared.util.ColourUtils;
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.nio.ByteBuffer;
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 
 public class Terminal
 {
@@ -23,9 +23,21 @@
     protected int cursorColour = 0xFFFFFF;
     protected int cursorBackgroundColour = 0x000000;
 
-    protected Object[] text;
-    protected Object[] textColour;
-    protected Object[] backgroundColour;
+    protected TextBuffer[] text;
+    protected ColourBuffer[] textColour;
+    protected ColourBuffer[] backgroundColour;
+
+    /**
+     * The set of lines which have been modified since changes were last consumed. This allows us to only sync modified
+     * lines to the client, rather than the whole terminal.
+     */
+    protected final BitSet changedLines = new BitSet();
+
+    /**
+     * Whether the terminal's dimensions have changed since changes were last consumed. When set, the whole terminal
+     * must be resent.
+     */
+    protected boolean changedSize = true;
 
     private final @Nullable Runnable onChanged;
 
@@ -41,14 +53,14 @@ public Terminal( int width, int height, boolean colour, Runnable changedCallback
         this.colour = colour;
         onChanged = changedCallback;
 
-        text = new Object[height];
-        textColour = new Object[height];
-        backgroundColour = new Object[height];
+        text = new TextBuffer[height];
+        textColour = new ColourBuffer[height];
+        backgroundColour = new ColourBuffer[height];
         for( int i = 0; i < this.height; i++ )
         {
-            text[i] = new Buffer<Character>( ' ', this.width );
-            textColour[i] = new Buffer<Integer>( cursorColour, this.width );
-            backgroundColour[i] = new Buffer<Integer>( cursorBackgroundColour, this.width );
+            text[i] = new TextBuffer( ' ', this.width );
+            textColour[i] = new ColourBuffer( cursorColour, this.width );
+            backgroundColour[i] = new ColourBuffer( cursorBackgroundColour, this.width );
         }
     }
 
@@ -87,23 +99,23 @@ public synchronized void resize( int width, int height )
 
         int oldHeight = this.height;
         int oldWidth = this.width;
-        Object[] oldText = text;
-        Object[] oldTextColour = textColour;
-        Object[] oldBackgroundColour = backgroundColour;
+        TextBuffer[] oldText = text;
+        ColourBuffer[] oldTextColour = textColour;
+        ColourBuffer[] oldBackgroundColour = backgroundColour;
 
         this.width = width;
         this.height = height;
 
-        text = new Object[height];
-        textColour = new Object[height];
-        backgroundColour = new Object[height];
+        text = new TextBuffer[height];
+        textColour = new ColourBuffer[height];
+        backgroundColour = new ColourBuffer[height];
         for( int i = 0; i < this.height; i++ )
         {
             if( i >= oldHeight )
             {
-                text[i] = new Buffer<Character>( ' ', this.width );
-                textColour[i] = new Buffer<Integer>( cursorColour, this.width );
-                backgroundColour[i] = new Buffer<Integer>( cursorBackgroundColour, this.width );
+                text[i] = new TextBuffer( ' ', this.width );
+                textColour[i] = new ColourBuffer( cursorColour, this.width );
+                backgroundColour[i] = new ColourBuffer( cursorBackgroundColour, this.width );
             }
             else if( this.width == oldWidth )
             {
@@ -113,14 +125,15 @@ else if( this.width == oldWidth )
             }
             else
             {
-                text[i] = new Buffer<Character>( ' ', this.width );
-                textColour[i] = new Buffer<Integer>( cursorColour, this.width );
-                backgroundColour[i] = new Buffer<Integer>( cursorBackgroundColour, this.width );
-                ((Buffer<Character>)text[i]).write( (Buffer<Character>)oldText[i] );
-                ((Buffer<Integer>)textColour[i]).write( (Buffer<Integer>)oldTextColour[i] );
-                ((Buffer<Integer>)backgroundColour[i]).write( (Buffer<Integer>)oldBackgroundColour[i] );
+                text[i] = new TextBuffer( ' ', this.width );
+                textColour[i] = new ColourBuffer( cursorColour, this.width );
+                backgroundColour[i] = new ColourBuffer( cursorBackgroundColour, this.width );
+                text[i].write( oldText[i] );
+                textColour[i].write( oldTextColour[i] );
+                backgroundColour[i].write( oldBackgroundColour[i] );
             }
         }
+        changedSize = true;
         setChanged();
     }
 
@@ -186,53 +199,16 @@ public int getBackgroundColour()
         return cursorBackgroundColour;
     }
 
-    private void writeToCharactersBuffer( Buffer<Character> buffer, ByteBuffer arr, int start )
-    {
-        int pos = start;
-        int bufferPos = arr.position();
-
-        start = Math.max( start, 0 );
-        int length = arr.remaining();
-        int end = Math.min( start + length, pos + length );
-        end = Math.min( end, buffer.length() );
-
-        for( int i = start; i < end; i++ )
-        {
-            buffer.set( i, (char) (arr.get( bufferPos + (i - pos) ) & 0xFF) );
-        }
-    }
-
-    private void writeToIntegersBuffer( Buffer<Integer> buffer, ByteBuffer arr, int start )
-    {
-        int pos = start;
-        int bufferPos = arr.position();
-
-        start = Math.max( start, 0 );
-        int length = arr.remaining() / 3;
-        int end = Math.min( start + length, pos + length );
-        end = Math.min( end, buffer.length() );
-
-        for( int i = start; i < end; i++ )
-        {
-            byte r = arr.get( bufferPos + ((i - pos) * 3) );
-            byte g = arr.get( bufferPos + ((i - pos) * 3) + 1 );
-            byte b = arr.get( bufferPos + ((i - pos) * 3) + 2 );
-
-            int rgb = ColourUtils.bytesToInt( r, g, b );
-
-            buffer.set( i, rgb );
-        }
-    }
-
     public synchronized void blit( ByteBuffer text, ByteBuffer textColour, ByteBuffer backgroundColour )
     {
         int x = cursorX;
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            writeToCharactersBuffer( (Buffer<Character>) this.text[y], text, x );
-            writeToIntegersBuffer( (Buffer<Integer>) this.textColour[y], textColour, x );
-            writeToIntegersBuffer( (Buffer<Integer>) this.backgroundColour[y], backgroundColour, x );
+            this.text[y].write( text, x );
+            this.textColour[y].writeRgb( textColour, x );
+            this.backgroundColour[y].writeRgb( backgroundColour, x );
+            changedLines.set( y );
             setChanged();
         }
     }
@@ -243,51 +219,40 @@ public synchronized void write( String text )
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            ((Buffer<Character>)this.text[y]).write( ArrayUtils.toObject( text.toCharArray() ), x );
-            ((Buffer<Integer>)textColour[y]).fill( cursorColour, x, x + text.length() );
-            ((Buffer<Integer>)backgroundColour[y]).fill( cursorBackgroundColour, x, x + text.length() );
+            this.text[y].write( text, x );
+            textColour[y].fill( cursorColour, x, x + text.length() );
+            backgroundColour[y].fill( cursorBackgroundColour, x, x + text.length() );
+            changedLines.set( y );
             setChanged();
         }
     }
 
     public synchronized void scroll( int yDiff )
     {
-        if( yDiff != 0 )
+        if( yDiff == 0 ) return;
+
+        // Rotate the existing lines in place, and then blank out the lines which have been scrolled in. This reuses
+        // the line buffers, rather than allocating new ones.
+        int shift = Math.max( -height, Math.min( height, yDiff ) );
+        if( Math.abs( shift ) < height )
         {
-            Object[] newText = new Object[height];
-            Object[] newTextColour = new Object[height];
-            Object[] newBackgroundColour = new Object[height];
-            for( int y = 0; y < height; y++ )
-            {
-                int oldY = y + yDiff;
-                if( oldY >= 0 && oldY < height )
-                {
-                    newText[y] = text[oldY];
-                    newTextColour[y] = textColour[oldY];
-                    newBackgroundColour[y] = backgroundColour[oldY];
-                }
-                else
-                {
-                    newText[y] = new Buffer<Character>( ' ', width );
-                    newTextColour[y] = new Buffer<Integer>( cursorColour, width );
-                    newBackgroundColour[y] = new Buffer<Integer>( cursorBackgroundColour, width );
-                }
-            }
-            text = newText;
-            textColour = newTextColour;
-            backgroundColour = newBackgroundColour;
-            setChanged();
+            Collections.rotate( Arrays.asList( text ), -shift );
+            Collections.rotate( Arrays.asList( textColour ), -shift );
+            Collections.rotate( Arrays.asList( backgroundColour ), -shift );
         }
+
+        int start = shift > 0 ? height - shift : 0;
+        int end = shift > 0 ? height : -shift;
+        for( int y = start; y < end; y++ ) clearLine( y );
+
+        changedLines.set( 0, height );
+        setChanged();
     }
 
     public synchronized void clear()
     {
-        for( int y = 0; y < height; y++ )
-        {
-            ((Buffer<Character>)text[y]).fill( ' ' );
-            ((Buffer<Integer>)textColour[y]).fill( cursorColour );
-            ((Buffer<Integer>)backgroundColour[y]).fill( cursorBackgroundColour );
-        }
+        for( int y = 0; y < height; y++ ) clearLine( y );
+        changedLines.set( 0, height );
         setChanged();
     }
 
@@ -296,44 +261,61 @@ public synchronized void clearLine()
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            ((Buffer<Character>)text[y]).fill( ' ' );
-            ((Buffer<Integer>)textColour[y]).fill( cursorColour );
-            ((Buffer<Integer>)backgroundColour[y]).fill( cursorBackgroundColour );
+            clearLine( y );
+            changedLines.set( y );
             setChanged();
         }
     }
 
-    public synchronized Buffer<Character> getLine( int y )
+    private void clearLine( int y )
+    {
+        text[y].fill( ' ' );
+        textColour[y].fill( cursorColour );
+        backgroundColour[y].fill( cursorBackgroundColour );
+    }
+
+    /**
+     * Get a line of text. This is a view of the terminal's contents rather than a copy, and so will change as the
+     * terminal is written to.
+     *
+     * @param y The line to get.
+     * @return The line's text, or {@code null} if the line is out of bounds.
+     */
+    @Nullable
+    public synchronized TextBuffer getLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return (Buffer<Character>) text[y];
+            return text[y];
         }
         return null;
     }
 
-    public synchronized void setLine( int y, String text, Integer[] textColour, Integer[] backgroundColour )
+    public synchronized void setLine( int y, String text, int[] textColour, int[] backgroundColour )
     {
-        ((Buffer<Character>)this.text[y]).write( ArrayUtils.toObject( text.toCharArray() ) );
-        ((Buffer<Integer>)this.textColour[y]).write( textColour );
-        ((Buffer<Integer>)this.backgroundColour[y]).write( backgroundColour );
+        this.text[y].write( text );
+        this.textColour[y].write( textColour );
+        this.backgroundColour[y].write( backgroundColour );
+        changedLines.set( y );
         setChanged();
     }
 
-    public synchronized Buffer<Integer> getTextColourLine( int y )
+    @Nullable
+    public synchronized ColourBuffer getTextColourLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return (Buffer<Integer>) textColour[y];
+            return textColour[y];
         }
         return null;
     }
 
-    public synchronized Buffer<Integer> getBackgroundColourLine( int y )
+    @Nullable
+    public synchronized ColourBuffer getBackgroundColourLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return (Buffer<Integer>) backgroundColour[y];
+            return backgroundColour[y];
         }
         return null;
     }
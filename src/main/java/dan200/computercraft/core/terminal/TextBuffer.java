@@ -0,0 +1,120 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.terminal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A line of terminal text.
+ * <p>
+ * Terminal characters are always in the range 0-255, so we store each one as a single byte. This means a line is a
+ * single flat array, which can be copied to and from network buffers in bulk.
+ */
+public class TextBuffer
+{
+    private final byte[] text;
+
+    public TextBuffer( char c, int length )
+    {
+        text = new byte[length];
+        fill( c );
+    }
+
+    public TextBuffer( String text )
+    {
+        this.text = new byte[text.length()];
+        write( text );
+    }
+
+    public int length()
+    {
+        return text.length;
+    }
+
+    public char charAt( int i )
+    {
+        return (char) (text[i] & 0xFF);
+    }
+
+    public void setChar( int i, char c )
+    {
+        if( i >= 0 && i < text.length ) text[i] = toByte( c );
+    }
+
+    public void write( String text )
+    {
+        write( text, 0 );
+    }
+
+    public void write( String text, int start )
+    {
+        int pos = start;
+        start = Math.max( start, 0 );
+        int end = Math.min( start + text.length(), pos + text.length() );
+        end = Math.min( end, this.text.length );
+        for( int i = start; i < end; i++ ) this.text[i] = toByte( text.charAt( i - pos ) );
+    }
+
+    /**
+     * Copy the remaining bytes of a buffer into this line, starting at the given position. The buffer's position is
+     * not modified.
+     *
+     * @param text  The text to write.
+     * @param start The position in this line to start writing at. This may be negative or extend past the end of the
+     *              line, in which case the text is clipped.
+     */
+    public void write( ByteBuffer text, int start )
+    {
+        int pos = start;
+        start = Math.max( start, 0 );
+        int end = Math.min( start + text.remaining(), pos + text.remaining() );
+        end = Math.min( end, this.text.length );
+        if( end <= start ) return;
+
+        text.get( text.position() + (start - pos), this.text, start, end - start );
+    }
+
+    public void write( TextBuffer text )
+    {
+        System.arraycopy( text.text, 0, this.text, 0, Math.min( text.text.length, this.text.length ) );
+    }
+
+    public void fill( char c )
+    {
+        fill( c, 0, text.length );
+    }
+
+    public void fill( char c, int start, int end )
+    {
+        start = Math.max( start, 0 );
+        end = Math.min( end, text.length );
+        if( start < end ) Arrays.fill( text, start, end, toByte( c ) );
+    }
+
+    /**
+     * Get a read-only view of this line. This does not copy the underlying data, so will reflect any later changes to
+     * this line.
+     *
+     * @return A view of this line's contents.
+     */
+    public ByteBuffer asByteBuffer()
+    {
+        return ByteBuffer.wrap( text ).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String( text, StandardCharsets.ISO_8859_1 );
+    }
+
+    private static byte toByte( char c )
+    {
+        return (byte) (c > 255 ? '?' : c);
+    }
+}
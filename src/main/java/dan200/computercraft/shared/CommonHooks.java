@@ -17,7 +17,9 @@
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.dedicated.DedicatedServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.storage.loot.BuiltInLootTables;
 import net.minecraft.world.level.storage.loot.LootPool;
 import net.minecraft.world.level.storage.loot.entries.LootTableReference;
@@ -25,6 +27,7 @@
 import net.minecraftforge.event.*;
 import net.minecraftforge.event.server.ServerStartingEvent;
 import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.server.ServerLifecycleHooks;
@@ -82,6 +85,15 @@ public static void onServerStopped( ServerStoppedEvent event )
         resetState();
     }
 
+    @SubscribeEvent
+    public static void onWorldSave( WorldEvent.Save event )
+    {
+        if( event.getWorld() instanceof ServerLevel level && level.dimension() == Level.OVERWORLD )
+        {
+            ServerContext.get( level.getServer() ).fileUsage().save();
+        }
+    }
+
     private static void resetState()
     {
         ServerContext.close();
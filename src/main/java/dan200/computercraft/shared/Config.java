@@ -14,6 +14,7 @@
 import dan200.computercraft.core.apis.http.NetworkUtils;
 import dan200.computercraft.core.apis.http.options.Action;
 import dan200.computercraft.core.apis.http.options.AddressRuleConfig;
+import dan200.computercraft.core.lua.CoroutineExecutor;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.common.ForgeConfigSpec.ConfigValue;
@@ -42,10 +43,17 @@
     private static final ConfigValue<String> defaultComputerSettings;
     private static final ConfigValue<Boolean> logComputerErrors;
     private static final ConfigValue<Boolean> commandRequireCreative;
+    private static final ConfigValue<Integer> terminalKeyframeInterval;
+    private static final ConfigValue<Boolean> deduplicateFiles;
 
     private static final ConfigValue<Integer> computerThreads;
+    private static final ConfigValue<Integer> minComputerThreads;
+    private static final ConfigValue<Integer> computerThreadKeepAlive;
     private static final ConfigValue<Integer> maxMainGlobalTime;
     private static final ConfigValue<Integer> maxMainComputerTime;
+    private static final ConfigValue<CoroutineExecutor> coroutineExecutor;
+    private static final ConfigValue<Integer> maxCoroutineThreads;
+    private static final ConfigValue<Integer> computerParkTime;
 
     private static final ConfigValue<Boolean> httpEnabled;
     private static final ConfigValue<Boolean> httpWebsocketEnabled;
@@ -64,6 +72,7 @@
     private static final ConfigValue<Integer> modemHighAltitudeRangeDuringStorm;
     private static final ConfigValue<Integer> maxNotesPerTick;
     private static final ConfigValue<Integer> monitorBandwidth;
+    private static final ConfigValue<Integer> speakerClientBuffer;
 
     private static final ConfigValue<Boolean> turtlesNeedFuel;
     private static final ConfigValue<Integer> turtleFuelLimit;
@@ -123,6 +132,15 @@ private Config() {}
 
             commandRequireCreative = builder
                 .comment( "Require players to be in creative mode and be opped in order to interact with\ncommand computers. This is the default behaviour for vanilla's Command blocks." ).define( "command_require_creative", ComputerCraft.commandRequireCreative );
+
+            terminalKeyframeInterval = builder
+                .comment( "Computer and monitor terminals are synced to players by only sending the lines\nwhich have changed. This controls how many of these partial updates are sent\nbefore the whole terminal is sent again. Set to 0 to always send the whole\nterminal." )
+                .defineInRange( "terminal_keyframe_interval", ComputerCraft.terminalKeyframeInterval, 0, Integer.MAX_VALUE );
+
+            deduplicateFiles = builder
+                .comment( "Store identical files on computers and disks only once, by replacing them with\nhard links to a shared copy. Files are copied again when a computer modifies\nthem. This is only supported on Linux and macOS.\nNote: files edited outside of the game (e.g. with a text editor) may be changed\non every computer sharing them." )
+                .worldRestart()
+                .define( "deduplicate_files", ComputerCraft.deduplicateFiles );
         }
 
         {
@@ -134,6 +152,16 @@ private Config() {}
                 .worldRestart()
                 .defineInRange( "computer_threads", ComputerCraft.computerThreads, 1, Integer.MAX_VALUE );
 
+            minComputerThreads = builder
+                .comment( "The number of computer threads which are always kept running. Additional threads\n(up to computer_threads) are started when computers are waiting to run, and\nstopped again after being idle for computer_thread_keep_alive seconds.\nSet this equal to computer_threads to always keep every thread running." )
+                .worldRestart()
+                .defineInRange( "min_computer_threads", ComputerCraft.minComputerThreads, 1, Integer.MAX_VALUE );
+
+            computerThreadKeepAlive = builder
+                .comment( "How long (in seconds) an idle computer thread will wait for work before being\nstopped. This only applies to threads beyond min_computer_threads." )
+                .worldRestart()
+                .defineInRange( "computer_thread_keep_alive", ComputerCraft.computerThreadKeepAlive, 1, Integer.MAX_VALUE );
+
             maxMainGlobalTime = builder
                 .comment( "The maximum time that can be spent executing tasks in a single tick, in\nmilliseconds.\nNote, we will quite possibly go over this limit, as there's no way to tell how\nlong a will take - this aims to be the upper bound of the average time." )
                 .defineInRange( "max_main_global_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.maxMainGlobalTime ), 1, Integer.MAX_VALUE );
@@ -142,6 +170,18 @@ private Config() {}
                 .comment( "The ideal maximum time a computer can execute for in a tick, in milliseconds.\nNote, we will quite possibly go over this limit, as there's no way to tell how\nlong a will take - this aims to be the upper bound of the average time." )
                 .defineInRange( "max_main_computer_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.maxMainComputerTime ), 1, Integer.MAX_VALUE );
 
+            coroutineExecutor = builder
+                .comment( "How Lua coroutines are run. Each coroutine requires its own Java thread, so\nprograms which create many coroutines can use a large number of threads.\n - \"thread\": Run each coroutine on a normal thread, with no limit.\n - \"bounded\": Run each coroutine on a normal thread, but refuse to create new\n   coroutines once max_coroutine_threads are running.\n - \"virtual\": Run each coroutine on a lightweight virtual thread. This requires\n   Java 21 or later, otherwise \"bounded\" is used instead.\nThis only affects computers started after the option is changed." )
+                .defineEnum( "coroutine_executor", ComputerCraft.coroutineExecutor );
+
+            maxCoroutineThreads = builder
+                .comment( "The maximum number of threads which may be used for coroutines, when using the\n\"bounded\" coroutine executor. This is shared across all computers." )
+                .defineInRange( "max_coroutine_threads", ComputerCraft.maxCoroutineThreads, 1, Integer.MAX_VALUE );
+
+            computerParkTime = builder
+                .comment( "How long (in seconds) to keep a computer running after its chunk is unloaded.\nWhile unloaded, the computer is paused. If the chunk is loaded again within\nthis time, the computer continues where it left off rather than rebooting.\nSet to 0 to always shut computers down when their chunk is unloaded." )
+                .defineInRange( "computer_park_time", ComputerCraft.computerParkTime, 0, 3600 );
+
             builder.pop();
         }
 
@@ -221,6 +261,10 @@ private Config() {}
                 .comment( "The limit to how much monitor data can be sent *per tick*. Note:\n - Bandwidth is measured before compression, so the data sent to the client is\n   smaller.\n - This ignores the number of players a packet is sent to. Updating a monitor for\n   one player consumes the same bandwidth limit as sending to 20.\n - A full sized monitor sends ~25kb of data. So the default (1MB) allows for ~40\n   monitors to be updated in a single tick.\nSet to 0 to disable." )
                 .defineInRange( "monitor_bandwidth", (int) ComputerCraft.monitorBandwidth, 0, Integer.MAX_VALUE );
 
+            speakerClientBuffer = builder
+                .comment( "How much audio (in milliseconds) the server tries to keep buffered on the client when\nstreaming audio from a speaker. Larger values reduce stuttering when the server is\nlagging, at the cost of a longer delay before speaker.stop takes effect." )
+                .defineInRange( "speaker_client_buffer", ComputerCraft.speakerClientBuffer, 50, 5000 );
+
             builder.pop();
         }
 
@@ -306,11 +350,19 @@ public static void sync()
         ComputerCraft.computerThreads = computerThreads.get();
         ComputerCraft.logComputerErrors = logComputerErrors.get();
         ComputerCraft.commandRequireCreative = commandRequireCreative.get();
+        ComputerCraft.terminalKeyframeInterval = terminalKeyframeInterval.get();
+        ComputerCraft.deduplicateFiles = deduplicateFiles.get();
 
         // Execution
         ComputerCraft.computerThreads = computerThreads.get();
+        ComputerCraft.minComputerThreads = minComputerThreads.get();
+        ComputerCraft.computerThreadKeepAlive = computerThreadKeepAlive.get();
         ComputerCraft.maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( maxMainGlobalTime.get() );
         ComputerCraft.maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( maxMainComputerTime.get() );
+        ComputerCraft.coroutineExecutor = coroutineExecutor.get();
+        ComputerCraft.maxCoroutineThreads = maxCoroutineThreads.get();
+        ComputerCraft.computerParkTime = computerParkTime.get();
+        CoroutineExecutor.reloadConfig();
 
         // HTTP
         ComputerCraft.httpEnabled = httpEnabled.get();
@@ -332,6 +384,7 @@ public static void sync()
         ComputerCraft.modemRangeDuringStorm = modemRangeDuringStorm.get();
         ComputerCraft.modemHighAltitudeRangeDuringStorm = modemHighAltitudeRangeDuringStorm.get();
         ComputerCraft.monitorBandwidth = monitorBandwidth.get();
+        ComputerCraft.speakerClientBuffer = speakerClientBuffer.get();
 
         // Turtles
         ComputerCraft.turtlesNeedFuel = turtlesNeedFuel.get();
@@ -11,6 +11,7 @@
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.computer.ComputerSide;
 import dan200.computercraft.core.metrics.Metrics;
+import dan200.computercraft.core.metrics.Profiler;
 import dan200.computercraft.shared.command.text.TableBuilder;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ServerComputer;
@@ -40,7 +41,14 @@
 
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static dan200.computercraft.shared.command.CommandUtils.isPlayer;
 import static dan200.computercraft.shared.command.Exceptions.*;
@@ -62,6 +70,8 @@
     private static final int DUMP_SINGLE_ID = 1844510720;
     private static final int TRACK_ID = 373882880;
 
+    private static final DateTimeFormatter PROFILE_NAME = DateTimeFormatter.ofPattern( "yyyy-MM-dd_HH.mm.ss" );
+
     private CommandComputerCraft()
     {
     }
@@ -282,6 +292,46 @@ public AbstractContainerMenu createMenu( int id, @Nonnull Inventory player, @Non
 
                         return displayTimings( context.getSource(), sort, fields );
                     } ) ) )
+
+            .then( choice( "profile" )
+                .then( command( "start" )
+                    .requires( UserLevel.OWNER_OP )
+                    .arg( "computer", oneComputer() )
+                    .executes( context -> {
+                        ServerComputer computer = getComputerArgument( context, "computer" );
+                        computer.getComputer().getProfiler().start();
+
+                        String stopCommand = "/computercraft profile stop " + computer.getInstanceID();
+                        context.getSource().sendSuccess( translate( "commands.computercraft.profile.start.stop",
+                            link( text( stopCommand ), stopCommand, translate( "commands.computercraft.profile.stop.action" ) ) ), false );
+                        return 1;
+                    } ) )
+
+                .then( command( "stop" )
+                    .requires( UserLevel.OWNER_OP )
+                    .arg( "computer", oneComputer() )
+                    .executes( context -> {
+                        ServerComputer computer = getComputerArgument( context, "computer" );
+                        Profiler profiler = computer.getComputer().getProfiler();
+                        if( !profiler.stop() ) throw NOT_PROFILING_EXCEPTION.create();
+
+                        Path file = ServerContext.get( context.getSource().getServer() ).storageDir()
+                            .resolve( "profiles" )
+                            .resolve( "computer_" + computer.getID() + "_" + PROFILE_NAME.format( LocalDateTime.now() ) + ".txt" );
+                        try
+                        {
+                            Files.createDirectories( file.getParent() );
+                            Files.writeString( file, profiler.toCollapsedStacks(), StandardCharsets.UTF_8 );
+                        }
+                        catch( IOException e )
+                        {
+                            throw PROFILE_WRITE_FAILED.create( e.getMessage() );
+                        }
+
+                        long millis = TimeUnit.NANOSECONDS.toMillis( profiler.getTotalTime() );
+                        context.getSource().sendSuccess( translate( "commands.computercraft.profile.stop.done", millis, file.toString() ), false );
+                        return 1;
+                    } ) ) )
         );
     }
 
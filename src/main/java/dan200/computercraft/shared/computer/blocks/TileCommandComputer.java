@@ -114,6 +114,13 @@ protected ServerComputer createComputer( int id )
         return computer;
     }
 
+    @Override
+    protected boolean canPark()
+    {
+        // The command API refers to this block entity, so cannot be reattached to a new one.
+        return false;
+    }
+
     @Override
     public boolean isUsable( Player player )
     {
@@ -52,6 +52,12 @@ protected ServerComputer createComputer( int id )
         return computer;
     }
 
+    @Override
+    protected boolean canPark()
+    {
+        return true;
+    }
+
     protected boolean isUsableByPlayer( Player player )
     {
         return isUsable( player );
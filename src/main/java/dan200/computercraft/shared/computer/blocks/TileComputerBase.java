@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.shared.computer.blocks;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.ComputerCraftAPI;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.computer.ComputerSide;
@@ -14,6 +15,7 @@
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ComputerState;
 import dan200.computercraft.shared.computer.core.ServerComputer;
+import dan200.computercraft.shared.computer.core.ServerComputerRegistry;
 import dan200.computercraft.shared.computer.core.ServerContext;
 import dan200.computercraft.shared.network.container.ComputerContainerData;
 import dan200.computercraft.shared.util.DirectionUtil;
@@ -27,6 +29,7 @@
 import net.minecraft.network.chat.TextComponent;
 import net.minecraft.network.chat.TranslatableComponent;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.*;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
@@ -98,7 +101,50 @@ public void destroy()
     @Override
     public void onChunkUnloaded()
     {
-        unload();
+        if( ComputerCraft.computerParkTime > 0 && canPark() )
+        {
+            park();
+        }
+        else
+        {
+            unload();
+        }
+    }
+
+    /**
+     * Keep this computer running (but paused) after its chunk has been unloaded, so it does not need to reboot when
+     * the chunk is loaded again.
+     *
+     * @see ServerComputer#park(long)
+     */
+    private void park()
+    {
+        if( getLevel().isClientSide ) return;
+
+        ServerComputer computer = getServerComputer();
+        if( computer != null )
+        {
+            if( computer.isOn() )
+            {
+                computer.park( ComputerCraft.computerParkTime * 20L );
+            }
+            else
+            {
+                computer.close();
+            }
+        }
+        instanceID = -1;
+    }
+
+    /**
+     * Whether this computer can be parked when its chunk is unloaded. Computers whose APIs refer to this block entity
+     * should return {@code false}, as they will be attached to a new block entity when the chunk is loaded again.
+     *
+     * @return Whether this computer can be parked.
+     */
+    protected boolean canPark()
+    {
+        return false;
     }
 
     @Override
@@ -375,7 +421,21 @@ public final ServerComputer createServerComputer()
 
         boolean changed = false;
 
-        ServerComputer computer = ServerContext.get( getLevel().getServer() ).registry().get( instanceID );
+        ServerComputerRegistry registry = ServerContext.get( getLevel().getServer() ).registry();
+        ServerComputer computer = registry.get( instanceID );
+        if( computer == null && computerID >= 0 && canPark() )
+        {
+            // If this computer was parked when its chunk was unloaded, reattach it.
+            computer = registry.unpark( getLevel().dimension(), getBlockPos(), computerID );
+            if( computer != null )
+            {
+                computer.setLevel( (ServerLevel) getLevel() );
+                instanceID = computer.register();
+                fresh = true;
+                changed = true;
+            }
+        }
+
         if( computer == null )
         {
             if( computerID < 0 )
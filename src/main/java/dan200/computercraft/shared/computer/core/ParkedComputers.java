@@ -0,0 +1,95 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.core;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Computers whose chunk has been unloaded, but which are being kept around in case it is loaded again. Computers are
+ * removed once they have been parked for longer than their duration.
+ *
+ * @param <K> The key computers are parked under, identifying the block they belong to.
+ * @param <T> The type of computer.
+ * @see ServerComputerRegistry#park(ServerComputer, long)
+ */
+final class ParkedComputers<K, T>
+{
+    private final Map<K, Entry<T>> parked = new HashMap<>();
+    private final Consumer<T> remove;
+    private long ticks;
+
+    /**
+     * @param remove Called when a parked computer expires, or is replaced by another one.
+     */
+    ParkedComputers( Consumer<T> remove )
+    {
+        this.remove = remove;
+    }
+
+    /**
+     * Advance the current time by one tick, removing any computers which have expired.
+     */
+    void update()
+    {
+        ticks++;
+        if( parked.isEmpty() ) return;
+
+        Iterator<Entry<T>> it = parked.values().iterator();
+        while( it.hasNext() )
+        {
+            Entry<T> entry = it.next();
+            if( entry.expires() > ticks ) continue;
+
+            it.remove();
+            remove.accept( entry.computer() );
+        }
+    }
+
+    /**
+     * Park a computer.
+     *
+     * @param key      The key to park this computer under.
+     * @param computer The computer to park.
+     * @param duration How long (in ticks) to keep this computer for.
+     */
+    void park( K key, T computer, long duration )
+    {
+        Entry<T> previous = parked.put( key, new Entry<>( computer, ticks + duration ) );
+        if( previous != null && previous.computer() != computer ) remove.accept( previous.computer() );
+    }
+
+    /**
+     * Find and remove a parked computer.
+     *
+     * @param key The key the computer was parked under.
+     * @return The parked computer, or {@code null} if there was none.
+     */
+    @Nullable
+    T unpark( K key )
+    {
+        Entry<T> entry = parked.remove( key );
+        return entry == null ? null : entry.computer();
+    }
+
+    /**
+     * Remove all parked computers, without calling the removal callback.
+     *
+     * @param action The action to perform on each computer.
+     */
+    void clear( Consumer<T> action )
+    {
+        for( Entry<T> entry : parked.values() ) action.accept( entry.computer() );
+        parked.clear();
+    }
+
+    private record Entry<T>(T computer, long expires)
+    {
+    }
+}
@@ -17,10 +17,12 @@
 import dan200.computercraft.core.metrics.MetricsObserver;
 import dan200.computercraft.shared.computer.menu.ComputerMenu;
 import dan200.computercraft.shared.computer.terminal.NetworkedTerminal;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
 import dan200.computercraft.shared.computer.terminal.TerminalState;
 import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.network.NetworkMessage;
 import dan200.computercraft.shared.network.client.ComputerTerminalClientMessage;
+import dan200.computercraft.shared.network.client.ComputerTerminalDeltaClientMessage;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -114,7 +116,18 @@ public void tickServer()
 
     protected void onTerminalChanged()
     {
-        sendToAllInteracting( c -> new ComputerTerminalClientMessage( c, getTerminalState() ) );
+        // Players who have just opened this computer are sent the full terminal when the menu is opened, so we only
+        // need to send what has changed since the last update.
+        TerminalDelta delta = terminal.pollDelta();
+        if( delta != null )
+        {
+            sendToAllInteracting( c -> new ComputerTerminalDeltaClientMessage( c, delta ) );
+        }
+        else
+        {
+            TerminalState state = getTerminalState();
+            sendToAllInteracting( c -> new ComputerTerminalClientMessage( c, state ) );
+        }
     }
 
     public TerminalState getTerminalState()
@@ -154,6 +167,23 @@ public void close()
         ServerContext.get( level.getServer() ).registry().remove( instanceID );
     }
 
+    /**
+     * Pause this computer and remove it from the registry, keeping its state so that it can be
+     * {@linkplain ServerComputerRegistry#unpark reattached} if its block is loaded again.
+     *
+     * @param duration How long (in ticks) to keep this computer for before shutting it down.
+     */
+    public void park( long duration )
+    {
+        computer.setParked( true );
+        ServerContext.get( level.getServer() ).registry().park( this, duration );
+    }
+
+    void unpark()
+    {
+        computer.setParked( false );
+    }
+
     private void sendToAllInteracting( Function<AbstractContainerMenu, NetworkMessage> createPacket )
     {
         MinecraftServer server = level.getServer();
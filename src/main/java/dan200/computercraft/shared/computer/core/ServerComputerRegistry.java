@@ -7,6 +7,9 @@
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -21,6 +24,11 @@
     private final Int2ObjectMap<ServerComputer> computers = new Int2ObjectOpenHashMap<>();
     private int nextInstanceId;
 
+    private final ParkedComputers<ParkedKey, ServerComputer> parked = new ParkedComputers<>( computer -> {
+        computer.unload();
+        computer.onRemoved();
+    } );
+
     public int getSessionID()
     {
         return sessionId;
@@ -45,6 +53,8 @@ public ServerComputer get( int sessionId, int instanceId )
 
     void update()
     {
+        parked.update();
+
         Iterator<ServerComputer> it = getComputers().iterator();
         while( it.hasNext() )
         {
@@ -81,14 +91,55 @@ void remove( int instanceID )
         computers.remove( instanceID );
     }
 
+    /**
+     * Remove a computer from the registry, but keep it (paused) for a while, so it can be reattached when its block is
+     * loaded again.
+     *
+     * @param computer The computer to park.
+     * @param duration How long (in ticks) to keep this computer for.
+     * @see #unpark(ResourceKey, BlockPos, int)
+     */
+    void park( ServerComputer computer, long duration )
+    {
+        computers.remove( computer.getInstanceID() );
+
+        ParkedKey key = new ParkedKey( computer.getLevel().dimension(), computer.getPosition(), computer.getID() );
+        parked.park( key, computer, duration );
+    }
+
+    /**
+     * Find a parked computer at a given position.
+     *
+     * @param level      The dimension the computer was in.
+     * @param pos        The computer's position.
+     * @param computerId The computer's ID.
+     * @return The parked computer, or {@code null} if there was none. The caller should {@linkplain
+     * ServerComputer#register() register} the computer again.
+     */
+    @Nullable
+    public ServerComputer unpark( ResourceKey<Level> level, BlockPos pos, int computerId )
+    {
+        ServerComputer computer = parked.unpark( new ParkedKey( level, pos, computerId ) );
+        if( computer == null ) return null;
+
+        computer.unpark();
+        return computer;
+    }
+
     void close()
     {
         for( ServerComputer computer : getComputers() ) computer.unload();
         computers.clear();
+
+        parked.clear( ServerComputer::unload );
     }
 
     public Collection<ServerComputer> getComputers()
     {
         return computers.values();
     }
+
+    private record ParkedKey(ResourceKey<Level> level, BlockPos pos, int computerId)
+    {
+    }
 }
@@ -14,6 +14,8 @@
 import dan200.computercraft.core.computer.ComputerThread;
 import dan200.computercraft.core.computer.GlobalEnvironment;
 import dan200.computercraft.core.computer.mainthread.MainThread;
+import dan200.computercraft.core.filesystem.BlobStore;
+import dan200.computercraft.core.filesystem.FileUsageCache;
 import dan200.computercraft.core.lua.CobaltLuaMachine;
 import dan200.computercraft.core.lua.ILuaMachine;
 import dan200.computercraft.shared.CommonHooks;
@@ -57,6 +59,8 @@
     private final ComputerContext context;
     private final MainThread mainThread;
     private final IDAssigner idAssigner;
+    private final FileUsageCache fileUsage;
+    private final @Nullable BlobStore blobStore;
     private final Path storageDir;
 
     private ServerContext( MinecraftServer server )
@@ -66,10 +70,15 @@ private ServerContext( MinecraftServer server )
         mainThread = new MainThread();
         context = new ComputerContext(
             new Environment( server ),
-            new ComputerThread( ComputerCraft.computerThreads ),
+            new ComputerThread(
+                ComputerCraft.minComputerThreads, ComputerCraft.computerThreads,
+                ComputerCraft.computerThreadKeepAlive, TimeUnit.SECONDS
+            ),
             mainThread, luaMachine
         );
         idAssigner = new IDAssigner( storageDir.resolve( "ids.json" ) );
+        fileUsage = new FileUsageCache( storageDir, storageDir.resolve( "usage.json" ) );
+        blobStore = ComputerCraft.deduplicateFiles ? BlobStore.create( storageDir.resolve( "blobs" ) ) : null;
     }
 
     /**
@@ -106,6 +115,9 @@ public static void close()
             Thread.currentThread().interrupt();
         }
 
+        instance.fileUsage.close();
+        if( instance.blobStore != null ) instance.blobStore.close();
+
         ServerContext.instance = null;
     }
 
@@ -184,6 +196,30 @@ public Path storageDir()
         return storageDir;
     }
 
+    /**
+     * Get the cache of how much space each computer and disk's {@linkplain #storageDir() storage folder} uses.
+     *
+     * @return The file usage cache.
+     * @see dan200.computercraft.core.filesystem.FileMount
+     */
+    public FileUsageCache fileUsage()
+    {
+        return fileUsage;
+    }
+
+    /**
+     * Get the store used to share identical files between computers and disks.
+     *
+     * @return The blob store, or {@code null} if {@linkplain ComputerCraft#deduplicateFiles deduplication} is
+     * disabled or not supported.
+     * @see dan200.computercraft.core.filesystem.FileMount
+     */
+    @Nullable
+    public BlobStore blobStore()
+    {
+        return blobStore;
+    }
+
     /**
      * Get the current global metrics store.
      *
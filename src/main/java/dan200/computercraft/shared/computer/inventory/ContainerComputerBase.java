@@ -12,6 +12,7 @@
 import dan200.computercraft.shared.computer.menu.ServerInputHandler;
 import dan200.computercraft.shared.computer.menu.ServerInputState;
 import dan200.computercraft.shared.computer.terminal.NetworkedTerminal;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
 import dan200.computercraft.shared.computer.terminal.TerminalState;
 import dan200.computercraft.shared.network.container.ComputerContainerData;
 import dan200.computercraft.shared.util.SingleIntArray;
@@ -94,6 +95,13 @@ public void updateTerminal( TerminalState state )
         state.apply( terminal );
     }
 
+    @Override
+    public void updateTerminal( TerminalDelta delta )
+    {
+        if( terminal == null ) throw new UnsupportedOperationException( "Cannot update terminal on the server" );
+        delta.apply( terminal );
+    }
+
     /**
      * Get the current terminal state.
      *
@@ -6,6 +6,7 @@
 package dan200.computercraft.shared.computer.menu;
 
 import dan200.computercraft.shared.computer.core.ServerComputer;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
 import dan200.computercraft.shared.computer.terminal.TerminalState;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 
@@ -39,4 +40,13 @@
      * @throws UnsupportedOperationException When used on the server.
      */
     void updateTerminal( TerminalState state );
+
+    /**
+     * Apply an incremental update to the current terminal. This is called on the client when the server syncs the
+     * lines of a computer's terminal which have changed.
+     *
+     * @param delta The changed lines.
+     * @throws UnsupportedOperationException When used on the server.
+     */
+    void updateTerminal( TerminalDelta delta );
 }
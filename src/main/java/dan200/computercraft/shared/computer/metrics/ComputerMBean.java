@@ -9,6 +9,7 @@
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.core.metrics.Metric;
 import dan200.computercraft.core.metrics.Metrics;
+import dan200.computercraft.core.metrics.Profiler;
 import dan200.computercraft.shared.computer.core.ServerComputer;
 import dan200.computercraft.shared.computer.core.ServerContext;
 import dan200.computercraft.shared.computer.metrics.basic.Aggregate;
@@ -24,19 +25,31 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongSupplier;
 
 /**
  * An MBean which exposes aggregate statistics about all computers on the server.
+ * <p>
+ * This also provides operations to {@linkplain Profiler profile} individual computers.
  */
 public final class ComputerMBean implements DynamicMBean, ComputerMetricsObserver
 {
+    /**
+     * How long (in seconds) to wait for the server thread when looking up a computer.
+     */
+    private static final long SERVER_TIMEOUT = 5;
+
     private static @Nullable ComputerMBean instance;
 
     private final Map<String, LongSupplier> attributes = new HashMap<>();
     private final Int2ObjectMap<Counter> values = new Int2ObjectOpenHashMap<>();
     private final MBeanInfo info;
+    private volatile @Nullable MinecraftServer server;
 
     private ComputerMBean()
     {
@@ -49,10 +62,19 @@ private ComputerMBean()
             add( name, field.getValue(), attributes );
         }
 
+        // Coroutines are created and disposed of in pairs, so the difference gives us the number which are alive.
+        Counter created = values.get( Metrics.COROUTINES_CREATED.id() ), disposed = values.get( Metrics.COROUTINES_DISPOSED.id() );
+        attributes.add( addAttribute( "coroutinesAlive", "Live coroutines", () -> created.value.get() - disposed.value.get() ) );
+
         info = new MBeanInfo(
             ComputerMBean.class.getSimpleName(),
             "metrics about all computers on the server",
-            attributes.toArray( new MBeanAttributeInfo[0] ), null, null, null
+            attributes.toArray( new MBeanAttributeInfo[0] ), null,
+            new MBeanOperationInfo[] {
+                new MBeanOperationInfo( "startProfiling", "Start profiling a computer", computerParameter(), "boolean", MBeanOperationInfo.ACTION ),
+                new MBeanOperationInfo( "stopProfiling", "Stop profiling a computer, returning the results as collapsed stacks", computerParameter(), "java.lang.String", MBeanOperationInfo.ACTION ),
+            },
+            null
         );
     }
 
@@ -73,7 +95,9 @@ public static void register()
 
     public static void start( MinecraftServer server )
     {
-        if( instance != null ) ServerContext.get( server ).metrics().addObserver( instance );
+        if( instance == null ) return;
+        instance.server = server;
+        ServerContext.get( server ).metrics().addObserver( instance );
     }
 
     @Override
@@ -110,9 +134,80 @@ public AttributeList setAttributes( AttributeList attributes )
 
     @Nullable
     @Override
-    public Object invoke( String actionName, Object[] params, String[] signature )
+    public Object invoke( String actionName, Object[] params, String[] signature ) throws MBeanException, ReflectionException
+    {
+        switch( actionName )
+        {
+            case "startProfiling":
+            {
+                Profiler profiler = getProfiler( params );
+                if( profiler == null ) return false;
+                profiler.start();
+                return true;
+            }
+            case "stopProfiling":
+            {
+                Profiler profiler = getProfiler( params );
+                if( profiler == null ) return null;
+                profiler.stop();
+                return profiler.toCollapsedStacks();
+            }
+            default:
+                throw new ReflectionException( new NoSuchMethodException( actionName ) );
+        }
+    }
+
+    /**
+     * Find the profiler for a computer.
+     *
+     * @param params The parameters to the operation. The first of which should be the computer's ID.
+     * @return The computer's profiler, or {@code null} if the computer is not loaded.
+     * @throws MBeanException If the parameters are invalid, or the server did not respond in time.
+     */
+    @Nullable
+    private Profiler getProfiler( Object[] params ) throws MBeanException
+    {
+        if( params.length != 1 || !(params[0] instanceof Integer id) )
+        {
+            throw new MBeanException( new IllegalArgumentException( "Expected a computer ID" ) );
+        }
+
+        MinecraftServer server = this.server;
+        if( server == null || !server.isRunning() ) return null;
+
+        // The computer registry is not thread safe, so look up the computer on the server thread. The server may be
+        // stopping or stuck, in which case the task is never run, so don't wait forever.
+        CompletableFuture<Profiler> profiler = server.submit( () -> {
+            for( ServerComputer computer : ServerContext.get( server ).registry().getComputers() )
+            {
+                if( computer.getID() == id ) return computer.getComputer().getProfiler();
+            }
+            return null;
+        } );
+
+        try
+        {
+            return profiler.get( SERVER_TIMEOUT, TimeUnit.SECONDS );
+        }
+        catch( TimeoutException e )
+        {
+            profiler.cancel( false );
+            throw new MBeanException( e, "Server did not respond in time" );
+        }
+        catch( ExecutionException e )
+        {
+            throw new MBeanException( e, "Error finding computer" );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MBeanException( e, "Interrupted while waiting for the server" );
+        }
+    }
+
+    private static MBeanParameterInfo[] computerParameter()
     {
-        return null;
+        return new MBeanParameterInfo[] { new MBeanParameterInfo( "computerId", "int", "The ID of the computer" ) };
     }
 
     @Override
@@ -5,14 +5,20 @@
  */
 package dan200.computercraft.shared.computer.terminal;
 
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.terminal.ColourBuffer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
-import org.apache.commons.lang3.ArrayUtils;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
 
 public class NetworkedTerminal extends Terminal
 {
+    private int deltasSinceKeyframe;
+
     public NetworkedTerminal( int width, int height, boolean colour )
     {
         super( width, height, colour );
@@ -24,29 +30,99 @@ public NetworkedTerminal( int width, int height, boolean colour, Runnable change
     }
 
     public synchronized void write( FriendlyByteBuf buffer )
+    {
+        writeCursor( buffer );
+        for( int y = 0; y < height; y++ ) writeLine( buffer, y );
+    }
+
+    public synchronized void read( FriendlyByteBuf buffer )
+    {
+        readCursor( buffer );
+        for( int y = 0; y < height; y++ ) readLine( buffer, y );
+        setChanged();
+    }
+
+    /**
+     * Write the cursor state and the contents of the given lines.
+     *
+     * @param buffer The buffer to write to.
+     * @param lines  The lines to write. Any lines outside the terminal are ignored.
+     * @see #readLines(FriendlyByteBuf)
+     */
+    synchronized void writeLines( FriendlyByteBuf buffer, BitSet lines )
+    {
+        writeCursor( buffer );
+
+        BitSet visible = lines.get( 0, height );
+        buffer.writeVarInt( visible.cardinality() );
+        for( int y = visible.nextSetBit( 0 ); y >= 0; y = visible.nextSetBit( y + 1 ) )
+        {
+            buffer.writeVarInt( y );
+            writeLine( buffer, y );
+        }
+    }
+
+    /**
+     * Read the cursor state and a set of lines, as written by {@link #writeLines(FriendlyByteBuf, BitSet)}.
+     *
+     * @param buffer The buffer to read from.
+     */
+    synchronized void readLines( FriendlyByteBuf buffer )
+    {
+        readCursor( buffer );
+
+        int count = buffer.readVarInt();
+        for( int i = 0; i < count; i++ )
+        {
+            int y = buffer.readVarInt();
+            if( y < 0 || y >= height ) throw new IndexOutOfBoundsException( "Line " + y + " is out of bounds" );
+            readLine( buffer, y );
+        }
+
+        setChanged();
+    }
+
+    /**
+     * Consume the set of lines which have changed since the last call, building a delta which contains just those
+     * lines.
+     * <p>
+     * This assumes there is a single consumer of changes (such as the owning computer or monitor), which then
+     * broadcasts the delta to every client viewing this terminal. Clients which start viewing the terminal should be
+     * sent a full {@link TerminalState} instead.
+     *
+     * @return A delta of the changed lines, or {@code null} if the whole terminal should be resent instead. This
+     * happens when the terminal has been resized, when most of the terminal has changed, or periodically (every
+     * {@link ComputerCraft#terminalKeyframeInterval} updates) so clients can never drift too far out of sync.
+     */
+    @Nullable
+    public synchronized TerminalDelta pollDelta()
+    {
+        int keyframeInterval = ComputerCraft.terminalKeyframeInterval;
+        if( changedSize || keyframeInterval <= 0 || deltasSinceKeyframe >= keyframeInterval
+            || changedLines.cardinality() * 2 > height )
+        {
+            changedSize = false;
+            changedLines.clear();
+            deltasSinceKeyframe = 0;
+            return null;
+        }
+
+        TerminalDelta delta = new TerminalDelta( this, changedLines );
+        changedLines.clear();
+        deltasSinceKeyframe++;
+        return delta;
+    }
+
+    private void writeCursor( FriendlyByteBuf buffer )
     {
         buffer.writeInt( cursorX );
         buffer.writeInt( cursorY );
         buffer.writeBoolean( cursorBlink );
         buffer.writeInt( cursorBackgroundColour );
         buffer.writeInt( cursorColour );
-
-        for( int y = 0; y < height; y++ )
-        {
-            Buffer<Character> text = (Buffer<Character>) this.text[y];
-            Buffer<Integer> textColour = (Buffer<Integer>) this.textColour[y];
-            Buffer<Integer> backColour = (Buffer<Integer>) backgroundColour[y];
-
-            for( int x = 0; x < width; x++ ) buffer.writeByte( text.get( x ) & 0xFF );
-            for( int x = 0; x < width; x++ )
-            {
-                buffer.writeInt( backColour.get( x ) );
-                buffer.writeInt( textColour.get( x ) );
-            }
-        }
     }
 
-    public synchronized void read( FriendlyByteBuf buffer )
+    private void readCursor( FriendlyByteBuf buffer )
     {
         cursorX = buffer.readInt();
         cursorY = buffer.readInt();
@@ -54,22 +130,35 @@ public synchronized void read( FriendlyByteBuf buffer )
 
         cursorBackgroundColour = buffer.readInt();
         cursorColour = buffer.readInt();
+    }
 
-        for( int y = 0; y < height; y++ )
-        {
-            Buffer<Character> text = (Buffer<Character>) this.text[y];
-            Buffer<Integer> textColour = (Buffer<Integer>) this.textColour[y];
-            Buffer<Integer> backColour = (Buffer<Integer>) backgroundColour[y];
+    private void writeLine( FriendlyByteBuf buffer, int y )
+    {
+        TextBuffer text = this.text[y];
+        ColourBuffer textColour = this.textColour[y];
+        ColourBuffer backColour = backgroundColour[y];
 
-            for( int x = 0; x < width; x++ ) text.set( x, (char) (buffer.readByte() & 0xFF) );
-            for( int x = 0; x < width; x++ )
-            {
-                backColour.set( x, buffer.readInt() );
-                textColour.set( x, buffer.readInt() );
-            }
+        buffer.writeBytes( text.asByteBuffer() );
+        for( int x = 0; x < width; x++ )
+        {
+            buffer.writeInt( backColour.get( x ) );
+            buffer.writeInt( textColour.get( x ) );
         }
+    }
 
-        setChanged();
+    private void readLine( FriendlyByteBuf buffer, int y )
+    {
+        TextBuffer text = this.text[y];
+        ColourBuffer textColour = this.textColour[y];
+        ColourBuffer backColour = backgroundColour[y];
+
+        text.write( buffer.nioBuffer( buffer.readerIndex(), width ), 0 );
+        buffer.skipBytes( width );
+        for( int x = 0; x < width; x++ )
+        {
+            backColour.set( x, buffer.readInt() );
+            textColour.set( x, buffer.readInt() );
+        }
     }
 
     public synchronized CompoundTag writeToNBT( CompoundTag nbt )
@@ -82,9 +171,9 @@ public synchronized CompoundTag writeToNBT( CompoundTag nbt )
 
         for( int n = 0; n < height; n++ )
         {
-            nbt.putString( "term_text_" + n, new String( ArrayUtils.toPrimitive( ((Buffer<Character>)text[n]).getArr() ) ) );
-            nbt.putIntArray( "term_textColour_" + n, ArrayUtils.toPrimitive( ((Buffer<Integer>)textColour[n]).getArr() ) );
-            nbt.putIntArray( "term_textBgColour_" + n, ArrayUtils.toPrimitive( ((Buffer<Integer>)backgroundColour[n]).getArr() ) );
+            nbt.putString( "term_text_" + n, text[n].toString() );
+            nbt.putIntArray( "term_textColour_" + n, textColour[n].toArray() );
+            nbt.putIntArray( "term_textBgColour_" + n, backgroundColour[n].toArray() );
         }
 
         return nbt;
@@ -100,20 +189,20 @@ public synchronized void readFromNBT( CompoundTag nbt )
 
         for( int n = 0; n < height; n++ )
         {
-            ((Buffer<Character>)text[n]).fill( ' ' );
+            text[n].fill( ' ' );
             if( nbt.contains( "term_text_" + n ) )
             {
-                ((Buffer<Character>)text[n]).write( ArrayUtils.toObject( nbt.getString( "term_text_" + n ).toCharArray() ) );
+                text[n].write( nbt.getString( "term_text_" + n ) );
             }
-            ((Buffer<Integer>)textColour[n]).fill( cursorColour );
+            textColour[n].fill( cursorColour );
             if( nbt.contains( "term_textColour_" + n ) )
             {
-                ((Buffer<Integer>)textColour[n]).write( ArrayUtils.toObject( nbt.getIntArray( "term_textColour_" + n ) ) );
+                textColour[n].write( nbt.getIntArray( "term_textColour_" + n ) );
             }
-            ((Buffer<Integer>)backgroundColour[n]).fill( cursorBackgroundColour );
+            backgroundColour[n].fill( cursorBackgroundColour );
             if( nbt.contains( "term_textBgColour_" + n ) )
             {
-                ((Buffer<Integer>)backgroundColour[n]).write( ArrayUtils.toObject( nbt.getIntArray( "term_textBgColour_" + n ) ) );
+                backgroundColour[n].write( nbt.getIntArray( "term_textBgColour_" + n ) );
             }
         }
 
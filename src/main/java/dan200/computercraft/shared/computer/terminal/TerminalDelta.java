@@ -0,0 +1,76 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.terminal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+
+import java.util.BitSet;
+
+/**
+ * An incremental update to a terminal, containing the cursor state and only those lines which have changed since the
+ * last update.
+ * <p>
+ * Unlike {@link TerminalState}, this is not a complete description of the terminal, and so can only be applied to a
+ * terminal which is already in sync with the server. Deltas contain the full contents of each changed line, so applying
+ * the same delta twice (or applying it on top of a newer {@link TerminalState}) is harmless.
+ *
+ * @see NetworkedTerminal#pollDelta()
+ */
+public class TerminalDelta
+{
+    public final int width;
+    public final int height;
+
+    private final ByteBuf buffer;
+
+    TerminalDelta( NetworkedTerminal terminal, BitSet lines )
+    {
+        width = terminal.getWidth();
+        height = terminal.getHeight();
+
+        ByteBuf buf = buffer = Unpooled.buffer();
+        terminal.writeLines( new FriendlyByteBuf( buf ), lines );
+    }
+
+    public TerminalDelta( FriendlyByteBuf buf )
+    {
+        width = buf.readVarInt();
+        height = buf.readVarInt();
+
+        int length = buf.readVarInt();
+        buffer = Unpooled.buffer( length );
+        buf.readBytes( buffer, length );
+    }
+
+    public void write( FriendlyByteBuf buf )
+    {
+        buf.writeVarInt( width );
+        buf.writeVarInt( height );
+        buf.writeVarInt( buffer.readableBytes() );
+        buf.writeBytes( buffer, buffer.readerIndex(), buffer.readableBytes() );
+    }
+
+    public int size()
+    {
+        return buffer.readableBytes();
+    }
+
+    /**
+     * Apply this delta to a terminal.
+     *
+     * @param terminal The terminal to update.
+     * @return Whether this delta could be applied. This will be {@code false} if the terminal is a different size to
+     * the one this delta was created from, in which case the caller should wait for the next full update.
+     */
+    public boolean apply( NetworkedTerminal terminal )
+    {
+        if( terminal.getWidth() != width || terminal.getHeight() != height ) return false;
+        terminal.readLines( new FriendlyByteBuf( buffer.duplicate() ) );
+        return true;
+    }
+}
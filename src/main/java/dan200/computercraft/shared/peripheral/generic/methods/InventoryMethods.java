@@ -10,6 +10,9 @@
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.LuaTable;
+import dan200.computercraft.api.lua.LuaValues;
+import dan200.computercraft.api.lua.ObjectLuaTable;
 import dan200.computercraft.api.peripheral.GenericPeripheral;
 import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.api.peripheral.IPeripheral;
@@ -27,10 +30,10 @@
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
+import static dan200.computercraft.api.lua.LuaValues.badField;
+import static dan200.computercraft.api.lua.LuaValues.badTableItem;
 import static dan200.computercraft.shared.peripheral.generic.methods.ArgumentHelpers.assertBetween;
 
 /**
@@ -94,12 +97,129 @@ public static int size( IItemHandler inventory )
     @LuaFunction( mainThread = true )
     public static Map<Integer, Map<String, ?>> list( IItemHandler inventory )
     {
-        Map<Integer, Map<String, ?>> result = new HashMap<>();
-        int size = inventory.getSlots();
+        return listItems( inventory );
+    }
+
+    /**
+     * Get a token representing the current contents of this inventory.
+     * <p>
+     * The token changes whenever the contents of this inventory change, and so can be used to cheaply check whether
+     * an inventory has changed, without needing to {@link #list} it. Tokens are unique across all inventories.
+     *
+     * @param inventory The current inventory.
+     * @return A token for the current contents of this inventory.
+     * @cc.usage Wait until an adjacent chest changes.
+     * <pre>{@code
+     * local chest = peripheral.find("minecraft:chest")
+     * local token = chest.getChangeToken()
+     * while chest.getChangeToken() == token do sleep(1) end
+     * print("Chest changed!")
+     * }</pre>
+     * @cc.since 1.102.0
+     * @see #listChanged To find which slots have changed.
+     */
+    @LuaFunction( mainThread = true )
+    public static long getChangeToken( IItemHandler inventory )
+    {
+        return InventoryTracker.get( inventory ).update( inventory ).version();
+    }
+
+    /**
+     * List the slots in this inventory which have changed since a previous token.
+     * <p>
+     * This returns the current {@linkplain #getChangeToken change token}, along with a table of changed slots. Each
+     * changed slot maps to the item now in that slot (in the same format as {@link #list}), or {@code false} if it is
+     * now empty. If the inventory has not changed, this table is empty.
+     * <p>
+     * Only the last few tokens for each inventory are remembered. If the given token is too old (or no token is given),
+     * this returns every non-empty slot instead, much like {@link #list}. The third return value indicates whether this
+     * happened.
+     *
+     * @param inventory The current inventory.
+     * @param token     The token returned from a previous call to this function or {@link #getChangeToken}.
+     * @return The new token, the changed slots, and whether all slots were listed.
+     * @cc.treturn number The current change token.
+     * @cc.treturn { [number] = table|false } The slots which have changed.
+     * @cc.treturn boolean Whether the token was unknown, and so all slots were listed.
+     * @cc.usage Keep track of the items in a chest, only looking at slots which have changed.
+     * <pre>{@code
+     * local chest = peripheral.find("minecraft:chest")
+     * local items, token = {}, nil
+     * while true do
+     *   local changes, full
+     *   token, changes, full = chest.listChanged(token)
+     *   if full then items = {} end
+     *   for slot, item in pairs(changes) do items[slot] = item or nil end
+     *   sleep(1)
+     * end
+     * }</pre>
+     * @cc.since 1.102.0
+     */
+    @LuaFunction( mainThread = true )
+    public static Object[] listChanged( IItemHandler inventory, Optional<Long> token )
+    {
+        InventoryTracker tracker = InventoryTracker.get( inventory );
+        InventoryTracker.Snapshot current = tracker.update( inventory );
+        InventoryTracker.Snapshot previous = token.isPresent() ? tracker.find( token.get() ) : null;
+        if( previous == current ) return new Object[] { current.version(), Collections.emptyMap(), false };
+
+        Map<Integer, Object> changes = new HashMap<>();
+        int size = Math.max( current.stacks().length, previous == null ? 0 : previous.stacks().length );
         for( int i = 0; i < size; i++ )
         {
-            ItemStack stack = inventory.getStackInSlot( i );
-            if( !stack.isEmpty() ) result.put( i + 1, DetailRegistries.ITEM_STACK.getBasicDetails( stack ) );
+            ItemStack stack = current.get( i );
+            if( previous == null ? stack.isEmpty() : ItemStack.matches( stack, previous.get( i ) ) ) continue;
+            changes.put( i + 1, stack.isEmpty() ? false : DetailRegistries.ITEM_STACK.getBasicDetails( stack ) );
+        }
+
+        return new Object[] { current.version(), changes, previous == null };
+    }
+
+    /**
+     * List all items in several inventories at once.
+     * <p>
+     * This returns a table mapping each inventory's name to the result of calling {@link #list} on it. Listing every
+     * inventory with a single call is significantly faster than calling {@link #list} on each one in turn, as the
+     * latter has to wait for the server to tick between each call.
+     * <p>
+     * Like {@link #pushItems}, the inventories must be <em>on the same wired network</em> as this one. Names which do
+     * not exist or are not inventories are skipped.
+     *
+     * @param inventory The current inventory.
+     * @param computer  The current computer.
+     * @param names     A list of inventory names, as given to @{peripheral.wrap}.
+     * @return All items in each inventory.
+     * @throws LuaException If the list of names is malformed.
+     * @cc.treturn { [string] = { (table|nil)... } } All items in each inventory.
+     * @cc.usage Count all items in every connected chest.
+     *
+     * <pre>{@code
+     * local chest = peripheral.find("minecraft:chest")
+     * local counts = {}
+     * for _, items in pairs(chest.listMany(peripheral.getNames())) do
+     *   for _, item in pairs(items) do
+     *     counts[item.name] = (counts[item.name] or 0) + item.count
+     *   end
+     * end
+     * }</pre>
+     * @cc.since 1.102.0
+     */
+    @LuaFunction( mainThread = true )
+    public static Map<String, Map<Integer, Map<String, ?>>> listMany( IItemHandler inventory, IComputerAccess computer, Map<?, ?> names ) throws LuaException
+    {
+        LuaTable<?, ?> table = new ObjectLuaTable( names );
+        int length = table.length();
+
+        Map<String, Map<Integer, Map<String, ?>>> result = new HashMap<>( length );
+        for( int i = 1; i <= length; i++ )
+        {
+            Object name = table.get( (double) i );
+            if( !(name instanceof String inventoryName) ) throw badTableItem( i, "string", LuaValues.getType( name ) );
+            if( result.containsKey( inventoryName ) ) continue;
+
+            IPeripheral location = computer.getAvailablePeripheral( inventoryName );
+            IItemHandler handler = location == null ? null : extractHandler( location.getTarget() );
+            if( handler != null ) result.put( inventoryName, listItems( handler ) );
         }
 
         return result;
@@ -274,6 +394,99 @@ public static int pullItems(
         return moveItem( from, fromSlot - 1, to, toSlot.orElse( 0 ) - 1, actualLimit );
     }
 
+    /**
+     * Perform several {@link #pushItems} transfers at once.
+     * <p>
+     * Each transfer is a table with the name of the inventory to push to (`to`), the slot to move from (`fromSlot`),
+     * and optionally the maximum number of items to move (`limit`) and the slot to move to (`toSlot`). Transfers are
+     * performed in order, and so later transfers see the result of earlier ones.
+     * <p>
+     * All transfers happen within a single server tick, making this significantly faster than calling
+     * {@link #pushItems} for each one.
+     *
+     * @param from      Inventory to move items from.
+     * @param computer  The current computer.
+     * @param transfers The list of transfers to perform.
+     * @return The number of items moved by each transfer.
+     * @throws LuaException If any transfer is malformed, or refers to a peripheral or slot which does not exist. In
+     *                      this case, no items are moved.
+     * @cc.treturn { number... } The number of items moved by each transfer.
+     * @cc.usage Move the first two slots of one chest into another.
+     * <pre>{@code
+     * local chest_a = peripheral.wrap("minecraft:chest_0")
+     * local chest_b = peripheral.getName(peripheral.wrap("minecraft:chest_1"))
+     *
+     * local moved = chest_a.pushItemsBatch({
+     *   { to = chest_b, fromSlot = 1 },
+     *   { to = chest_b, fromSlot = 2, limit = 8, toSlot = 1 },
+     * })
+     * print(moved[1], moved[2])
+     * }</pre>
+     * @cc.since 1.102.0
+     */
+    @LuaFunction( mainThread = true )
+    public static List<Integer> pushItemsBatch( IItemHandler from, IComputerAccess computer, Map<?, ?> transfers ) throws LuaException
+    {
+        LuaTable<?, ?> table = new ObjectLuaTable( transfers );
+        int length = table.length();
+
+        // Validate every transfer before moving anything, so a malformed batch has no effect.
+        Map<String, IItemHandler> targets = new HashMap<>();
+        List<Transfer> toPerform = new ArrayList<>( length );
+        for( int i = 1; i <= length; i++ )
+        {
+            Object value = table.get( (double) i );
+            if( !(value instanceof Map<?, ?> map) ) throw badTableItem( i, "table", LuaValues.getType( value ) );
+            LuaTable<?, ?> transfer = new ObjectLuaTable( map );
+
+            Object toName = transfer.get( "to" );
+            if( !(toName instanceof String name) ) throw badField( "to", "string", LuaValues.getType( toName ) );
+
+            IItemHandler to = targets.get( name );
+            if( to == null )
+            {
+                IPeripheral location = computer.getAvailablePeripheral( name );
+                if( location == null ) throw new LuaException( "Target '" + name + "' does not exist" );
+
+                to = extractHandler( location.getTarget() );
+                if( to == null ) throw new LuaException( "Target '" + name + "' is not an inventory" );
+                targets.put( name, to );
+            }
+
+            int fromSlot = transfer.getInt( "fromSlot" );
+            int limit = transfer.containsKey( "limit" ) ? transfer.getInt( "limit" ) : Integer.MAX_VALUE;
+            int toSlot = transfer.containsKey( "toSlot" ) ? transfer.getInt( "toSlot" ) : 0;
+            assertBetween( fromSlot, 1, from.getSlots(), "From slot out of range (%s)" );
+            if( toSlot != 0 ) assertBetween( toSlot, 1, to.getSlots(), "To slot out of range (%s)" );
+
+            toPerform.add( new Transfer( to, fromSlot - 1, toSlot - 1, limit ) );
+        }
+
+        List<Integer> moved = new ArrayList<>( toPerform.size() );
+        for( Transfer transfer : toPerform )
+        {
+            moved.add( transfer.limit() <= 0 ? 0 : moveItem( from, transfer.fromSlot(), transfer.to(), transfer.toSlot(), transfer.limit() ) );
+        }
+        return moved;
+    }
+
+    private record Transfer(IItemHandler to, int fromSlot, int toSlot, int limit)
+    {
+    }
+
+    private static Map<Integer, Map<String, ?>> listItems( IItemHandler inventory )
+    {
+        Map<Integer, Map<String, ?>> result = new HashMap<>();
+        int size = inventory.getSlots();
+        for( int i = 0; i < size; i++ )
+        {
+            ItemStack stack = inventory.getStackInSlot( i );
+            if( !stack.isEmpty() ) result.put( i + 1, DetailRegistries.ITEM_STACK.getBasicDetails( stack ) );
+        }
+
+        return result;
+    }
+
     @Nullable
     private static IItemHandler extractHandler( @Nullable Object object )
     {
@@ -0,0 +1,124 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.generic.methods;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks changes to an inventory, allowing {@link InventoryMethods#listChanged} to only return slots which have changed.
+ * <p>
+ * Each tracker stores the last few versions of the inventory's contents. When an inventory is updated, we compare each
+ * slot to the latest version, only copying those slots which have changed. Versions are numbered from a global counter,
+ * so a version from one inventory will never be mistaken for a version of another.
+ */
+final class InventoryTracker
+{
+    private static final int HISTORY = 4;
+
+    private static final AtomicLong nextVersion = new AtomicLong( 1 );
+
+    private static final Cache<IItemHandler, InventoryTracker> trackers = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build();
+
+    private final Deque<Snapshot> history = new ArrayDeque<>( HISTORY );
+
+    private InventoryTracker()
+    {
+    }
+
+    static InventoryTracker get( IItemHandler inventory )
+    {
+        try
+        {
+            return trackers.get( inventory, InventoryTracker::new );
+        }
+        catch( ExecutionException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Update this tracker with the current contents of the inventory.
+     *
+     * @param inventory The inventory to track.
+     * @return The latest snapshot of this inventory.
+     */
+    synchronized Snapshot update( IItemHandler inventory )
+    {
+        Snapshot latest = history.peekFirst();
+        int size = inventory.getSlots();
+
+        ItemStack[] stacks = null;
+        for( int i = 0; i < size; i++ )
+        {
+            ItemStack stack = inventory.getStackInSlot( i );
+            ItemStack previous = latest != null && i < latest.stacks().length ? latest.stacks()[i] : ItemStack.EMPTY;
+            if( ItemStack.matches( stack, previous ) ) continue;
+
+            // Only allocate a new snapshot once something has changed.
+            if( stacks == null ) stacks = copyOf( latest, size );
+            stacks[i] = stack.isEmpty() ? ItemStack.EMPTY : stack.copy();
+        }
+
+        if( stacks == null && latest != null && latest.stacks().length == size ) return latest;
+        if( stacks == null ) stacks = copyOf( latest, size );
+
+        Snapshot snapshot = new Snapshot( nextVersion.getAndIncrement(), stacks );
+        if( history.size() >= HISTORY ) history.removeLast();
+        history.addFirst( snapshot );
+        return snapshot;
+    }
+
+    /**
+     * Find a previous snapshot of this inventory.
+     *
+     * @param version The snapshot's version.
+     * @return The snapshot, or {@code null} if it is no longer stored.
+     */
+    @Nullable
+    synchronized Snapshot find( long version )
+    {
+        for( Snapshot snapshot : history )
+        {
+            if( snapshot.version() == version ) return snapshot;
+        }
+        return null;
+    }
+
+    private static ItemStack[] copyOf( @Nullable Snapshot snapshot, int size )
+    {
+        ItemStack[] stacks = new ItemStack[size];
+        int copied = snapshot == null ? 0 : Math.min( size, snapshot.stacks().length );
+        if( snapshot != null ) System.arraycopy( snapshot.stacks(), 0, stacks, 0, copied );
+        for( int i = copied; i < size; i++ ) stacks[i] = ItemStack.EMPTY;
+        return stacks;
+    }
+
+    /**
+     * An immutable copy of an inventory's contents.
+     *
+     * @param version The version of this snapshot.
+     * @param stacks  The items in each slot. Neither this array nor its stacks should be modified.
+     */
+    record Snapshot(long version, ItemStack[] stacks)
+    {
+        ItemStack get( int slot )
+        {
+            return slot < stacks.length ? stacks[slot] : ItemStack.EMPTY;
+        }
+    }
+}
@@ -34,7 +34,11 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
 {
     private final WiredModemElement modem;
 
-    private final Map<IComputerAccess, ConcurrentMap<String, RemotePeripheralWrapper>> peripheralWrappers = new HashMap<>( 1 );
+    /**
+     * The remote peripherals visible to each attached computer. This map is only modified while holding its lock, but
+     * may be read without it, allowing {@link #callRemote} to avoid any locking.
+     */
+    private final Map<IComputerAccess, ConcurrentMap<String, RemotePeripheralWrapper>> peripheralWrappers = new ConcurrentHashMap<>( 1 );
 
     public WiredModemPeripheral( ModemState state, WiredModemElement modem )
     {
@@ -324,10 +328,7 @@ private void attachPeripheralImpl( IComputerAccess computer, ConcurrentMap<Strin
 
     private ConcurrentMap<String, RemotePeripheralWrapper> getWrappers( IComputerAccess computer )
     {
-        synchronized( peripheralWrappers )
-        {
-            return peripheralWrappers.get( computer );
-        }
+        return peripheralWrappers.get( computer );
     }
 
     private RemotePeripheralWrapper getWrapper( IComputerAccess computer, String remoteName )
@@ -62,6 +62,15 @@ public double getRange()
         }
     }
 
+    /**
+     * Notify the wireless network that this modem may have moved. Modems which can move (such as those on turtles and
+     * pocket computers) should call this every tick.
+     */
+    public void updateLocation()
+    {
+        if( getNetwork() instanceof WirelessNetwork network ) network.updateReceiver( this );
+    }
+
     @Override
     protected IPacketNetwork getNetwork()
     {
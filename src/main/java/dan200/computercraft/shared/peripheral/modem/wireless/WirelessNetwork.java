@@ -5,19 +5,43 @@
  */
 package dan200.computercraft.shared.peripheral.modem.wireless;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.network.IPacketNetwork;
 import dan200.computercraft.api.network.IPacketReceiver;
 import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nonnull;
-import java.util.Collections;
-import java.util.Objects;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The network all wireless (and ender) modems are connected to.
+ * <p>
+ * Normal wireless modems are stored in a spatial index, grouping them into columns of {@link #BUCKET_SIZE} blocks
+ * within each level. Transmitting a packet then only needs to visit those columns which are within range of the sender.
+ * Ender modems (and any receivers from other mods, whose range we cannot bound) are kept in a separate set, and are
+ * checked on every transmission.
+ * <p>
+ * Modems which can move (such as those on turtles and pocket computers) must call
+ * {@link WirelessModemPeripheral#updateLocation()} whenever their position changes.
+ */
 public class WirelessNetwork implements IPacketNetwork
 {
+    private static final int BUCKET_BITS = 7;
+    private static final int BUCKET_SIZE = 1 << BUCKET_BITS;
+
+    /**
+     * How far a receiver may have moved since it last updated its location. Mobile modems update once a tick, so this
+     * only needs to cover movement within a single tick.
+     */
+    private static final double MOVE_MARGIN = 8;
+
     private static WirelessNetwork universalNetwork = null;
 
     public static WirelessNetwork getUniversal()
@@ -32,26 +56,119 @@ public static void resetNetworks()
     }
 
     private final Set<IPacketReceiver> receivers = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+    private final Set<IPacketReceiver> unbounded = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+
+    /**
+     * The last known location of each indexed receiver. This is only accessed while holding the lock on this network.
+     */
+    private final Map<IPacketReceiver, Location> locations = new HashMap<>();
+    private final Map<Level, Map<Long, Set<IPacketReceiver>>> buckets = new ConcurrentHashMap<>();
 
     @Override
-    public void addReceiver( @Nonnull IPacketReceiver receiver )
+    public synchronized void addReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.add( receiver );
+        if( !receivers.add( receiver ) ) return;
+
+        if( receiver instanceof WirelessModemPeripheral && !receiver.isInterdimensional() )
+        {
+            Location location = Location.of( receiver );
+            locations.put( receiver, location );
+            addToBucket( receiver, location );
+        }
+        else
+        {
+            unbounded.add( receiver );
+        }
     }
 
     @Override
-    public void removeReceiver( @Nonnull IPacketReceiver receiver )
+    public synchronized void removeReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.remove( receiver );
+        if( !receivers.remove( receiver ) ) return;
+
+        unbounded.remove( receiver );
+        Location location = locations.remove( receiver );
+        if( location != null ) removeFromBucket( receiver, location );
+    }
+
+    /**
+     * Update the location of a receiver within the index. This does nothing if the receiver is not on this network.
+     *
+     * @param receiver The receiver which may have moved.
+     */
+    synchronized void updateReceiver( @Nonnull IPacketReceiver receiver )
+    {
+        Location oldLocation = locations.get( receiver );
+        if( oldLocation == null ) return;
+
+        Location newLocation = Location.of( receiver );
+        if( newLocation.equals( oldLocation ) ) return;
+
+        locations.put( receiver, newLocation );
+        removeFromBucket( receiver, oldLocation );
+        addToBucket( receiver, newLocation );
+    }
+
+    private void addToBucket( IPacketReceiver receiver, Location location )
+    {
+        if( location.level() == null ) return;
+        buckets.computeIfAbsent( location.level(), x -> new ConcurrentHashMap<>() )
+            .computeIfAbsent( location.key(), x -> Collections.newSetFromMap( new ConcurrentHashMap<>() ) )
+            .add( receiver );
+    }
+
+    private void removeFromBucket( IPacketReceiver receiver, Location location )
+    {
+        if( location.level() == null ) return;
+        Map<Long, Set<IPacketReceiver>> levelBuckets = buckets.get( location.level() );
+        if( levelBuckets == null ) return;
+
+        Set<IPacketReceiver> bucket = levelBuckets.get( location.key() );
+        if( bucket == null ) return;
+
+        bucket.remove( receiver );
+        if( bucket.isEmpty() ) levelBuckets.remove( location.key() );
+        if( levelBuckets.isEmpty() ) buckets.remove( location.level() );
     }
 
     @Override
     public void transmitSameDimension( @Nonnull Packet packet, double range )
     {
         Objects.requireNonNull( packet, "packet cannot be null" );
-        for( IPacketReceiver device : receivers ) tryTransmit( device, packet, range, false );
+        for( IPacketReceiver device : unbounded ) tryTransmit( device, packet, range, false );
+
+        IPacketSender sender = packet.sender();
+        Level level = sender.getLevel();
+        Map<Long, Set<IPacketReceiver>> levelBuckets = level == null ? null : buckets.get( level );
+        if( levelBuckets == null ) return;
+
+        // Range is symmetrical, so we need to consider receivers which can reach us, as well as those we can reach.
+        Vec3 position = sender.getPosition();
+        double radius = Math.max( range, getMaxRange() ) + MOVE_MARGIN;
+        int minX = bucket( position.x - radius ), maxX = bucket( position.x + radius );
+        int minZ = bucket( position.z - radius ), maxZ = bucket( position.z + radius );
+
+        if( ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1) >= levelBuckets.size() )
+        {
+            // If we'd visit more columns than exist, just scan everything in this level.
+            for( Set<IPacketReceiver> bucket : levelBuckets.values() )
+            {
+                for( IPacketReceiver device : bucket ) tryTransmit( device, packet, range, false );
+            }
+            return;
+        }
+
+        for( int x = minX; x <= maxX; x++ )
+        {
+            for( int z = minZ; z <= maxZ; z++ )
+            {
+                Set<IPacketReceiver> bucket = levelBuckets.get( ChunkPos.asLong( x, z ) );
+                if( bucket == null ) continue;
+                for( IPacketReceiver device : bucket ) tryTransmit( device, packet, range, false );
+            }
+        }
     }
 
     @Override
@@ -82,6 +199,41 @@ private static void tryTransmit( IPacketReceiver receiver, Packet packet, double
         }
     }
 
+    /**
+     * The maximum range of any indexed (i.e. non-ender) modem.
+     *
+     * @return The maximum range.
+     * @see WirelessModemPeripheral#getRange()
+     */
+    private static double getMaxRange()
+    {
+        return Math.max(
+            Math.max( ComputerCraft.modemRange, ComputerCraft.modemHighAltitudeRange ),
+            Math.max( ComputerCraft.modemRangeDuringStorm, ComputerCraft.modemHighAltitudeRangeDuringStorm )
+        );
+    }
+
+    private static int bucket( double coordinate )
+    {
+        return Mth.floor( coordinate ) >> BUCKET_BITS;
+    }
+
+    private record Location(@Nullable Level level, int x, int z)
+    {
+        static Location of( IPacketReceiver receiver )
+        {
+            Level level = receiver.getLevel();
+            Vec3 position = receiver.getPosition();
+            if( level == null || position == null ) return new Location( null, 0, 0 );
+            return new Location( level, bucket( position.x ), bucket( position.z ) );
+        }
+
+        long key()
+        {
+            return ChunkPos.asLong( x, z );
+        }
+    }
+
     @Override
     public boolean isWireless()
     {
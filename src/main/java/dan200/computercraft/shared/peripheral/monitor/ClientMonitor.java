@@ -10,6 +10,7 @@
 import dan200.computercraft.client.util.DirectVertexBuffer;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.computer.terminal.NetworkedTerminal;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
 import dan200.computercraft.shared.computer.terminal.TerminalState;
 import net.minecraft.core.BlockPos;
 import net.minecraftforge.api.distmarker.Dist;
@@ -196,4 +197,9 @@ void read( TerminalState state )
             }
         }
     }
+
+    void read( TerminalDelta delta )
+    {
+        if( terminal != null && delta.apply( terminal ) ) terminalChanged = true;
+    }
 }
@@ -6,9 +6,12 @@
 package dan200.computercraft.shared.peripheral.monitor;
 
 import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.computer.terminal.NetworkedTerminal;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
+import dan200.computercraft.shared.computer.terminal.TerminalState;
 import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.network.client.MonitorClientMessage;
-import dan200.computercraft.shared.computer.terminal.TerminalState;
+import dan200.computercraft.shared.network.client.MonitorDeltaClientMessage;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -54,11 +57,12 @@ public static void onWatch( ChunkWatchEvent.Watch event )
 
         for( BlockEntity te : chunk.getBlockEntities().values() )
         {
-            // Find all origin monitors who are not already on the queue.
+            // Find all origin monitors. Even if the monitor is already queued, the pending update may only contain
+            // the lines which have changed, so the new player always needs the full terminal.
             if( !(te instanceof TileMonitor monitor) ) continue;
 
             ServerMonitor serverMonitor = getMonitor( monitor );
-            if( serverMonitor == null || monitor.enqueued ) continue;
+            if( serverMonitor == null ) continue;
 
             // The chunk hasn't been sent to the client yet, so we can't send an update. Do it on tick end.
             playerUpdates.add( new PlayerUpdate( event.getPlayer(), monitor ) );
@@ -74,7 +78,7 @@ public static void onTick( TickEvent.ServerTickEvent event )
         while( (playerUpdate = playerUpdates.poll()) != null )
         {
             TileMonitor tile = playerUpdate.monitor;
-            if( tile.enqueued || tile.isRemoved() ) continue;
+            if( tile.isRemoved() ) continue;
 
             ServerMonitor monitor = getMonitor( tile );
             if( monitor == null ) continue;
@@ -84,7 +88,10 @@ public static void onTick( TickEvent.ServerTickEvent event )
             ServerPlayer player = playerUpdate.player;
             if( !player.isAlive() || player.getLevel() != tile.getLevel() ) continue;
 
-            NetworkHandler.sendToPlayer( playerUpdate.player, new MonitorClientMessage( tile.getBlockPos(), getState( tile, monitor ) ) );
+            // If the monitor is queued, the cached state may be out of date, so take a fresh snapshot instead. Any
+            // changes since then will be sent with the queued update.
+            TerminalState state = tile.enqueued ? new TerminalState( monitor.getTerminal() ) : getState( tile, monitor );
+            NetworkHandler.sendToPlayer( playerUpdate.player, new MonitorClientMessage( tile.getBlockPos(), state ) );
         }
 
         long limit = ComputerCraft.monitorBandwidth;
@@ -107,10 +114,19 @@ public static void onTick( TickEvent.ServerTickEvent event )
                 continue;
             }
 
-            TerminalState state = getState( tile, monitor );
-            NetworkHandler.sendToAllTracking( new MonitorClientMessage( pos, state ), chunk );
-
-            limit -= state.size();
+            NetworkedTerminal terminal = monitor.getTerminal();
+            TerminalDelta delta = terminal == null ? null : terminal.pollDelta();
+            if( delta != null )
+            {
+                NetworkHandler.sendToAllTracking( new MonitorDeltaClientMessage( pos, delta ), chunk );
+                limit -= delta.size();
+            }
+            else
+            {
+                TerminalState state = tile.cached = new TerminalState( terminal );
+                NetworkHandler.sendToAllTracking( new MonitorClientMessage( pos, state ), chunk );
+                limit -= state.size();
+            }
         }
     }
 
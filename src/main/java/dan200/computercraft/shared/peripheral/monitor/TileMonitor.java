@@ -11,6 +11,7 @@
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.common.TileGeneric;
+import dan200.computercraft.shared.computer.terminal.TerminalDelta;
 import dan200.computercraft.shared.computer.terminal.TerminalState;
 import dan200.computercraft.shared.util.CapabilityUtil;
 import dan200.computercraft.shared.util.TickScheduler;
@@ -323,6 +324,19 @@ public final void read( TerminalState state )
         clientMonitor.read( state );
     }
 
+    public final void read( TerminalDelta delta )
+    {
+        if( xIndex != 0 || yIndex != 0 )
+        {
+            ComputerCraft.log.warn( "Receiving monitor state for non-origin terminal at {}", getBlockPos() );
+            return;
+        }
+
+        // If we've not received the full terminal yet, there's nothing to apply this delta to. We'll be sent a full
+        // state once the server knows we're watching.
+        if( clientMonitor != null ) clientMonitor.read( delta );
+    }
+
     // Sizing and placement stuff
 
     private void updateBlockState()
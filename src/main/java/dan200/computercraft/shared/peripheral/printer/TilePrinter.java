@@ -37,7 +37,6 @@
 import net.minecraftforge.items.wrapper.InvWrapper;
 import net.minecraftforge.items.wrapper.SidedInvWrapper;
 import net.minecraftforge.network.NetworkHooks;
-import org.apache.commons.lang3.ArrayUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -360,7 +359,7 @@ private boolean inputPage()
                 int[][] textColour = ItemPrintout.getColours( paperStack );
                 for( int y = 0; y < page.getHeight(); y++ )
                 {
-                    page.setLine( y, text[y], ArrayUtils.toObject( textColour[y] ), new Integer[] { } );
+                    page.setLine( y, text[y], textColour[y], new int[0] );
                 }
             }
             else
@@ -395,8 +394,8 @@ private boolean outputPage()
         int[][] colours = new int[height][];
         for( int i = 0; i < height; i++ )
         {
-            lines[i] = new String( ArrayUtils.toPrimitive( page.getLine( i ).getArr() ) );
-            colours[i] = ArrayUtils.toPrimitive( page.getTextColourLine( i ).getArr() );
+            lines[i] = page.getLine( i ).toString();
+            colours[i] = page.getTextColourLine( i ).toArray();
         }
 
         ItemStack stack = ItemPrintout.createSingleFromTitleAndText( pageTitle, lines, colours );
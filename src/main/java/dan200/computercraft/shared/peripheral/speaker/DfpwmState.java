@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.shared.peripheral.speaker;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.LuaTable;
 import dan200.computercraft.shared.util.PauseAwareTimer;
@@ -24,12 +25,6 @@
 {
     private static final long SECOND = TimeUnit.SECONDS.toNanos( 1 );
 
-    /**
-     * The minimum size of the client's audio buffer. Once we have less than this on the client, we should send another
-     * batch of audio.
-     */
-    private static final long CLIENT_BUFFER = (long) (SECOND * 0.5);
-
     private static final int PREC = 10;
 
     private int charge = 0; // q
@@ -60,23 +55,7 @@ synchronized boolean pushBuffer( LuaTable<?, ?> table, int size, @Nonnull Option
                 }
 
                 boolean currentBit = level > charge || (level == charge && charge == 127);
-
-                // Identical to DfpwmStream. Not happy with this, but saves some inheritance.
-                int target = currentBit ? 127 : -128;
-
-                // q' <- q + (s * (t - q) + 128)/256
-                int nextCharge = charge + ((strength * (target - charge) + (1 << (PREC - 1))) >> PREC);
-                if( nextCharge == charge && nextCharge != target ) nextCharge += currentBit ? 1 : -1;
-
-                int z = currentBit == previousBit ? (1 << PREC) - 1 : 0;
-
-                int nextStrength = strength;
-                if( strength != z ) nextStrength += currentBit == previousBit ? 1 : -1;
-                if( nextStrength < 2 << (PREC - 8) ) nextStrength = 2 << (PREC - 8);
-
-                charge = nextCharge;
-                strength = nextStrength;
-                previousBit = currentBit;
+                update( currentBit );
 
                 thisByte = (thisByte >> 1) + (currentBit ? 128 : 0);
             }
@@ -86,14 +65,71 @@ synchronized boolean pushBuffer( LuaTable<?, ?> table, int size, @Nonnull Option
 
         buffer.flip();
 
-        pendingAudio = buffer;
-        pendingVolume = Mth.clamp( volume.orElse( (double) pendingVolume ).floatValue(), 0.0f, 3.0f );
+        setPending( buffer, volume );
         return true;
     }
 
+    /**
+     * Queue some already-encoded DFPWM audio. Unlike {@link #pushBuffer(LuaTable, int, Optional)}, this is sent to the
+     * client as-is.
+     *
+     * @param audio  The encoded audio.
+     * @param volume The volume to play this audio at.
+     * @return Whether there was room to accept this audio.
+     */
+    synchronized boolean pushEncoded( ByteBuffer audio, @Nonnull Optional<Double> volume )
+    {
+        if( pendingAudio != null ) return false;
+
+        // The client decodes this audio as part of the same stream, so advance our encoder in the same way. Otherwise
+        // any audio later pushed with pushBuffer would be encoded against the wrong state.
+        for( int i = audio.position(); i < audio.limit(); i++ )
+        {
+            int thisByte = audio.get( i );
+            for( int j = 0; j < 8; j++ ) update( (thisByte & (1 << j)) != 0 );
+        }
+
+        setPending( audio.slice(), volume );
+        return true;
+    }
+
+    /**
+     * Update the encoder's state after emitting a single bit. This only depends on the bits emitted, and so is the
+     * same as the client's decoder.
+     *
+     * @param currentBit The bit which was emitted.
+     */
+    private void update( boolean currentBit )
+    {
+        // Identical to DfpwmStream. Not happy with this, but saves some inheritance.
+        int target = currentBit ? 127 : -128;
+
+        // q' <- q + (s * (t - q) + 128)/256
+        int nextCharge = charge + ((strength * (target - charge) + (1 << (PREC - 1))) >> PREC);
+        if( nextCharge == charge && nextCharge != target ) nextCharge += currentBit ? 1 : -1;
+
+        int z = currentBit == previousBit ? (1 << PREC) - 1 : 0;
+
+        int nextStrength = strength;
+        if( strength != z ) nextStrength += currentBit == previousBit ? 1 : -1;
+        if( nextStrength < 2 << (PREC - 8) ) nextStrength = 2 << (PREC - 8);
+
+        charge = nextCharge;
+        strength = nextStrength;
+        previousBit = currentBit;
+    }
+
+    private void setPending( ByteBuffer audio, Optional<Double> volume )
+    {
+        pendingAudio = audio;
+        pendingVolume = Mth.clamp( volume.orElse( (double) pendingVolume ).floatValue(), 0.0f, 3.0f );
+    }
+
     boolean shouldSendPending( long now )
     {
-        return pendingAudio != null && now >= clientEndTime - CLIENT_BUFFER;
+        // Once the client has less than this much audio buffered, we should send another batch.
+        long clientBuffer = TimeUnit.MILLISECONDS.toNanos( ComputerCraft.speakerClientBuffer );
+        return pendingAudio != null && now >= clientEndTime - clientBuffer;
     }
 
     ByteBuffer pullPending( long now )
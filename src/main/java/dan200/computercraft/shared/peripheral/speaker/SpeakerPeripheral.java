@@ -29,6 +29,7 @@
 import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import static dan200.computercraft.api.lua.LuaValues.checkFinite;
@@ -346,16 +347,67 @@ public final boolean playAudio( ILuaContext context, LuaTable<?, ?> audio, Optio
         if( length <= 0 ) throw new LuaException( "Cannot play empty audio" );
         if( length > 128 * 1024 ) throw new LuaException( "Audio data is too large" );
 
-        DfpwmState state;
+        return getDfpwmState().pushBuffer( audio, length, volume );
+    }
+
+    /**
+     * Attempt to stream some already-encoded DFPWM audio to the speaker.
+     * <p>
+     * This behaves the same as {@link #playAudio}, but accepts a string of DFPWM-encoded audio (such as the contents
+     * of a {@code .dfpwm} file) rather than a list of samples. As the audio does not need to be decoded on the computer
+     * and then re-encoded by the speaker, this is significantly cheaper than {@link #playAudio}.
+     * <p>
+     * Each byte of the string encodes 8 samples, so each call may accept at most 16×1024 bytes.
+     * <p>
+     * Audio played with this function and {@link #playAudio} forms a single stream, and so the two may be mixed.
+     * However, consecutive calls to this function should use audio from the same encoder, otherwise there may be a
+     * short glitch at the boundary.
+     *
+     * @param audio  The DFPWM-encoded audio data to play.
+     * @param volume The volume to play this audio at.
+     * @return If there was room to accept this audio data.
+     * @throws LuaException If the audio data is empty or too large.
+     * @cc.tparam string audio The DFPWM-encoded audio.
+     * @cc.tparam [opt] number volume The volume to play this audio at. If not given, defaults to the previous volume
+     * given to {@link #playAudio} or {@link #playDfpwm}.
+     * @cc.since 1.102.0
+     * @cc.usage Play a DFPWM file directly from disk.
+     *
+     * <pre>{@code
+     * local speaker = peripheral.find("speaker")
+     *
+     * local file = fs.open("data/example.dfpwm", "rb")
+     * while true do
+     *     local chunk = file.read(16 * 1024)
+     *     if not chunk then break end
+     *
+     *     while not speaker.playDfpwm(chunk) do
+     *         os.pullEvent("speaker_audio_empty")
+     *     end
+     * end
+     * file.close()
+     * }</pre>
+     */
+    @LuaFunction
+    public final boolean playDfpwm( ByteBuffer audio, Optional<Double> volume ) throws LuaException
+    {
+        checkFinite( 1, volume.orElse( 0.0 ) );
+
+        int length = audio.remaining();
+        if( length <= 0 ) throw new LuaException( "Cannot play empty audio" );
+        if( length > 16 * 1024 ) throw new LuaException( "Audio data is too large" );
+
+        return getDfpwmState().pushEncoded( audio, volume );
+    }
+
+    private DfpwmState getDfpwmState()
+    {
         synchronized( lock )
         {
             if( dfpwmState == null || !dfpwmState.isPlaying() ) dfpwmState = new DfpwmState();
-            state = dfpwmState;
-
             pendingSound = null;
+            return dfpwmState;
         }
-
-        return state.pushBuffer( audio, length, volume );
     }
 
     /**
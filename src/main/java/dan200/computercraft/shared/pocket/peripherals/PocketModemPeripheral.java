@@ -27,6 +27,7 @@ void setLocation( Level world, Vec3 position )
     {
         this.position = position;
         this.world = world;
+        updateLocation();
     }
 
     @Nonnull
@@ -128,6 +128,8 @@ public void update( @Nonnull ITurtleAccess turtle, @Nonnull TurtleSide side )
             IPeripheral peripheral = turtle.getPeripheral( side );
             if( peripheral instanceof Peripheral modem )
             {
+                modem.updateLocation();
+
                 ModemState state = modem.getModemState();
                 if( state.pollChanged() )
                 {
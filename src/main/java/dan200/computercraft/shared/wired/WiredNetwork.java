@@ -15,6 +15,7 @@
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -24,6 +25,15 @@ public final class WiredNetwork implements IWiredNetwork
     HashSet<WiredNode> nodes;
     private HashMap<String, IPeripheral> peripherals = new HashMap<>();
 
+    /**
+     * A cache of the shortest path from a sending node to every other node in the network. This is populated lazily
+     * when a node transmits a packet (which happens under the read lock, hence the concurrent map), and cleared
+     * whenever the network's topology changes.
+     *
+     * @see #transmitPacket(WiredNode, Packet, double, boolean)
+     */
+    private final Map<WiredNode, TransmitPoint[]> routes = new ConcurrentHashMap<>();
+
     WiredNetwork( WiredNode node )
     {
         nodes = new HashSet<>( 1 );
@@ -46,6 +56,7 @@ public boolean connect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV )
         try
         {
             if( nodes == null ) throw new IllegalStateException( "Cannot add a connection to an empty network." );
+            routes.clear();
 
             boolean hasU = wiredU.network == this;
             boolean hasV = wiredV.network == this;
@@ -58,6 +69,8 @@ public boolean connect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV )
                 other.lock.writeLock().lock();
                 try
                 {
+                    other.routes.clear();
+
                     // Cache several properties for iterating over later
                     Map<String, IPeripheral> otherPeripherals = other.peripherals;
                     Map<String, IPeripheral> thisPeripherals = otherPeripherals.isEmpty() ? peripherals : new HashMap<>( peripherals );
@@ -118,6 +131,7 @@ public boolean disconnect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV
             boolean hasU = wiredU.network == this;
             boolean hasV = wiredV.network == this;
             if( !hasU || !hasV ) throw new IllegalArgumentException( "One node is not in the network." );
+            routes.clear();
 
             // If there was no connection to remove then split.
             if( !wiredU.neighbours.remove( wiredV ) ) return false;
@@ -199,6 +213,7 @@ public boolean remove( @Nonnull IWiredNode node )
             if( nodes == null ) return false;
             if( nodes.size() <= 1 ) return false;
             if( wired.network != this ) return false;
+            routes.clear();
 
             HashSet<WiredNode> neighbours = wired.neighbours;
 
@@ -321,61 +336,81 @@ public void updatePeripherals( @Nonnull IWiredNode node, @Nonnull Map<String, IP
 
     static void transmitPacket( WiredNode start, Packet packet, double range, boolean interdimensional )
     {
-        Map<WiredNode, TransmitPoint> points = new HashMap<>();
-        TreeSet<TransmitPoint> transmitTo = new TreeSet<>();
+        if( start.element.getLevel() != packet.sender().getLevel() )
+        {
+            // This should never happen with our own modems, so don't bother caching it.
+            for( TransmitPoint point : findRoutes( start, new TransmitPoint( start, Double.POSITIVE_INFINITY, true ) ) )
+            {
+                point.node.tryTransmit( packet, point.distance, point.interdimensional, range, interdimensional );
+            }
+            return;
+        }
 
+        // The distance to each node is just the distance from the sender to the start node, plus the distance along the
+        // network. The latter only depends on the network's topology, so can be cached.
+        double startDistance = start.element.getPosition().distanceTo( packet.sender().getPosition() );
+        TransmitPoint[] routes = start.network.routes.computeIfAbsent( start,
+            x -> findRoutes( x, new TransmitPoint( x, 0, false ) ).toArray( new TransmitPoint[0] ) );
+        for( TransmitPoint point : routes )
         {
-            TransmitPoint startEntry = start.element.getLevel() != packet.sender().getLevel()
-                ? new TransmitPoint( start, Double.POSITIVE_INFINITY, true )
-                : new TransmitPoint( start, start.element.getPosition().distanceTo( packet.sender().getPosition() ), false );
-            points.put( start, startEntry );
-            transmitTo.add( startEntry );
+            point.node.tryTransmit( packet, startDistance + point.distance, point.interdimensional, range, interdimensional );
         }
+    }
+
+    /**
+     * Find the shortest path from one node to every other node in the network.
+     *
+     * @param start      The node to start from.
+     * @param startEntry The initial distance to the start node.
+     * @return The distance to every node in the network.
+     */
+    private static Collection<TransmitPoint> findRoutes( WiredNode start, TransmitPoint startEntry )
+    {
+        Map<WiredNode, TransmitPoint> points = new HashMap<>();
+        TreeSet<TransmitPoint> transmitTo = new TreeSet<>();
+
+        points.put( start, startEntry );
+        transmitTo.add( startEntry );
 
+        TransmitPoint point;
+        while( (point = transmitTo.pollFirst()) != null )
         {
-            TransmitPoint point;
-            while( (point = transmitTo.pollFirst()) != null )
+            Level world = point.node.element.getLevel();
+            Vec3 position = point.node.element.getPosition();
+            for( WiredNode neighbour : point.node.neighbours )
             {
-                Level world = point.node.element.getLevel();
-                Vec3 position = point.node.element.getPosition();
-                for( WiredNode neighbour : point.node.neighbours )
-                {
-                    TransmitPoint neighbourPoint = points.get( neighbour );
+                TransmitPoint neighbourPoint = points.get( neighbour );
 
-                    boolean newInterdimensional;
-                    double newDistance;
-                    if( world != neighbour.element.getLevel() )
-                    {
-                        newInterdimensional = true;
-                        newDistance = Double.POSITIVE_INFINITY;
-                    }
-                    else
-                    {
-                        newInterdimensional = false;
-                        newDistance = point.distance + position.distanceTo( neighbour.element.getPosition() );
-                    }
+                boolean newInterdimensional;
+                double newDistance;
+                if( world != neighbour.element.getLevel() )
+                {
+                    newInterdimensional = true;
+                    newDistance = Double.POSITIVE_INFINITY;
+                }
+                else
+                {
+                    newInterdimensional = false;
+                    newDistance = point.distance + position.distanceTo( neighbour.element.getPosition() );
+                }
 
-                    if( neighbourPoint == null )
-                    {
-                        TransmitPoint nextPoint = new TransmitPoint( neighbour, newDistance, newInterdimensional );
-                        points.put( neighbour, nextPoint );
-                        transmitTo.add( nextPoint );
-                    }
-                    else if( newDistance < neighbourPoint.distance )
-                    {
-                        transmitTo.remove( neighbourPoint );
-                        neighbourPoint.distance = newDistance;
-                        neighbourPoint.interdimensional = newInterdimensional;
-                        transmitTo.add( neighbourPoint );
-                    }
+                if( neighbourPoint == null )
+                {
+                    TransmitPoint nextPoint = new TransmitPoint( neighbour, newDistance, newInterdimensional );
+                    points.put( neighbour, nextPoint );
+                    transmitTo.add( nextPoint );
+                }
+                else if( newDistance < neighbourPoint.distance )
+                {
+                    transmitTo.remove( neighbourPoint );
+                    neighbourPoint.distance = newDistance;
+                    neighbourPoint.interdimensional = newInterdimensional;
+                    transmitTo.add( neighbourPoint );
                 }
             }
         }
 
-        for( TransmitPoint point : points.values() )
-        {
-            point.node.tryTransmit( packet, point.distance, point.interdimensional, range, interdimensional );
-        }
+        return points.values();
     }
 
     private void removeSingleNode( WiredNode wired, WiredNetwork wiredNetwork )
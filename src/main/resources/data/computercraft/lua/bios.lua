@@ -613,6 +613,7 @@ if http then
         checkKey(options, "headers", "table", true)
         checkKey(options, "method", "string", true)
         checkKey(options, "redirect", "boolean", true)
+        checkKey(options, "stream", "boolean", true)
 
         if options.method and not methods[options.method] then
             error("Unsupported HTTP method", 3)
@@ -694,18 +695,31 @@ if http then
 
     local nativeWebsocket = http.websocket
     http.websocketAsync = nativeWebsocket
+    local function checkWebsocketOptions(options)
+        checkKey(options, "url", "string")
+        checkKey(options, "headers", "table", true)
+        checkKey(options, "batch", "boolean", true)
+    end
+
     http.websocket = function(_url, _headers)
-        expect(1, _url, "string")
-        expect(2, _headers, "table", "nil")
+        local address
+        if type(_url) == "table" then
+            checkWebsocketOptions(_url)
+            address = _url.url
+        else
+            expect(1, _url, "string")
+            expect(2, _headers, "table", "nil")
+            address = _url
+        end
 
         local ok, err = nativeWebsocket(_url, _headers)
         if not ok then return ok, err end
 
         while true do
             local event, url, param = os.pullEvent( )
-            if event == "websocket_success" and url == _url then
+            if event == "websocket_success" and url == address then
                 return param
-            elseif event == "websocket_failure" and url == _url then
+            elseif event == "websocket_failure" and url == address then
                 return false, param
             end
         end
@@ -0,0 +1,129 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.apis.http.options.Action;
+import dan200.computercraft.core.apis.http.options.AddressRule;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkUtilsTest
+{
+    @Test
+    public void optionsUpdatedWhenRulesChange() throws HTTPRequestException
+    {
+        List<AddressRule> rules = ComputerCraft.httpRules;
+        try
+        {
+            InetSocketAddress address = NetworkUtils.getAddress( "127.0.0.1", 8080, false );
+
+            ComputerCraft.httpRules = List.of( AddressRule.parse( "127.0.0.1", OptionalInt.empty(), Action.ALLOW.toPartial() ) );
+            assertEquals( Action.ALLOW, NetworkUtils.getOptions( "127.0.0.1", address ).action );
+
+            ComputerCraft.httpRules = List.of( AddressRule.parse( "127.0.0.1", OptionalInt.empty(), Action.DENY.toPartial() ) );
+            assertThrows( HTTPRequestException.class, () -> NetworkUtils.getOptions( "127.0.0.1", address ) );
+        }
+        finally
+        {
+            ComputerCraft.httpRules = rules;
+        }
+    }
+
+    @Test
+    public void optionsNotCachedFromOldRules() throws Exception
+    {
+        List<AddressRule> rules = ComputerCraft.httpRules;
+        try
+        {
+            InetSocketAddress address = NetworkUtils.getAddress( "127.0.0.1", 8080, false );
+
+            // Start a lookup with rules which allow this address, and block it while iterating over them.
+            CountDownLatch started = new CountDownLatch( 1 );
+            CountDownLatch resume = new CountDownLatch( 1 );
+            ComputerCraft.httpRules = new BlockingList( List.of( AddressRule.parse( "*", OptionalInt.empty(), Action.ALLOW.toPartial() ) ), started, resume );
+
+            Thread lookup = new Thread( () -> {
+                try
+                {
+                    NetworkUtils.getOptions( "127.0.0.1", address );
+                }
+                catch( HTTPRequestException ignored )
+                {
+                }
+            } );
+            lookup.start();
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+            // Change the rules, making a lookup for another host so they are picked up, then let the first lookup finish.
+            ComputerCraft.httpRules = List.of( AddressRule.parse( "*", OptionalInt.empty(), Action.DENY.toPartial() ) );
+            assertThrows( HTTPRequestException.class, () -> NetworkUtils.getOptions( "localhost", address ) );
+
+            resume.countDown();
+            lookup.join( TimeUnit.SECONDS.toMillis( 10 ) );
+
+            // The first lookup's result should not be used with the new rules.
+            assertThrows( HTTPRequestException.class, () -> NetworkUtils.getOptions( "127.0.0.1", address ) );
+        }
+        finally
+        {
+            ComputerCraft.httpRules = rules;
+        }
+    }
+
+    private static final class BlockingList extends AbstractList<AddressRule>
+    {
+        private final List<AddressRule> rules;
+        private final CountDownLatch started;
+        private final CountDownLatch resume;
+
+        BlockingList( List<AddressRule> rules, CountDownLatch started, CountDownLatch resume )
+        {
+            this.rules = rules;
+            this.started = started;
+            this.resume = resume;
+        }
+
+        @Override
+        public Iterator<AddressRule> iterator()
+        {
+            started.countDown();
+            try
+            {
+                resume.await( 10, TimeUnit.SECONDS );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            return rules.iterator();
+        }
+
+        @Override
+        public AddressRule get( int index )
+        {
+            return rules.get( index );
+        }
+
+        @Override
+        public int size()
+        {
+            return rules.size();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.core.lua.MachineResult;
+import dan200.computercraft.support.ConcurrentHelpers;
+import dan200.computercraft.test.core.computer.KotlinComputerManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that parked computers do not run any events, but do still respond to commands.
+ *
+ * @see Computer#setParked(boolean)
+ */
+@Timeout( value = 15 )
+public class ComputerParkTest
+{
+    private KotlinComputerManager manager;
+
+    @BeforeEach
+    public void before()
+    {
+        manager = new KotlinComputerManager();
+    }
+
+    @AfterEach
+    public void after()
+    {
+        manager.close();
+    }
+
+    @Test
+    public void testEventsNotRunWhileParked() throws Exception
+    {
+        AtomicInteger ran = new AtomicInteger();
+        Computer computer = start( ran );
+
+        computer.setParked( true );
+        computer.queueEvent( "some_event", null );
+        computer.queueEvent( "some_event", null );
+
+        manager.sleep( 500, TimeUnit.MILLISECONDS );
+        assertEquals( 0, ran.get(), "Should not run events while parked" );
+        assertFalse( manager.context().computerScheduler().hasPendingWork(), "Should not be scheduled while parked" );
+
+        computer.setParked( false );
+        assertTrue( ConcurrentHelpers.waitUntil( () -> ran.get() == 2, 5, TimeUnit.SECONDS ), "Should run events once unparked" );
+
+        computer.shutdown();
+        assertTrue( ConcurrentHelpers.waitUntil( () -> !computer.isOn(), 5, TimeUnit.SECONDS ), "Should shut down" );
+    }
+
+    @Test
+    public void testParkedComputerShutsDown() throws Exception
+    {
+        AtomicInteger ran = new AtomicInteger();
+        Computer computer = start( ran );
+
+        computer.setParked( true );
+        computer.queueEvent( "some_event", null );
+
+        // This is what happens when a parked computer expires.
+        computer.unload();
+        assertTrue( ConcurrentHelpers.waitUntil( () -> !computer.isOn(), 5, TimeUnit.SECONDS ), "Should shut down while parked" );
+        assertEquals( 0, ran.get(), "Should not run events while parked" );
+    }
+
+    /**
+     * Start a computer, waiting for it to finish starting up.
+     *
+     * @param ran A counter, incremented each time the computer handles an event after starting up.
+     * @return The started computer.
+     * @throws Exception If the computer failed to start.
+     */
+    private Computer start( AtomicInteger ran ) throws Exception
+    {
+        Computer computer = manager.create();
+        CountDownLatch started = new CountDownLatch( 1 );
+        manager.enqueue( computer, timeout -> {
+            started.countDown();
+            return MachineResult.OK;
+        } );
+        for( int i = 0; i < 2; i++ )
+        {
+            manager.enqueue( computer, timeout -> {
+                ran.incrementAndGet();
+                return MachineResult.OK;
+            } );
+        }
+
+        computer.turnOn();
+        computer.tick();
+        assertTrue( started.await( 5, TimeUnit.SECONDS ), "Computer should start" );
+        return computer;
+    }
+}
@@ -16,10 +16,18 @@
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.jupiter.api.Assertions.*;
 
 @Timeout( value = 15 )
@@ -109,4 +117,211 @@ public void testPauseIfSomeOtherMachine() throws Exception
 
         manager.startAndWait( computer );
     }
+
+    @Test
+    public void testConcurrentEnqueue() throws Exception
+    {
+        int computerCount = 16, threadCount = 4, eventsPerThread = 50;
+        int expected = threadCount * eventsPerThread;
+
+        try( KotlinComputerManager threaded = new KotlinComputerManager( new ComputerThread( 4 ) ) )
+        {
+            Computer[] computers = new Computer[computerCount];
+            AtomicInteger[] counts = new AtomicInteger[computerCount];
+            CountDownLatch started = new CountDownLatch( computerCount );
+            for( int i = 0; i < computerCount; i++ )
+            {
+                Computer computer = computers[i] = threaded.create();
+                AtomicInteger count = counts[i] = new AtomicInteger();
+                AtomicBoolean running = new AtomicBoolean();
+
+                threaded.enqueue( computer, timeout -> {
+                    started.countDown();
+                    return MachineResult.OK;
+                } );
+                for( int j = 0; j < expected; j++ )
+                {
+                    threaded.enqueue( computer, timeout -> {
+                        assertTrue( running.compareAndSet( false, true ), "Computer is running on two threads at once" );
+                        count.incrementAndGet();
+                        running.set( false );
+                        return MachineResult.OK;
+                    } );
+                }
+
+                computer.turnOn();
+                computer.tick();
+            }
+            assertTrue( started.await( 5, TimeUnit.SECONDS ), "All computers should start" );
+
+            // Queue events on every computer from several threads at once.
+            CyclicBarrier barrier = new CyclicBarrier( threadCount );
+            Thread[] threads = new Thread[threadCount];
+            for( int i = 0; i < threadCount; i++ )
+            {
+                threads[i] = new Thread( () -> {
+                    try
+                    {
+                        barrier.await();
+                    }
+                    catch( InterruptedException | BrokenBarrierException e )
+                    {
+                        throw new IllegalStateException( e );
+                    }
+
+                    for( int j = 0; j < eventsPerThread; j++ )
+                    {
+                        for( Computer computer : computers ) computer.queueEvent( "some_event", null );
+                    }
+                } );
+                threads[i].start();
+            }
+            for( Thread thread : threads ) thread.join();
+
+            // Every event should be run exactly once. If an executor is run twice, we run out of tasks, and an
+            // exception is thrown by the threaded.
+            boolean finished = ConcurrentHelpers.waitUntil(
+                () -> Arrays.stream( counts ).allMatch( x -> x.get() >= expected ), 10, TimeUnit.SECONDS
+            );
+            threaded.sleep( 100, TimeUnit.MILLISECONDS );
+
+            assertTrue( finished, "All events should be run" );
+            for( int i = 0; i < computerCount; i++ ) assertEquals( expected, counts[i].get(), "Computer " + i );
+            assertFalse( threaded.context().computerScheduler().hasPendingWork(), "No computers should be queued" );
+        }
+    }
+
+    @Test
+    public void testFairScheduling() throws Exception
+    {
+        // Two computers on a single thread, one of which runs for much longer at a time than the other. Computers are
+        // run in order of virtual runtime, so both should get a similar amount of time, and the shorter one should run
+        // many more tasks.
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger slow = new AtomicInteger(), fast = new AtomicInteger();
+        Computer slowComputer = createLoopingComputer( slow, 20, stop );
+        Computer fastComputer = createLoopingComputer( fast, 1, stop );
+
+        manager.sleep( 2, TimeUnit.SECONDS );
+        stop.set( true );
+        int slowCount = slow.get(), fastCount = fast.get();
+
+        slowComputer.shutdown();
+        fastComputer.shutdown();
+
+        ComputerCraft.log.info( "Ran {} slow tasks and {} fast tasks", slowCount, fastCount );
+        assertThat( "Slow computer should have run", slowCount, greaterThan( 0 ) );
+        assertThat( "Fast computer should run more often", fastCount, greaterThan( slowCount * 5 ) );
+    }
+
+    @Test
+    public void testWorkersScale() throws Exception
+    {
+        ComputerThread thread = new ComputerThread( 1, 4, 200, TimeUnit.MILLISECONDS );
+        try( KotlinComputerManager scaling = new KotlinComputerManager( thread ) )
+        {
+            // Start four computers which block until released. These can only all run if we have four workers.
+            CountDownLatch running = new CountDownLatch( 4 ), release = new CountDownLatch( 1 );
+            Computer[] computers = new Computer[4];
+            for( int i = 0; i < computers.length; i++ )
+            {
+                Computer computer = computers[i] = scaling.create();
+                scaling.enqueue( computer, timeout -> {
+                    running.countDown();
+                    try
+                    {
+                        assertTrue( release.await( 10, TimeUnit.SECONDS ), "Should be released" );
+                    }
+                    catch( InterruptedException e )
+                    {
+                        throw new IllegalStateException( e );
+                    }
+                    return MachineResult.OK;
+                } );
+                computer.turnOn();
+                computer.tick();
+            }
+
+            assertTrue( running.await( 5, TimeUnit.SECONDS ), "All computers should run at once" );
+            assertEquals( 4, thread.getWorkerCount(), "Should grow to the maximum number of workers" );
+
+            // Once idle, workers should be retired after the keep-alive period, down to the minimum.
+            release.countDown();
+            assertTrue( ConcurrentHelpers.waitUntil( () -> thread.getWorkerCount() == 1, 5, TimeUnit.SECONDS ), "Should retire idle workers" );
+            scaling.sleep( 500, TimeUnit.MILLISECONDS );
+            assertEquals( 1, thread.getWorkerCount(), "Should keep the minimum number of workers" );
+
+            // And we should still be able to run work afterwards.
+            CountDownLatch ran = new CountDownLatch( 1 );
+            scaling.enqueue( computers[0], timeout -> {
+                ran.countDown();
+                return MachineResult.OK;
+            } );
+            computers[0].queueEvent( "some_event", null );
+            assertTrue( ran.await( 5, TimeUnit.SECONDS ), "Should run work after retiring workers" );
+
+            assertTrue( thread.stop( 5, TimeUnit.SECONDS ), "Should stop" );
+            assertEquals( 0, thread.getWorkerCount(), "All workers should have stopped" );
+        }
+    }
+
+    @Test
+    public void testStopWhileScaledUp() throws Exception
+    {
+        ComputerThread thread = new ComputerThread( 1, 4, 60, TimeUnit.SECONDS );
+        try( KotlinComputerManager scaling = new KotlinComputerManager( thread ) )
+        {
+            CountDownLatch running = new CountDownLatch( 4 );
+            for( int i = 0; i < 4; i++ )
+            {
+                Computer computer = scaling.create();
+                scaling.enqueue( computer, timeout -> {
+                    running.countDown();
+                    ConcurrentHelpers.waitUntil( timeout::isHardAborted );
+                    return MachineResult.OK;
+                } );
+                computer.turnOn();
+                computer.tick();
+            }
+
+            assertTrue( running.await( 5, TimeUnit.SECONDS ), "All computers should run at once" );
+            assertEquals( 4, thread.getWorkerCount() );
+
+            // Stopping aborts running computers, and wakes any idle workers.
+            assertTrue( thread.stop( 5, TimeUnit.SECONDS ), "Should stop" );
+            assertEquals( 0, thread.getWorkerCount(), "All workers should have stopped" );
+        }
+    }
+
+    /**
+     * Create a computer which runs the same task until stopped.
+     *
+     * @param count Incremented each time the task runs.
+     * @param delay How long (in milliseconds) each task takes.
+     * @param stop  Set to stop running the task.
+     * @return The started computer.
+     */
+    private Computer createLoopingComputer( AtomicInteger count, long delay, AtomicBoolean stop )
+    {
+        Computer computer = manager.create();
+        enqueueLoop( computer, count, delay, stop );
+        computer.turnOn();
+        computer.tick();
+        return computer;
+    }
+
+    private void enqueueLoop( Computer computer, AtomicInteger count, long delay, AtomicBoolean stop )
+    {
+        manager.enqueue( computer, timeout -> {
+            count.incrementAndGet();
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( delay ) );
+
+            if( !stop.get() )
+            {
+                enqueueLoop( computer, count, delay, stop );
+                computer.queueEvent( "some_event", null );
+            }
+            return MachineResult.OK;
+        } );
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TimerWheelTest
+{
+    @ParameterizedTest( name = "{0} ticks" )
+    @ValueSource( longs = { 1, 2, 63, 64, 65, 4095, 4096, 4097, 100_000, (1L << 24) - 1, 1L << 24, (1L << 24) + 5 } )
+    public void testFiresOnTime( long delay )
+    {
+        TimerWheel wheel = new TimerWheel();
+
+        // Advance the wheel a little, so timers don't line up with slot boundaries.
+        advance( wheel, 37 );
+
+        wheel.schedule( 1, delay );
+        assertEquals( Map.of( 1, delay ), advance( wheel, delay + 10 ) );
+        assertEquals( 0, wheel.size() );
+    }
+
+    @Test
+    public void testZeroDelayFiresNextTick()
+    {
+        TimerWheel wheel = new TimerWheel();
+        wheel.schedule( 1, 0 );
+        assertEquals( Map.of( 1, 1L ), advance( wheel, 1 ) );
+    }
+
+    @Test
+    public void testCancel()
+    {
+        TimerWheel wheel = new TimerWheel();
+        wheel.schedule( 1, 10 );
+        wheel.schedule( 2, 10 );
+        wheel.schedule( 3, 10_000 );
+        wheel.cancel( 1 );
+        wheel.cancel( 3 );
+
+        assertEquals( Map.of( 2, 10L ), advance( wheel, 20_000 ) );
+        assertEquals( 0, wheel.size() );
+    }
+
+    @Test
+    public void testClear()
+    {
+        TimerWheel wheel = new TimerWheel();
+        wheel.schedule( 1, 10 );
+        wheel.schedule( 2, 1L << 30 );
+        wheel.clear();
+
+        assertEquals( 0, wheel.size() );
+        assertEquals( Map.of(), advance( wheel, 100 ) );
+    }
+
+    /**
+     * Advance the wheel by several ticks.
+     *
+     * @param wheel The wheel to advance.
+     * @param ticks The number of ticks to advance by.
+     * @return The timers which fired, and the number of ticks after which they fired.
+     */
+    private static Int2LongMap advance( TimerWheel wheel, long ticks )
+    {
+        Int2LongMap fired = new Int2LongOpenHashMap();
+        for( long i = 1; i <= ticks; i++ )
+        {
+            long tick = i;
+            wheel.tick( id -> fired.put( id, tick ) );
+        }
+        return fired;
+    }
+}
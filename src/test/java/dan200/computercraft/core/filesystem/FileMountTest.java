@@ -0,0 +1,204 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.apis.handles.BinaryReadableHandle;
+import dan200.computercraft.core.apis.handles.ByteBufferChannel;
+import dan200.computercraft.support.ConcurrentHelpers;
+import dan200.computercraft.support.TestFiles;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class FileMountTest
+{
+    private static final Path ROOT = TestFiles.get( "file_mount" );
+    private static final long CAPACITY = 1_000_000;
+
+    @BeforeEach
+    public void before() throws IOException
+    {
+        if( Files.exists( ROOT ) )
+        {
+            try( Stream<Path> files = Files.walk( ROOT ) )
+            {
+                for( Path file : (Iterable<Path>) files.sorted( Comparator.reverseOrder() )::iterator ) Files.delete( file );
+            }
+        }
+        Files.createDirectories( ROOT );
+    }
+
+    @Test
+    public void testUsagePersisted() throws IOException
+    {
+        Path cacheFile = ROOT.resolve( "usage.json" );
+        Path computer = ROOT.resolve( "computer/0" );
+
+        FileUsageCache cache = new FileUsageCache( ROOT, cacheFile );
+        FileMount mount = new FileMount( computer.toFile(), CAPACITY, cache );
+        write( mount, "file.txt", 2000 );
+        long remaining = mount.getRemainingSpace();
+        cache.close();
+
+        FileMount reloaded = new FileMount( computer.toFile(), CAPACITY, new FileUsageCache( ROOT, cacheFile ) );
+        assertEquals( remaining, reloaded.getRemainingSpace() );
+        assertEquals( remaining, new FileMount( computer.toFile(), CAPACITY ).getRemainingSpace(), "Matches a fresh measurement" );
+    }
+
+    @Test
+    public void testStaleUsageCorrected() throws IOException
+    {
+        Path cacheFile = ROOT.resolve( "usage.json" );
+        Path computer = ROOT.resolve( "computer/0" );
+
+        FileUsageCache cache = new FileUsageCache( ROOT, cacheFile );
+        write( new FileMount( computer.toFile(), CAPACITY, cache ), "file.txt", 2000 );
+        cache.close();
+
+        // Modify the directory without going through the mount, as if the cache was never saved.
+        Files.write( computer.resolve( "other.txt" ), new byte[5000] );
+        long expected = new FileMount( computer.toFile(), CAPACITY ).getRemainingSpace();
+
+        FileMount mount = new FileMount( computer.toFile(), CAPACITY, new FileUsageCache( ROOT, cacheFile ) );
+        assertTrue(
+            ConcurrentHelpers.waitUntil( () -> mount.getRemainingSpace() == expected, 5, TimeUnit.SECONDS ),
+            "Usage is eventually corrected"
+        );
+    }
+
+    @Test
+    public void testReadLargeFile() throws IOException
+    {
+        byte[] contents = new byte[1024 * 1024];
+        new Random( 0 ).nextBytes( contents );
+        Files.write( ROOT.resolve( "large.bin" ), contents );
+
+        FileMount mount = new FileMount( ROOT.toFile(), CAPACITY * 10 );
+        try( ReadableByteChannel channel = mount.openForRead( "large.bin" ) )
+        {
+            assertInstanceOf( ByteBufferChannel.class, channel, "Large files should be memory-mapped" );
+            assertEquals( contents.length, ((SeekableByteChannel) channel).size() );
+
+            ByteBuffer buffer = ByteBuffer.allocate( contents.length );
+            while( buffer.hasRemaining() )
+            {
+                if( channel.read( buffer ) < 0 ) break;
+            }
+            assertArrayEquals( contents, buffer.array() );
+        }
+    }
+
+    @Test
+    public void testReadAllLargeFile() throws IOException, LuaException
+    {
+        byte[] contents = new byte[1024 * 1024];
+        new Random( 0 ).nextBytes( contents );
+        Files.write( ROOT.resolve( "large.bin" ), contents );
+
+        FileMount mount = new FileMount( ROOT.toFile(), CAPACITY * 10 );
+        try( ReadableByteChannel channel = mount.openForRead( "large.bin" ) )
+        {
+            Object[] result = BinaryReadableHandle.of( channel ).readAll();
+            assertNotNull( result );
+
+            ByteBuffer buffer = assertInstanceOf( ByteBuffer.class, result[0] );
+            byte[] read = new byte[buffer.remaining()];
+            buffer.get( read );
+            assertArrayEquals( contents, read );
+        }
+    }
+
+    @Test
+    public void testDeduplicatedFilesCopiedOnWrite() throws IOException
+    {
+        BlobStore blobs = BlobStore.create( ROOT.resolve( "blobs" ) );
+        assumeTrue( blobs != null, "File system supports hard links" );
+
+        byte[] contents = new byte[10_000];
+        new Random( 0 ).nextBytes( contents );
+        Path first = ROOT.resolve( "computer/0/startup.lua" ), second = ROOT.resolve( "computer/1/startup.lua" );
+        Files.createDirectories( first.getParent() );
+        Files.createDirectories( second.getParent() );
+        Files.write( first, contents );
+        Files.write( second, contents );
+
+        try
+        {
+            FileMount mount = new FileMount( first.getParent().toFile(), CAPACITY, null, blobs );
+            new FileMount( second.getParent().toFile(), CAPACITY, null, blobs );
+            assertTrue(
+                ConcurrentHelpers.waitUntil( () -> blobs.isShared( first ) && blobs.isShared( second ), 5, TimeUnit.SECONDS ),
+                "Files are eventually shared"
+            );
+
+            write( mount, "startup.lua", 100 );
+            assertEquals( 100, Files.size( first ) );
+            assertArrayEquals( contents, Files.readAllBytes( second ), "Other copies are unchanged" );
+        }
+        finally
+        {
+            blobs.close();
+        }
+    }
+
+    @Test
+    public void testUniqueFilesNotShared() throws IOException, InterruptedException
+    {
+        BlobStore blobs = BlobStore.create( ROOT.resolve( "blobs" ) );
+        assumeTrue( blobs != null, "File system supports hard links" );
+
+        byte[] contents = new byte[10_000];
+        new Random( 0 ).nextBytes( contents );
+        Path file = ROOT.resolve( "computer/0/log.txt" );
+        Files.createDirectories( file.getParent() );
+        Files.write( file, contents );
+
+        try
+        {
+            new FileMount( file.getParent().toFile(), CAPACITY, null, blobs );
+
+            // Tasks are run in order on a single thread, so once this has run the mount has been deduplicated.
+            CountDownLatch done = new CountDownLatch( 1 );
+            blobs.submit( done::countDown );
+            assertTrue( done.await( 5, TimeUnit.SECONDS ), "Deduplication finished" );
+
+            assertFalse( blobs.isShared( file ), "File is not linked to a blob" );
+        }
+        finally
+        {
+            blobs.close();
+        }
+    }
+
+    private static void write( FileMount mount, String path, int size ) throws IOException
+    {
+        try( WritableByteChannel channel = mount.openForWrite( path ) )
+        {
+            channel.write( ByteBuffer.allocate( size ) );
+        }
+    }
+}
@@ -17,9 +17,11 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileSystemTest
 {
@@ -79,4 +81,25 @@ public void testUnmountCloses() throws FileSystemException
         LuaException err = assertThrows( LuaException.class, () -> wrapper.call( "write", "Tiny line" ) );
         assertEquals( "attempt to use a closed file", err.getMessage() );
     }
+
+    @Test
+    public void testNestedMounts() throws FileSystemException
+    {
+        FileSystem fs = mkFs();
+        fs.mountWritable( "disk", "disk", new FileMount( new File( ROOT, "child" ), CAPACITY ) );
+        fs.mountWritable( "nested", "disk/nested", new FileMount( new File( ROOT, "nested" ), CAPACITY ) );
+
+        assertEquals( "hdd", fs.getMountLabel( "diskette" ) );
+        assertEquals( "disk", fs.getMountLabel( "disk/file.txt" ) );
+        assertEquals( "disk", fs.getMountLabel( "DISK" ) );
+        assertEquals( "nested", fs.getMountLabel( "disk/nested/a/b" ) );
+        assertTrue( Arrays.asList( fs.list( "disk" ) ).contains( "nested" ) );
+
+        fs.unmount( "disk" );
+        assertEquals( "hdd", fs.getMountLabel( "disk/file.txt" ) );
+        assertEquals( "nested", fs.getMountLabel( "disk/nested" ) );
+
+        fs.unmount( "disk/nested" );
+        assertEquals( "hdd", fs.getMountLabel( "disk/nested" ) );
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.*;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.function.LuaClosure;
+import org.squiddev.cobalt.function.LuaFunction;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrototypeCacheTest
+{
+    private static final String COUNTER = "counter = (counter or 0) + 1 return counter";
+
+    @Test
+    public void testSharesPrototypes() throws Exception
+    {
+        Machine first = new Machine(), second = new Machine();
+        LuaClosure firstFn = first.load( "@counter.lua", COUNTER );
+        LuaClosure secondFn = second.load( "@counter.lua", COUNTER );
+
+        assertSame( firstFn.getPrototype(), secondFn.getPrototype(), "Machines should share a prototype" );
+        assertNotSame( firstFn, secondFn, "Machines should have separate closures" );
+
+        // Each closure should use its own machine's globals.
+        assertEquals( 1, first.run( firstFn ).toInteger() );
+        assertEquals( 2, first.run( firstFn ).toInteger() );
+        assertEquals( 1, second.run( secondFn ).toInteger(), "Globals should not be shared between machines" );
+        assertEquals( 2, first.globals.rawget( "counter" ).toInteger() );
+        assertEquals( 1, second.globals.rawget( "counter" ).toInteger() );
+    }
+
+    @Test
+    public void testRecompilesChangedSource() throws Exception
+    {
+        Machine machine = new Machine();
+        LuaClosure original = machine.load( "@changed.lua", "return 'original'" );
+        LuaClosure changed = machine.load( "@changed.lua", "return 'changed'" );
+
+        assertNotSame( original.getPrototype(), changed.getPrototype(), "Changed source should be recompiled" );
+        assertEquals( "original", machine.run( original ).toString() );
+        assertEquals( "changed", machine.run( changed ).toString() );
+    }
+
+    @Test
+    public void testEstimatesCompiledSize() throws Exception
+    {
+        // Constants are stored in the prototype, so should be counted.
+        String source = "return '" + "x".repeat( 100_000 ) + "'";
+        LuaClosure fn = new Machine().load( "@large.lua", source );
+        assertTrue( PrototypeCache.estimateSize( fn.getPrototype() ) >= 100_000, "Should include size of constants" );
+    }
+
+    private static final class Machine
+    {
+        final LuaState state = LuaState.builder().compiler( PrototypeCache.INSTANCE ).build();
+        final LuaTable globals = new LuaTable();
+
+        Machine()
+        {
+            state.setupThread( globals );
+        }
+
+        LuaClosure load( String name, String contents ) throws Exception
+        {
+            LuaFunction function = LoadState.load( state, new ByteArrayInputStream( contents.getBytes( StandardCharsets.UTF_8 ) ), name, globals );
+            return assertInstanceOf( LuaClosure.class, function );
+        }
+
+        LuaValue run( LuaFunction function ) throws Exception
+        {
+            return LuaThread.run( new LuaThread( state, function, globals ), Constants.NONE ).first();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfilerTest
+{
+    private static final long MICROS = TimeUnit.MICROSECONDS.toNanos( 1 );
+
+    @Test
+    public void testCollapsedStacks()
+    {
+        Profiler profiler = new Profiler();
+        profiler.start();
+        profiler.record( "bios.lua;shell.lua:10", 5 * MICROS );
+        profiler.record( "bios.lua;shell.lua:10;FSAPI.open [java]", 3 * MICROS );
+        profiler.record( "bios.lua;shell.lua:10", 2 * MICROS );
+
+        assertEquals( 10 * MICROS, profiler.getTotalTime() );
+        assertEquals(
+            "bios.lua;shell.lua:10 7\nbios.lua;shell.lua:10;FSAPI.open [java] 3\n",
+            profiler.toCollapsedStacks()
+        );
+    }
+
+    @Test
+    public void testIgnoredWhenStopped()
+    {
+        Profiler profiler = new Profiler();
+        profiler.record( "bios.lua", MICROS );
+        assertEquals( 0, profiler.getTotalTime() );
+
+        profiler.start();
+        assertTrue( profiler.stop() );
+        assertFalse( profiler.stop() );
+        profiler.record( "bios.lua", MICROS );
+        assertEquals( "", profiler.toCollapsedStacks() );
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkedComputersTest
+{
+    private final List<String> removed = new ArrayList<>();
+    private final ParkedComputers<Integer, String> parked = new ParkedComputers<>( removed::add );
+
+    @Test
+    public void testExpires()
+    {
+        parked.park( 0, "computer", 3 );
+
+        parked.update();
+        parked.update();
+        assertEquals( List.of(), removed, "Should not be removed before it expires" );
+
+        parked.update();
+        assertEquals( List.of( "computer" ), removed, "Should be removed once it expires" );
+        assertNull( parked.unpark( 0 ), "Should not be able to unpark an expired computer" );
+    }
+
+    @Test
+    public void testUnpark()
+    {
+        parked.park( 0, "computer", 3 );
+        parked.update();
+
+        assertEquals( "computer", parked.unpark( 0 ) );
+        assertNull( parked.unpark( 0 ), "Should only be able to unpark once" );
+
+        for( int i = 0; i < 5; i++ ) parked.update();
+        assertEquals( List.of(), removed, "Unparked computers should not expire" );
+    }
+
+    @Test
+    public void testParkAgain()
+    {
+        parked.park( 0, "computer", 3 );
+        parked.update();
+        parked.update();
+        assertEquals( "computer", parked.unpark( 0 ) );
+
+        // Parking again should restart the timer.
+        parked.park( 0, "computer", 3 );
+        parked.update();
+        parked.update();
+        assertEquals( List.of(), removed );
+
+        parked.update();
+        assertEquals( List.of( "computer" ), removed );
+    }
+
+    @Test
+    public void testReplaced()
+    {
+        parked.park( 0, "old", 3 );
+        parked.park( 0, "new", 3 );
+        assertEquals( List.of( "old" ), removed, "Replaced computer should be removed" );
+        assertEquals( "new", parked.unpark( 0 ) );
+    }
+
+    @Test
+    public void testClear()
+    {
+        List<String> cleared = new ArrayList<>();
+        parked.park( 0, "computer", 3 );
+        parked.clear( cleared::add );
+
+        assertEquals( List.of( "computer" ), cleared );
+        assertEquals( List.of(), removed );
+        assertNull( parked.unpark( 0 ) );
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.terminal;
+
+import dan200.computercraft.api.lua.LuaValues;
+import dan200.computercraft.core.terminal.Terminal;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link TerminalDelta} round tripping works as expected.
+ */
+public class TerminalDeltaTest
+{
+    @Test
+    public void testResizeRequiresFullUpdate()
+    {
+        var terminal = new NetworkedTerminal( 10, 5, true );
+        assertNull( terminal.pollDelta(), "New terminals are sent in full" );
+        assertNotNull( terminal.pollDelta(), "Unchanged terminals are sent as a delta" );
+
+        terminal.resize( 5, 5 );
+        assertNull( terminal.pollDelta(), "Resized terminals are sent in full" );
+    }
+
+    @Test
+    public void testMostlyChangedRequiresFullUpdate()
+    {
+        var terminal = new NetworkedTerminal( 10, 5, true );
+        terminal.pollDelta();
+
+        terminal.clear();
+        assertNull( terminal.pollDelta() );
+    }
+
+    @Test
+    public void testRoundtrip()
+    {
+        var server = new NetworkedTerminal( 10, 5, true );
+        var client = new NetworkedTerminal( 10, 5, true );
+        new TerminalState( server, false ).apply( client );
+        server.pollDelta();
+
+        server.setCursorPos( 3, 2 );
+        blit( server, "hello", "00000", "fffff" );
+        server.setTextColour( 3 );
+
+        TerminalDelta delta = server.pollDelta();
+        assertNotNull( delta );
+
+        FriendlyByteBuf buffer = new FriendlyByteBuf( Unpooled.directBuffer() );
+        delta.write( buffer );
+        assertTrue( new TerminalDelta( buffer ).apply( client ) );
+        assertEquals( 0, buffer.readableBytes() );
+
+        checkEqual( server, client );
+        assertEquals( 3, client.getCursorX() );
+        assertEquals( 2, client.getCursorY() );
+        assertEquals( 3, client.getTextColour() );
+    }
+
+    @Test
+    public void testApplyToDifferentSize()
+    {
+        var server = new NetworkedTerminal( 10, 5, true );
+        server.pollDelta();
+        blit( server, "hello", "00000", "fffff" );
+
+        TerminalDelta delta = server.pollDelta();
+        assertNotNull( delta );
+        assertFalse( delta.apply( new NetworkedTerminal( 5, 5, true ) ) );
+    }
+
+    private static void blit( Terminal terminal, String text, String fg, String bg )
+    {
+        terminal.blit( LuaValues.encode( text ), LuaValues.encode( fg ), LuaValues.encode( bg ) );
+    }
+
+    private static void checkEqual( Terminal expected, Terminal actual )
+    {
+        assertEquals( expected.getHeight(), actual.getHeight(), "Heights must match" );
+        assertEquals( expected.getWidth(), actual.getWidth(), "Widths must match" );
+
+        for( int y = 0; y < expected.getHeight(); y++ )
+        {
+            for( int x = 0; x < expected.getWidth(); x++ )
+            {
+                assertEquals( expected.getLine( y ).charAt( x ), actual.getLine( y ).charAt( x ) );
+                assertEquals( expected.getTextColourLine( y ).get( x ), actual.getTextColourLine( y ).get( x ) );
+                assertEquals( expected.getBackgroundColourLine( y ).get( x ), actual.getBackgroundColourLine( y ).get( x ) );
+            }
+        }
+    }
+}
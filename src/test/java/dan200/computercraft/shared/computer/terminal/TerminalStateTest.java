@@ -6,7 +6,7 @@
 package dan200.computercraft.shared.computer.terminal;
 
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
+import dan200.computercraft.core.terminal.TextBuffer;
 import io.netty.buffer.Unpooled;
 import net.minecraft.network.FriendlyByteBuf;
 import org.junit.jupiter.api.RepeatedTest;
@@ -50,8 +50,8 @@ private static NetworkedTerminal randomTerminal()
         NetworkedTerminal terminal = new NetworkedTerminal( 10, 5, true );
         for( int y = 0; y < terminal.getHeight(); y++ )
         {
-            Buffer<Character> buffer = terminal.getLine( y );
-            for( int x = 0; x < buffer.length(); x++ ) buffer.set( x, (char) (random.nextInt( 26 ) + 65) );
+            TextBuffer buffer = terminal.getLine( y );
+            for( int x = 0; x < buffer.length(); x++ ) buffer.setChar( x, (char) (random.nextInt( 26 ) + 65) );
         }
 
         return terminal;
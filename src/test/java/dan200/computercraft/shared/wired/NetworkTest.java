@@ -8,6 +8,8 @@
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import dan200.computercraft.api.ComputerCraftAPI;
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.IWiredElement;
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNetworkChange;
@@ -241,6 +243,50 @@ public void testRemoveSplit()
         assertEquals( Sets.newHashSet(), cE.allPeripherals().keySet(), "C's peripheral set should be empty" );
     }
 
+    @Test
+    public void testRoutesUpdated()
+    {
+        // A square, where the path from A to C through B is shorter than the one through D.
+        NetworkElement
+            aE = new NetworkElement( null, new Vec3( 0, 0, 0 ), "a" ),
+            bE = new NetworkElement( null, new Vec3( 1, 0, 0 ), "b" ),
+            cE = new NetworkElement( null, new Vec3( 2, 0, 0 ), "c" ),
+            dE = new NetworkElement( null, new Vec3( 1, 5, 0 ), "d" );
+
+        IWiredNode
+            aN = aE.getNode(),
+            bN = bE.getNode(),
+            cN = cE.getNode(),
+            dN = dE.getNode();
+
+        aN.getNetwork().connect( aN, bN );
+        aN.getNetwork().connect( bN, cN );
+        aN.getNetwork().connect( aN, dN );
+        aN.getNetwork().connect( dN, cN );
+
+        Receiver receiver = new Receiver( cE.getPosition() );
+        cN.addReceiver( receiver );
+        double shortDistance = 2, longDistance = 2 * Math.sqrt( 26 );
+
+        assertEquals( shortDistance, receiver.transmit( aE ), 1e-6, "Should use the shortest route" );
+        assertEquals( shortDistance, receiver.transmit( aE ), 1e-6, "Should use the cached route" );
+
+        // Disconnecting the middle node should drop the cached route.
+        aN.getNetwork().disconnect( aN, bN );
+        assertEquals( longDistance, receiver.transmit( aE ), 1e-6, "Should use the longer route once disconnected" );
+
+        aN.getNetwork().connect( aN, bN );
+        assertEquals( shortDistance, receiver.transmit( aE ), 1e-6, "Should use the shorter route once reconnected" );
+
+        // As should removing it entirely.
+        aN.getNetwork().remove( bN );
+        assertEquals( longDistance, receiver.transmit( aE ), 1e-6, "Should use the longer route once removed" );
+
+        // And removing the other route should mean the packet isn't received at all.
+        aN.getNetwork().remove( dN );
+        assertNull( receiver.transmit( aE ), "Should not receive packets from another network" );
+    }
+
     private static final int BRUTE_SIZE = 16;
     private static final int TOGGLE_CONNECTION_TIMES = 5;
     private static final int TOGGLE_NODE_TIMES = 5;
@@ -385,6 +431,68 @@ public Map<String, IPeripheral> allPeripherals()
         }
     }
 
+    private static final class Receiver implements IPacketReceiver
+    {
+        private final Vec3 position;
+        private @Nullable Double distance;
+
+        private Receiver( Vec3 position )
+        {
+            this.position = position;
+        }
+
+        /**
+         * Transmit a packet from an element, and return how far it travelled to reach this receiver.
+         *
+         * @param sender The element to send the packet from.
+         * @return The distance the packet travelled, or {@code null} if it was not received.
+         */
+        @Nullable
+        Double transmit( NetworkElement sender )
+        {
+            distance = null;
+            sender.getNode().transmitSameDimension( new Packet( 1, 1, null, sender ), 100 );
+            return distance;
+        }
+
+        @Nonnull
+        @Override
+        public Level getLevel()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3 getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return 100;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+            this.distance = distance;
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+    }
+
     private static class NetworkPeripheral implements IPeripheral
     {
         @Nonnull
@@ -0,0 +1,206 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.http
+
+import dan200.computercraft.api.lua.ObjectArguments
+import dan200.computercraft.core.apis.HTTPAPI
+import dan200.computercraft.core.metrics.Metrics
+import dan200.computercraft.test.core.computer.LuaTaskRunner
+import io.netty.buffer.Unpooled
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.handler.codec.http.*
+import kotlinx.coroutines.delay
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration.Companion.seconds
+
+/**
+ * Checks that HTTP connections are reused (or not) as expected.
+ *
+ * @see dan200.computercraft.core.apis.http.request.HttpConnectionPool
+ */
+class HttpConnectionPoolTest {
+    @Test
+    fun `Reuses connections`() {
+        httpServer { ctx, _, _ -> respond(ctx) }.use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+
+                    assertEquals("http_success", request(httpApi, url)[0])
+                    assertEquals("http_success", request(httpApi, url)[0])
+
+                    assertEquals(1, server.connections.get(), "Should only open one connection")
+                    assertEquals(1, count(Metrics.HTTP_CONNECTIONS_REUSED))
+                    assertEquals(2, count(Metrics.HTTP_REQUESTS))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Does not reuse connections with Connection - close`() {
+        httpServer { ctx, _, _ -> respond(ctx) { it.set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE) } }.use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+
+                    assertEquals("http_success", request(httpApi, url)[0])
+                    assertEquals("http_success", request(httpApi, url)[0])
+
+                    assertEquals(2, server.connections.get(), "Should open a connection for each request")
+                    assertEquals(0, count(Metrics.HTTP_CONNECTIONS_REUSED))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Does not reuse connections when the request asks to close`() {
+        httpServer { ctx, _, _ -> respond(ctx) }.use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+                    val headers = mapOf("Connection" to "close")
+
+                    assertEquals("http_success", request(httpApi, url, headers = headers)[0])
+                    assertEquals("http_success", request(httpApi, url, headers = headers)[0])
+
+                    assertEquals(2, server.connections.get(), "Should open a connection for each request")
+                    assertEquals(0, count(Metrics.HTTP_CONNECTIONS_REUSED))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Retries GET requests once if the server closes a pooled connection`() {
+        closingServer().use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+
+                    assertEquals("http_success", request(httpApi, url)[0])
+
+                    // The server closes the pooled connection without responding, so we retry on a new connection.
+                    assertEquals("http_success", request(httpApi, url)[0])
+
+                    assertEquals(2, server.connections.get(), "Should open a new connection to retry")
+                    assertEquals(1, count(Metrics.HTTP_CONNECTIONS_REUSED))
+                    assertEquals(2, count(Metrics.HTTP_REQUESTS), "Retries should not be counted")
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Does not retry POST requests if the server closes a pooled connection`() {
+        closingServer().use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+
+                    assertEquals("http_success", request(httpApi, url, body = "data")[0])
+
+                    // POST requests are not idempotent, so we can't tell if it is safe to send them again.
+                    assertArrayEquals(arrayOf("http_failure", url, "Could not connect"), request(httpApi, url, body = "data"))
+
+                    assertEquals(1, server.connections.get(), "Should not open a new connection")
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Evicts idle connections after the Keep-Alive timeout`() {
+        val closed = AtomicInteger()
+        httpServer { ctx, _, _ ->
+            ctx.channel().closeFuture().addListener { closed.incrementAndGet() }
+            respond(ctx) { it.set(HttpHeaderNames.KEEP_ALIVE, "timeout=2") }
+        }.use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest(timeout = 10.seconds) {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val url = "http://127.0.0.1:${server.port}/"
+
+                    assertEquals("http_success", request(httpApi, url)[0])
+
+                    // We close connections a second before the server's timeout.
+                    delay(2.seconds)
+                    assertEquals(1, closed.get(), "Idle connection should have been closed")
+
+                    assertEquals("http_success", request(httpApi, url)[0])
+                    assertEquals(2, server.connections.get(), "Should open a new connection")
+                    assertEquals(0, count(Metrics.HTTP_CONNECTIONS_REUSED))
+                }
+            }
+        }
+    }
+
+    private suspend fun LuaTaskRunner.request(
+        httpApi: HTTPAPI,
+        url: String,
+        body: String? = null,
+        headers: Map<String, String> = mapOf(),
+    ): Array<out Any?> {
+        val options = mutableMapOf<String, Any>("url" to url, "headers" to headers)
+        if (body != null) options["body"] = body
+
+        assertArrayEquals(arrayOf(true), httpApi.request(ObjectArguments(options)), "Should have started request")
+
+        while (true) {
+            val event = pullEvent()
+            if (event[0] == "http_success" || event[0] == "http_failure") return event.copyOfRange(0, 3)
+        }
+    }
+
+    /**
+     * Send a successful response.
+     */
+    private fun respond(ctx: ChannelHandlerContext, headers: (HttpHeaders) -> Unit = {}) {
+        val response = DefaultFullHttpResponse(
+            HttpVersion.HTTP_1_1,
+            HttpResponseStatus.OK,
+            Unpooled.copiedBuffer("Hello", StandardCharsets.UTF_8),
+        )
+        HttpUtil.setContentLength(response, response.content().readableBytes().toLong())
+        headers(response.headers())
+        ctx.writeAndFlush(response)
+    }
+
+    /**
+     * A server which responds to the first request on each connection, and then closes the connection on the next
+     * request without responding.
+     */
+    private fun closingServer() = httpServer { ctx, _, index -> if (index == 0) respond(ctx) else ctx.close() }
+
+    /**
+     * A HTTP server. [handle] is called with each request, and the number of requests previously received on this
+     * connection.
+     */
+    private fun httpServer(handle: (ChannelHandlerContext, FullHttpRequest, Int) -> Unit) = TestServer { ch ->
+        ch.pipeline().addLast(
+            HttpServerCodec(),
+            HttpObjectAggregator(65536),
+            object : SimpleChannelInboundHandler<FullHttpRequest>() {
+                private var requests = 0
+
+                override fun channelRead0(ctx: ChannelHandlerContext, msg: FullHttpRequest) {
+                    handle(ctx, msg, requests++)
+                }
+            },
+        )
+    }
+}
@@ -1,6 +1,7 @@
 package dan200.computercraft.core.http
 
 import dan200.computercraft.ComputerCraft
+import dan200.computercraft.api.lua.ObjectArguments
 import dan200.computercraft.core.apis.HTTPAPI
 import dan200.computercraft.core.apis.http.options.Action
 import dan200.computercraft.core.apis.http.options.AddressRule
@@ -41,7 +42,7 @@ fun after() {
         LuaTaskRunner.runTest {
             val httpApi = addApi(HTTPAPI(environment))
 
-            val result = httpApi.websocket(WS_ADDRESS, Optional.empty())
+            val result = httpApi.websocket(ObjectArguments(WS_ADDRESS))
             assertArrayEquals(arrayOf(true), result, "Should have created websocket")
 
             val event = pullEvent()
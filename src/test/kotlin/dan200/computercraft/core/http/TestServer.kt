@@ -0,0 +1,68 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.http
+
+import dan200.computercraft.ComputerCraft
+import dan200.computercraft.core.apis.http.options.Action
+import dan200.computercraft.core.apis.http.options.AddressRule
+import io.netty.bootstrap.ServerBootstrap
+import io.netty.channel.Channel
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.SocketChannel
+import io.netty.channel.socket.nio.NioServerSocketChannel
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A server listening on a random local port, which the http API can be tested against.
+ *
+ * @param initialise Set up the pipeline for each accepted connection.
+ */
+class TestServer(private val initialise: (SocketChannel) -> Unit) : AutoCloseable {
+    private val group = NioEventLoopGroup(1)
+
+    /** The number of connections this server has accepted. */
+    val connections = AtomicInteger()
+
+    private val server: Channel = ServerBootstrap()
+        .group(group)
+        .channel(NioServerSocketChannel::class.java)
+        .childHandler(object : ChannelInitializer<SocketChannel>() {
+            override fun initChannel(ch: SocketChannel) {
+                connections.incrementAndGet()
+                initialise(ch)
+            }
+        })
+        .bind(InetAddress.getLoopbackAddress(), 0)
+        .sync().channel()
+
+    /** The port this server is listening on. */
+    val port: Int get() = (server.localAddress() as InetSocketAddress).port
+
+    override fun close() {
+        server.close().sync()
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync()
+    }
+
+    companion object {
+        /**
+         * Allow connections to any address (including local ones) while running [fn].
+         */
+        fun <T> allowLocal(fn: () -> T): T {
+            val rules = ComputerCraft.httpRules
+            ComputerCraft.httpRules = listOf(AddressRule.parse("*", OptionalInt.empty(), Action.ALLOW.toPartial())!!)
+            try {
+                return fn()
+            } finally {
+                ComputerCraft.httpRules = rules
+            }
+        }
+    }
+}
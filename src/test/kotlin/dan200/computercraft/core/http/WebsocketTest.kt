@@ -0,0 +1,115 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.http
+
+import dan200.computercraft.api.lua.LuaException
+import dan200.computercraft.api.lua.ObjectArguments
+import dan200.computercraft.core.apis.HTTPAPI
+import dan200.computercraft.core.apis.http.websocket.WebsocketHandle
+import dan200.computercraft.test.core.computer.LuaTaskRunner
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.handler.codec.http.HttpObjectAggregator
+import io.netty.handler.codec.http.HttpServerCodec
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class WebsocketTest {
+    @Test
+    fun `Sends a burst of messages`() {
+        val received = LinkedBlockingQueue<String>()
+        websocketServer(received).use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val websocket = connect(httpApi, "ws://127.0.0.1:${server.port}/", false)
+
+                    val count = 100
+                    for (i in 0 until count) websocket.send("message $i", Optional.empty())
+
+                    // Nothing else is sent after this, so the last message must be flushed without waiting for a
+                    // later send.
+                    for (i in 0 until count) {
+                        assertEquals("message $i", received.poll(5, TimeUnit.SECONDS), "Received message $i")
+                    }
+
+                    assertThrows<LuaException>("Not in batch mode") { websocket.receiveAll(Optional.empty()) }
+                    websocket.doClose()
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Receives messages in batch mode`() {
+        val received = LinkedBlockingQueue<String>()
+        websocketServer(received).use { server ->
+            TestServer.allowLocal {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val websocket = connect(httpApi, "ws://127.0.0.1:${server.port}/", true)
+                    websocket.send("burst", Optional.empty())
+
+                    // receive returns a single message at a time.
+                    assertArrayEquals(arrayOf("message 0", false), websocket.receive(Optional.empty()).await())
+
+                    // receiveAll returns every queued message, though they may arrive across several calls.
+                    val messages = mutableListOf<Any?>()
+                    while (messages.size < 2) {
+                        val result = websocket.receiveAll(Optional.empty()).await()!!
+                        val contents = result[0] as List<*>
+                        val binary = result[1] as List<*>
+
+                        assertEquals(contents.size, binary.size)
+                        assertTrue(binary.all { it == false }, "All messages are text")
+                        messages.addAll(contents)
+                    }
+                    assertEquals(listOf("message 1", "message 2"), messages)
+
+                    websocket.doClose()
+                }
+            }
+        }
+    }
+
+    private suspend fun LuaTaskRunner.connect(httpApi: HTTPAPI, address: String, batch: Boolean): WebsocketHandle {
+        val result = httpApi.websocket(ObjectArguments(mapOf("url" to address, "batch" to batch)))
+        assertArrayEquals(arrayOf(true), result, "Should have created websocket")
+
+        val event = pullEvent()
+        assertEquals("websocket_success", event[0]) { "Websocket failed to connect: ${event.contentToString()}" }
+        return event[2] as WebsocketHandle
+    }
+
+    /**
+     * A websocket server which records every message it receives. When it receives "burst", it replies with three
+     * messages at once.
+     */
+    private fun websocketServer(received: BlockingQueue<String>) = TestServer { ch ->
+        ch.pipeline().addLast(
+            HttpServerCodec(),
+            HttpObjectAggregator(65536),
+            WebSocketServerProtocolHandler("/"),
+            object : SimpleChannelInboundHandler<TextWebSocketFrame>() {
+                override fun channelRead0(ctx: ChannelHandlerContext, msg: TextWebSocketFrame) {
+                    val text = msg.text()
+                    received.add(text)
+                    if (text == "burst") {
+                        for (i in 0 until 3) ctx.write(TextWebSocketFrame("message $i"))
+                        ctx.flush()
+                    }
+                }
+            },
+        )
+    }
+}
@@ -6,7 +6,6 @@
 package dan200.computercraft.test.core.terminal;
 
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.Buffer;
 import dan200.computercraft.test.core.ContramapMatcher;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
@@ -48,7 +47,7 @@ public static Matcher<Terminal> linesMatchWith( String kind, LineProvider getLin
     @FunctionalInterface
     public interface LineProvider
     {
-        Buffer getLine( Terminal terminal, int line );
+        Object getLine( Terminal terminal, int line );
     }
 
 }
@@ -23,11 +23,15 @@
 
 /**
  * Creates "fake" computers, which just run user-defined tasks rather than Lua code.
+ *
+ * @param computerThread The computer thread to run computers on.
  */
-class KotlinComputerManager : AutoCloseable {
+class KotlinComputerManager @JvmOverloads constructor(
+    computerThread: ComputerThread = ComputerThread(1),
+) : AutoCloseable {
 
     private val machines: MutableMap<Computer, Queue<FakeComputerTask>> = HashMap()
-    private val context = ComputerContext(BasicEnvironment(), ComputerThread(1), FakeMainThreadScheduler()) { DummyLuaMachine(it) }
+    private val context = ComputerContext(BasicEnvironment(), computerThread, FakeMainThreadScheduler()) { DummyLuaMachine(it) }
     private val errorLock: Lock = ReentrantLock()
     private val hasError = errorLock.newCondition()
 
@@ -4,17 +4,21 @@
 import dan200.computercraft.api.lua.ILuaContext
 import dan200.computercraft.api.lua.LuaException
 import dan200.computercraft.core.apis.IAPIEnvironment
+import dan200.computercraft.core.metrics.Metric
 import dan200.computercraft.test.core.apis.BasicApiEnvironment
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withTimeout
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.seconds
 
 class LuaTaskRunner : AbstractLuaTaskContext() {
     private val eventStream: Channel<Event> = Channel(Channel.UNLIMITED)
     private val apis = mutableListOf<ILuaAPI>()
+    private val counters = ConcurrentHashMap<Metric.Counter, AtomicInteger>()
 
     val environment: IAPIEnvironment = object : BasicApiEnvironment(BasicEnvironment()) {
         override fun queueEvent(event: String?, vararg args: Any?) {
@@ -27,6 +31,10 @@ override fun shutdown() {
             super.shutdown()
             eventStream.close()
         }
+
+        override fun observe(counter: Metric.Counter) {
+            counters.computeIfAbsent(counter) { AtomicInteger() }.incrementAndGet()
+        }
     }
     override val context =
         ILuaContext { throw LuaException("Cannot queue main thread task") }
@@ -38,6 +46,9 @@ override fun shutdown() {
         return api
     }
 
+    /** Get the number of times [counter] has been observed. */
+    fun count(counter: Metric.Counter): Int = counters[counter]?.get() ?: 0
+
     override fun close() {
         environment.shutdown()
     }